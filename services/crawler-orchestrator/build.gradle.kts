@@ -3,6 +3,8 @@ plugins {
     id("org.springframework.boot") version "3.5.5"
     id("io.spring.dependency-management") version "1.1.7"
     id("io.freefair.lombok") version "8.10.2"
+    // only for the processAot task; see the -Paot block below
+    id("org.graalvm.buildtools.native") version "0.10.6" apply false
 }
 
 group = "dev.propprice"
@@ -31,11 +33,13 @@ dependencies {
     implementation("org.flywaydb:flyway-database-postgresql")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("com.networknt:json-schema-validator:1.5.2")
+    implementation("org.apache.avro:avro:1.12.0")
     implementation("com.vladmihalcea:hibernate-types-60:2.21.1")
     implementation("net.logstash.logback:logstash-logback-encoder:7.4")
 
 
-    runtimeOnly("org.postgresql:postgresql")
+    // pgjdbc API is used directly (LISTEN/NOTIFY)
+    implementation("org.postgresql:postgresql")
     runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 
     // For @ConfigurationProperties metadata in IDEs
@@ -55,3 +59,111 @@ dependencies {
 }
 
 tasks.withType<Test> { useJUnitPlatform() }
+
+// Fast start (README "Fast Start"). -Paot runs Spring AOT and packs the generated bean
+// definitions into the boot jar; start it with -Dspring.aot.enabled=true. AOT evaluates
+// @Conditional beans at build time, so conditions such as co.datasource.replica.enabled
+// must be passed to the build: -Paot -PaotArgs=--co.datasource.replica.enabled=true
+if (project.hasProperty("aot")) {
+    apply(plugin = "org.graalvm.buildtools.native")
+    tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+        project.findProperty("aotArgs")?.toString()?.split(" ")?.filter { it.isNotBlank() }?.let { args(it) }
+    }
+}
+
+val bootJarTask = tasks.named<org.springframework.boot.gradle.tasks.bundling.BootJar>("bootJar")
+val fastStartDir = layout.buildDirectory.dir("faststart")
+val launcher = javaToolchains.launcherFor(java.toolchain)
+
+tasks.register<Exec>("extractFastStart") {
+    group = "build"
+    description = "Extracts the boot jar into build/faststart (required layout for CDS)"
+    dependsOn(bootJarTask)
+    doFirst {
+        executable = launcher.get().executablePath.asFile.absolutePath
+        args("-Djarmode=tools", "-jar", bootJarTask.get().archiveFile.get().asFile.absolutePath,
+            "extract", "--destination", fastStartDir.get().asFile.absolutePath, "--force")
+    }
+}
+
+// Training run: refreshes the context with the training profile (no database, broker or
+// Redis needed), exits, and dumps the loaded classes to build/faststart/application.jsa
+tasks.register<Exec>("fastStart") {
+    group = "build"
+    description = "Builds the AppCDS archive for the extracted jar"
+    dependsOn("extractFastStart")
+    workingDir(fastStartDir)
+    doFirst {
+        executable = launcher.get().executablePath.asFile.absolutePath
+        args("-XX:ArchiveClassesAtExit=application.jsa", "-Dspring.context.exit=onRefresh",
+            "-Dspring.profiles.active=training")
+        if (project.hasProperty("aot")) args("-Dspring.aot.enabled=true")
+        // CDS checks the classpath, so later runs must use this same absolute jar path
+        args("-jar", fastStartDir.get().file(bootJarTask.get().archiveFileName.get()).asFile.absolutePath)
+    }
+}
+
+// Standalone benchmarks against a running broker (not part of the build):
+//   ./gradlew benchOutboxRelay -Pbootstrap=localhost:9092
+val bench by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[bench.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[bench.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("benchEventEncoding") {
+    group = "verification"
+    description = "Compares JSON and Avro sizes and codec throughput on realistic events"
+    classpath = bench.runtimeClasspath
+    mainClass = "dev.propprice.co.bench.EventEncodingBenchmark"
+}
+
+tasks.register<JavaExec>("benchOutboxRelay") {
+    group = "verification"
+    description = "Compares per-message synchronous sends with transactional batched sends"
+    classpath = bench.runtimeClasspath
+    mainClass = "dev.propprice.co.bench.OutboxRelayBenchmark"
+    args = listOf(
+        (project.findProperty("bootstrap") ?: "localhost:9092").toString(),
+        (project.findProperty("messages") ?: "20000").toString())
+}
+
+// Time from launch to health UP and to the first acq.job.dispatched record; needs the
+// infrastructure up, due frontier rows and no other leader running:
+//   ./gradlew bootJar benchStartup -Pruns=5 -Pcmd="java -XX:SharedArchiveFile=... -jar ..."
+tasks.register<JavaExec>("benchStartup") {
+    group = "verification"
+    description = "Measures startup to first dispatched job for a launch command"
+    classpath = bench.runtimeClasspath
+    mainClass = "dev.propprice.co.bench.StartupBenchmark"
+    doFirst {
+        val cmd = project.findProperty("cmd")?.toString()
+            ?: "java -jar ${bootJarTask.get().archiveFile.get().asFile.absolutePath}"
+        args = listOf(
+            (project.findProperty("bootstrap") ?: "localhost:9092").toString(),
+            (project.findProperty("health") ?: "http://localhost:8080/actuator/health").toString(),
+            (project.findProperty("runs") ?: "5").toString()) + cmd.split(" ").filter { it.isNotBlank() }
+    }
+}
+
+// Offline dispatch simulation of a scenario (policies, lanes, scraper behaviour), no infrastructure needed:
+//   ./gradlew simulate -Pscenario=path/to/scenario.json -Pout=build/sim/timeseries.csv
+val sim by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[sim.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[sim.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("simulate") {
+    group = "verification"
+    description = "Replays the dispatcher, retries and recrawl planning over a scenario on a virtual clock"
+    classpath = sim.runtimeClasspath
+    mainClass = "dev.propprice.co.sim.DispatchSimulator"
+    args = listOf(
+        file(project.findProperty("scenario") ?: "src/sim/resources/scenario.json").absolutePath,
+        file(project.findProperty("out") ?: "build/sim/timeseries.csv").absolutePath)
+}
@@ -0,0 +1,112 @@
+package dev.propprice.co.bench;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.propprice.co.schema.EventCodec;
+
+/**
+ * Wire size and codec throughput of JSON versus Avro for the three event
+ * shapes that matter: a search page result with discovered links, a detail
+ * page result and a job dispatch.
+ *
+ * Usage: {@code EventEncodingBenchmark [iterations] [discoveredLinks]}
+ */
+public final class EventEncodingBenchmark {
+
+  private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    int links = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+    System.out.printf("%-28s %-6s %9s %14s %14s%n", "event", "format", "bytes", "encode/s", "decode/s");
+    run("raw.page search (" + links + " links)", "acq.raw.page@v1", rawPage(links), iterations / 10);
+    run("raw.page detail", "acq.raw.page@v1", rawPage(0), iterations);
+    run("job.dispatched", "acq.job.dispatched@v1", jobDispatched(), iterations);
+  }
+
+  private static void run(String name, String schema, JsonNode evt, int iterations) {
+    for (String contentType : new String[] { EventCodec.JSON, EventCodec.AVRO }) {
+      byte[] bytes = EventCodec.encode(contentType, schema, evt);
+      // warm-up
+      for (int i = 0; i < iterations / 10; i++) {
+        EventCodec.decode(contentType, schema, EventCodec.encode(contentType, schema, evt));
+      }
+
+      long t0 = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        EventCodec.encode(contentType, schema, evt);
+      }
+      long t1 = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        EventCodec.decode(contentType, schema, bytes);
+      }
+      long t2 = System.nanoTime();
+
+      System.out.printf("%-28s %-6s %9d %14.0f %14.0f%n", name,
+          EventCodec.isAvro(contentType) ? "avro" : "json", bytes.length,
+          iterations / ((t1 - t0) / 1e9), iterations / ((t2 - t1) / 1e9));
+    }
+  }
+
+  private static ObjectNode rawPage(int links) {
+    ObjectNode evt = envelope();
+    ObjectNode job = evt.putObject("job");
+    job.put("job_id", UUID.randomUUID().toString());
+    job.put("portal", "idealista");
+    job.put("task_type", links > 0 ? "search_page" : "detail");
+    job.put("segment", "sale");
+    ObjectNode req = evt.putObject("request");
+    req.put("url", "https://www.idealista.com/venta-viviendas/madrid/centro/pagina-3.htm");
+    req.put("url_hash", "0cc175b9c0f1b6a831c399e269772661");
+    ObjectNode http = evt.putObject("http");
+    http.put("status", 200);
+    http.put("html_path", "s3://raw-pages/idealista/2025/01/01/" + UUID.randomUUID() + ".html.gz");
+    http.put("content_hash", "92eb5ffee6ae2fec3ad71c777531578f");
+    http.put("fetched_at", Instant.now().toString());
+    ObjectNode headers = http.putObject("headers");
+    headers.put("content-type", "text/html; charset=utf-8");
+    headers.put("server", "nginx");
+    ObjectNode parser = evt.putObject("parser");
+    parser.put("attempted", true);
+    parser.put("extracted_items", links);
+    ArrayNode discovered = evt.putArray("discovered");
+    for (int i = 0; i < links; i++) {
+      ObjectNode d = discovered.addObject();
+      d.put("url", "https://www.idealista.com/inmueble/" + (100_000_000 + i * 7919) + "/");
+      d.put("task_type", "detail");
+      d.put("segment", "sale");
+      d.put("priority", 5);
+    }
+    return evt;
+  }
+
+  private static ObjectNode jobDispatched() {
+    ObjectNode evt = envelope();
+    ObjectNode job = evt.putObject("job");
+    job.put("job_id", UUID.randomUUID().toString());
+    job.put("portal", "idealista");
+    job.put("task_type", "detail");
+    job.put("segment", "rent");
+    job.put("priority", 5);
+    ObjectNode req = evt.putObject("request");
+    req.put("url", "https://www.idealista.com/inmueble/104553211/");
+    req.put("url_hash", "0cc175b9c0f1b6a831c399e269772661");
+    req.put("attempt", 1);
+    return evt;
+  }
+
+  private static ObjectNode envelope() {
+    ObjectNode evt = NODES.objectNode();
+    evt.put("schema_version", 1);
+    evt.put("event_id", UUID.randomUUID().toString());
+    evt.put("occurred_at", Instant.now().toString());
+    return evt;
+  }
+}
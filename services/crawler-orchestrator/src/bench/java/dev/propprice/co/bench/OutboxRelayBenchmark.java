@@ -0,0 +1,122 @@
+package dev.propprice.co.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+/**
+ * Relay throughput against a live broker: the polling relay's one blocking
+ * send per row versus the transactional relay's one transaction per batch
+ * (idempotent, lz4, linger). Payloads mimic acq.job.dispatched events.
+ *
+ * Usage: {@code OutboxRelayBenchmark <bootstrap> [messages] [batchSize]}
+ */
+public final class OutboxRelayBenchmark {
+
+  private static final String TOPIC = "co.bench.outbox";
+
+  public static void main(String[] args) throws Exception {
+    String bootstrap = args.length > 0 ? args[0] : "localhost:9092";
+    int messages = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+    int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+    createTopic(bootstrap);
+    List<String> payloads = payloads(messages);
+
+    // warm-up so metadata fetch and connection setup are not measured
+    perMessage(bootstrap, payloads.subList(0, Math.min(500, messages)));
+    transactional(bootstrap, payloads.subList(0, Math.min(500, messages)), batchSize);
+
+    report("polling (sync send per row)", messages, perMessage(bootstrap, payloads));
+    report("transactional (batch=" + batchSize + ", lz4)", messages, transactional(bootstrap, payloads, batchSize));
+  }
+
+  private static long perMessage(String bootstrap, List<String> payloads) throws Exception {
+    Properties props = base(bootstrap);
+    props.put(ProducerConfig.ACKS_CONFIG, "all");
+    try (KafkaProducer<String, String> producer = new KafkaProducer<>(props)) {
+      long start = System.nanoTime();
+      for (int i = 0; i < payloads.size(); i++) {
+        producer.send(new ProducerRecord<>(TOPIC, key(i), payloads.get(i))).get();
+      }
+      return System.nanoTime() - start;
+    }
+  }
+
+  private static long transactional(String bootstrap, List<String> payloads, int batchSize) throws Exception {
+    Properties props = base(bootstrap);
+    props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    props.put(ProducerConfig.ACKS_CONFIG, "all");
+    props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+    props.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+    props.put(ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024);
+    props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "co-bench-" + UUID.randomUUID());
+    try (KafkaProducer<String, String> producer = new KafkaProducer<>(props)) {
+      producer.initTransactions();
+      long start = System.nanoTime();
+      for (int from = 0; from < payloads.size(); from += batchSize) {
+        int to = Math.min(from + batchSize, payloads.size());
+        producer.beginTransaction();
+        List<Future<RecordMetadata>> sent = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+          sent.add(producer.send(new ProducerRecord<>(TOPIC, key(i), payloads.get(i))));
+        }
+        producer.commitTransaction();
+        for (Future<RecordMetadata> f : sent) {
+          f.get();
+        }
+      }
+      return System.nanoTime() - start;
+    }
+  }
+
+  private static Properties base(String bootstrap) {
+    Properties props = new Properties();
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+    props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    return props;
+  }
+
+  private static void createTopic(String bootstrap) throws Exception {
+    Properties props = new Properties();
+    props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+    try (AdminClient admin = AdminClient.create(props)) {
+      admin.createTopics(List.of(new NewTopic(TOPIC, 12, (short) 1))).all().get();
+    } catch (Exception e) {
+      if (!(e.getCause() instanceof TopicExistsException))
+        throw e;
+    }
+  }
+
+  private static List<String> payloads(int n) {
+    List<String> out = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      out.add("""
+          {"job_id":"%s","portal":"idealista","task_type":"detail","segment":"sale","url":"https://www.idealista.com/inmueble/%d/","url_hash":"%064x","attempt":1,"not_before":"2025-01-01T00:00:00Z","trace":{"ce_id":"%s","ce_source":"crawler-orchestrator"}}"""
+          .formatted(UUID.randomUUID(), 10_000_000 + i, (long) i, UUID.randomUUID()));
+    }
+    return out;
+  }
+
+  private static String key(int i) {
+    return "idealista|detail|" + (i % 1024);
+  }
+
+  private static void report(String mode, int messages, long nanos) {
+    double seconds = nanos / 1e9;
+    System.out.printf("%-40s %8d msgs  %8.2f s  %10.0f msg/s%n", mode, messages, seconds, messages / seconds);
+  }
+}
@@ -0,0 +1,132 @@
+package dev.propprice.co.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+
+import dev.propprice.co.config.KafkaTopics;
+
+/**
+ * Cold-start latency of the orchestrator as a whole: launches the given
+ * command, then measures time until actuator health reports UP and until the
+ * first acq.job.dispatched record produced after the launch. Needs the
+ * infrastructure running, due frontier rows and no other leader, otherwise the
+ * dispatch time measures the wait for leadership instead.
+ *
+ * Usage: {@code StartupBenchmark <bootstrap> <healthUrl> <runs> <command...>}
+ */
+public final class StartupBenchmark {
+
+  private static final Duration TIMEOUT = Duration.ofMinutes(3);
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 4) {
+      System.err.println("Usage: StartupBenchmark <bootstrap> <healthUrl> <runs> <command...>");
+      System.exit(2);
+    }
+    String bootstrap = args[0];
+    URI health = URI.create(args[1]);
+    int runs = Integer.parseInt(args[2]);
+    List<String> command = Arrays.asList(args).subList(3, args.length);
+
+    HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    List<Long> healthy = new ArrayList<>(), dispatched = new ArrayList<>();
+    for (int run = 1; run <= runs; run++) {
+      try (KafkaConsumer<byte[], byte[]> consumer = consumer(bootstrap)) {
+        long launchedAt = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+          long up = awaitHealthy(http, health, process, start);
+          long first = awaitDispatch(consumer, launchedAt, process, start);
+          healthy.add(up);
+          dispatched.add(first);
+          System.out.printf("run %d: health UP %6d ms, first dispatch %6d ms%n", run, up, first);
+        } finally {
+          process.destroy(); // SIGTERM, so the leader hands off instead of waiting out its TTL
+          if (!process.waitFor(30, TimeUnit.SECONDS))
+            process.destroyForcibly().waitFor();
+        }
+      }
+    }
+    System.out.printf("median over %d runs: health UP %d ms, first dispatch %d ms%n",
+        runs, median(healthy), median(dispatched));
+  }
+
+  private static long awaitHealthy(HttpClient http, URI health, Process process, long start) throws Exception {
+    HttpRequest req = HttpRequest.newBuilder(health).timeout(Duration.ofSeconds(1)).build();
+    while (elapsed(start) < TIMEOUT.toMillis()) {
+      ensureAlive(process);
+      try {
+        HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() == 200 && res.body().contains("\"UP\""))
+          return elapsed(start);
+      } catch (IOException e) {
+        // not listening yet
+      }
+      Thread.sleep(20);
+    }
+    throw new IllegalStateException("Not healthy after " + TIMEOUT);
+  }
+
+  private static long awaitDispatch(KafkaConsumer<byte[], byte[]> consumer, long launchedAt, Process process,
+      long start) {
+    while (elapsed(start) < TIMEOUT.toMillis()) {
+      ensureAlive(process);
+      for (ConsumerRecord<byte[], byte[]> r : consumer.poll(Duration.ofMillis(50))) {
+        if (r.timestamp() >= launchedAt)
+          return elapsed(start);
+      }
+    }
+    throw new IllegalStateException("No job dispatched after " + TIMEOUT + "; are frontier rows due?");
+  }
+
+  /** Assigned to the end of every partition before launch, so only new records count. */
+  private static KafkaConsumer<byte[], byte[]> consumer(String bootstrap) {
+    Properties props = new Properties();
+    props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+    props.put(ConsumerConfig.GROUP_ID_CONFIG, "co-bench-startup-" + UUID.randomUUID());
+    props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+    KafkaConsumer<byte[], byte[]> consumer = new KafkaConsumer<>(props);
+    List<TopicPartition> partitions = new ArrayList<>();
+    for (PartitionInfo p : consumer.partitionsFor(KafkaTopics.JOB_DISPATCHED))
+      partitions.add(new TopicPartition(p.topic(), p.partition()));
+    consumer.assign(partitions);
+    consumer.seekToEnd(partitions);
+    partitions.forEach(consumer::position); // resolve now, not on the first poll after launch
+    return consumer;
+  }
+
+  private static void ensureAlive(Process process) {
+    if (!process.isAlive())
+      throw new IllegalStateException("Process exited with " + process.exitValue());
+  }
+
+  private static long elapsed(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  private static long median(List<Long> values) {
+    List<Long> sorted = values.stream().sorted().toList();
+    return sorted.isEmpty() ? 0 : sorted.get(sorted.size() / 2);
+  }
+}
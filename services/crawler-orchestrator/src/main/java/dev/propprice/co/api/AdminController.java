@@ -0,0 +1,24 @@
+package dev.propprice.co.api;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import dev.propprice.co.api.dto.PolicyRefreshResponse;
+import dev.propprice.co.app.PolicyService;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/v1/admin")
+@RequiredArgsConstructor
+public class AdminController {
+  private final PolicyService policyService;
+
+  /** Force a reload of the in-process policy cache. */
+  @PostMapping("/policies/refresh")
+  public ResponseEntity<PolicyRefreshResponse> refreshPolicies() {
+    int n = policyService.refresh();
+    return ResponseEntity.ok(new PolicyRefreshResponse(n));
+  }
+}
@@ -1,25 +1,114 @@
 package dev.propprice.co.api;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import dev.propprice.co.api.dto.FrontierBatchUpsertRequest;
 import dev.propprice.co.api.dto.FrontierBatchUpsertResponse;
+import dev.propprice.co.api.dto.FrontierPageResponse;
+import dev.propprice.co.api.dto.FrontierReactivateRequest;
+import dev.propprice.co.api.dto.FrontierReactivateResponse;
+import dev.propprice.co.api.dto.FrontierView;
+import dev.propprice.co.app.FrontierLifecycleManager;
+import dev.propprice.co.app.FrontierQueryService;
+import dev.propprice.co.app.FrontierQueryService.Filter;
+import dev.propprice.co.app.FrontierQueryService.Projection;
 import dev.propprice.co.app.FrontierService;
+import dev.propprice.co.domain.enums.FrontierStatus;
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
 import lombok.RequiredArgsConstructor;
 
 @RestController
 @RequestMapping("/v1/frontier")
 @RequiredArgsConstructor
 public class FrontierController {
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
   private final FrontierService service;
+  private final FrontierQueryService queryService;
+  private final FrontierLifecycleManager lifecycle;
+  private final TransactionTemplate tx;
+  // the MVC mapper, so exported rows match the page format
+  private final ObjectMapper om;
 
   @PostMapping("/batch-upsert")
   public ResponseEntity<FrontierBatchUpsertResponse> upsert(@RequestBody FrontierBatchUpsertRequest req) {
-    int n = service.batchUpsert(req);
-    return ResponseEntity.ok(new FrontierBatchUpsertResponse(n));
+    try {
+      return ResponseEntity.ok(new FrontierBatchUpsertResponse(service.batchUpsert(req)));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /** Undo quarantine, retirement or archival for the given URLs. */
+  @PostMapping("/reactivate")
+  public ResponseEntity<FrontierReactivateResponse> reactivate(@RequestBody FrontierReactivateRequest req) {
+    if (req.getPortal() == null || req.getTask_type() == null || req.getUrl_hashes() == null
+        || req.getUrl_hashes().isEmpty() || req.getUrl_hashes().size() > 10_000)
+      return ResponseEntity.badRequest().build();
+    return ResponseEntity.ok(lifecycle.reactivate(req.getPortal(), req.getTask_type(), req.getUrl_hashes()));
+  }
+
+  /** Frontier rows in key order; follow {@code next_cursor} for the next page. */
+  @GetMapping
+  public ResponseEntity<FrontierPageResponse> list(
+      @RequestParam(required = false) String portal,
+      @RequestParam(name = "task_type", required = false) TaskType taskType,
+      @RequestParam(required = false) Segment segment,
+      @RequestParam(required = false) FrontierStatus status,
+      @RequestParam(defaultValue = "summary") Projection fields,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "100") int limit) {
+    try {
+      return ResponseEntity.ok(queryService.page(new Filter(portal, taskType, segment, status), fields, cursor, limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /** Every matching row as NDJSON, streamed from a database cursor. */
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam(required = false) String portal,
+      @RequestParam(name = "task_type", required = false) TaskType taskType,
+      @RequestParam(required = false) Segment segment,
+      @RequestParam(required = false) FrontierStatus status,
+      @RequestParam(defaultValue = "summary") Projection fields) {
+    Filter filter = new Filter(portal, taskType, segment, status);
+    ObjectWriter writer = om.writerFor(FrontierView.class);
+    TransactionTemplate readOnly = new TransactionTemplate(tx.getTransactionManager());
+    readOnly.setReadOnly(true);
+    StreamingResponseBody body = out -> readOnly.executeWithoutResult(s -> {
+      try (Stream<FrontierView> rows = queryService.stream(filter, fields)) {
+        rows.forEach(row -> writeLine(writer, out, row));
+      }
+    });
+    return ResponseEntity.ok().contentType(NDJSON).body(body);
+  }
+
+  private static void writeLine(ObjectWriter writer, OutputStream out, FrontierView row) {
+    try {
+      out.write(writer.writeValueAsBytes(row));
+      out.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 }
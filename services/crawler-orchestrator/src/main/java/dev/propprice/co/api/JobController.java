@@ -0,0 +1,61 @@
+package dev.propprice.co.api;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import dev.propprice.co.api.dto.JobLeaseResponse;
+import dev.propprice.co.api.dto.JobView;
+import dev.propprice.co.app.JobQueryService;
+import dev.propprice.co.app.LeaseService;
+import dev.propprice.co.domain.enums.JobStatus;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/v1/jobs")
+@RequiredArgsConstructor
+public class JobController {
+  private final LeaseService leaseService;
+  private final JobQueryService queryService;
+
+  /** Recent jobs (window defaults to the last day; bounded by co.jobs.partitions.query-window-days). */
+  @GetMapping
+  public ResponseEntity<List<JobView>> list(
+      @RequestParam(required = false) String portal,
+      @RequestParam(required = false) JobStatus status,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime since,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime until,
+      @RequestParam(defaultValue = "100") int limit) {
+    try {
+      return ResponseEntity.ok(queryService.find(portal, status, since, until, limit));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  @GetMapping("/{jobId}")
+  public ResponseEntity<JobView> get(@PathVariable UUID jobId) {
+    return queryService.get(jobId)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  /** Scraper heartbeat for long jobs; 404 once the job is no longer in flight. */
+  @PostMapping("/{jobId}/heartbeat")
+  public ResponseEntity<JobLeaseResponse> heartbeat(@PathVariable UUID jobId,
+      @RequestParam(name = "extend_minutes", defaultValue = "2") int extendMinutes) {
+    return leaseService.extendLease(jobId, extendMinutes)
+        .map(until -> ResponseEntity.ok(new JobLeaseResponse(jobId, until)))
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+}
@@ -0,0 +1,74 @@
+package dev.propprice.co.api;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import dev.propprice.co.api.dto.ReplayFailureView;
+import dev.propprice.co.api.dto.ReplayStartRequest;
+import dev.propprice.co.api.dto.ReplayView;
+import dev.propprice.co.app.DltReplayService;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/v1/admin/replays")
+@RequiredArgsConstructor
+public class ReplayController {
+  private final DltReplayService service;
+
+  /** Start replaying a range of acq.raw.page.DLT; poll the returned run for progress. */
+  @PostMapping
+  public ResponseEntity<ReplayView> start(@RequestBody ReplayStartRequest req) {
+    try {
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(service.start(req));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  @GetMapping
+  public ResponseEntity<List<ReplayView>> list(@RequestParam(defaultValue = "20") int limit) {
+    return ResponseEntity.ok(service.list(limit));
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<ReplayView> get(@PathVariable UUID id) {
+    return service.get(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+  }
+
+  @PostMapping("/{id}/pause")
+  public ResponseEntity<ReplayView> pause(@PathVariable UUID id) {
+    try {
+      return service.pause(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+  }
+
+  /** Continue from the stored checkpoint. */
+  @PostMapping("/{id}/resume")
+  public ResponseEntity<ReplayView> resume(@PathVariable UUID id) {
+    try {
+      return service.resume(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+  }
+
+  @GetMapping("/{id}/failures")
+  public ResponseEntity<List<ReplayFailureView>> failures(@PathVariable UUID id,
+      @RequestParam(defaultValue = "100") int limit) {
+    if (service.get(id).isEmpty())
+      return ResponseEntity.notFound().build();
+    return ResponseEntity.ok(service.failures(id, limit));
+  }
+}
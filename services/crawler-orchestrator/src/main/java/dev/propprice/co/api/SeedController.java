@@ -0,0 +1,65 @@
+package dev.propprice.co.api;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import dev.propprice.co.api.dto.SeedRunView;
+import dev.propprice.co.api.dto.SeedStartRequest;
+import dev.propprice.co.app.SeedIngestService;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/v1/admin/seeds")
+@RequiredArgsConstructor
+public class SeedController {
+  private final SeedIngestService service;
+
+  /** Start loading seed files into the frontier; poll the returned run for per-file progress. */
+  @PostMapping
+  public ResponseEntity<SeedRunView> start(@RequestBody SeedStartRequest req) {
+    try {
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(service.start(req));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  @GetMapping
+  public ResponseEntity<List<SeedRunView>> list(@RequestParam(defaultValue = "20") int limit) {
+    return ResponseEntity.ok(service.list(limit));
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<SeedRunView> get(@PathVariable UUID id) {
+    return service.get(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+  }
+
+  @PostMapping("/{id}/pause")
+  public ResponseEntity<SeedRunView> pause(@PathVariable UUID id) {
+    try {
+      return service.pause(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+  }
+
+  /** Continue from the stored per-file checkpoints. */
+  @PostMapping("/{id}/resume")
+  public ResponseEntity<SeedRunView> resume(@PathVariable UUID id) {
+    try {
+      return service.resume(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    } catch (IllegalStateException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+  }
+}
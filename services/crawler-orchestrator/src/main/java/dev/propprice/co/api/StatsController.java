@@ -0,0 +1,31 @@
+package dev.propprice.co.api;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import dev.propprice.co.api.dto.FrontierStatsResponse;
+import dev.propprice.co.app.FrontierStatsService;
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/v1/stats")
+@RequiredArgsConstructor
+public class StatsController {
+  private final FrontierStatsService frontierStats;
+
+  /** Backlog per portal/task_type/segment/status from maintained counters; never scans the frontier. */
+  @GetMapping("/frontier")
+  public ResponseEntity<FrontierStatsResponse> frontier(
+      @RequestParam(required = false) String portal,
+      @RequestParam(name = "task_type", required = false) TaskType taskType,
+      @RequestParam(required = false) Segment segment) {
+    return ResponseEntity.ok(frontierStats.read(portal,
+        taskType != null ? taskType.name() : null,
+        segment != null ? segment.name() : null));
+  }
+}
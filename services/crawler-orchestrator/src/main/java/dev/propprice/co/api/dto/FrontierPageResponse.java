@@ -0,0 +1,14 @@
+package dev.propprice.co.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FrontierPageResponse {
+  private List<FrontierView> items;
+  /** Pass back as {@code cursor} for the next page; null on the last page */
+  private String next_cursor;
+}
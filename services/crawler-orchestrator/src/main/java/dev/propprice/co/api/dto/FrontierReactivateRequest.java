@@ -0,0 +1,13 @@
+package dev.propprice.co.api.dto;
+
+import java.util.List;
+
+import dev.propprice.co.domain.enums.TaskType;
+import lombok.Data;
+
+@Data
+public class FrontierReactivateRequest {
+  private String portal;
+  private TaskType task_type;
+  private List<String> url_hashes;
+}
@@ -0,0 +1,13 @@
+package dev.propprice.co.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FrontierReactivateResponse {
+  /** Rows brought back from ing.frontier_archive */
+  private int restored;
+  /** Quarantined or retired rows made active again (restored rows included) */
+  private int reactivated;
+}
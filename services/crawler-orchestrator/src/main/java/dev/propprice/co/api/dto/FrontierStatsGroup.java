@@ -0,0 +1,25 @@
+package dev.propprice.co.api.dto;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FrontierStatsGroup {
+  private String portal;
+  private String task_type;
+  private String segment;
+  private String status;
+  private long total;
+  /** Active and not leased, with the due time passed */
+  private long due;
+  private OffsetDateTime oldest_due_at;
+  private Long oldest_due_age_seconds;
+  /** Due URLs by how long they have been due */
+  private Map<String, Long> due_age;
+  /** Not yet due, by time until due (leased URLs count from lease expiry) */
+  private Map<String, Long> upcoming;
+}
@@ -0,0 +1,16 @@
+package dev.propprice.co.api.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FrontierStatsResponse {
+  private OffsetDateTime generated_at;
+  /** Width of the due-time buckets behind due counts and ages */
+  private long resolution_seconds;
+  private List<FrontierStatsGroup> groups;
+}
@@ -0,0 +1,28 @@
+package dev.propprice.co.api.dto;
+
+import java.time.OffsetDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Frontier row; fields outside the requested projection are null and omitted. */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FrontierView {
+  private String portal;
+  private String task_type;
+  private String url_hash;
+  private String url;
+  private String segment;
+  private String status;
+  private Integer priority;
+  private OffsetDateTime first_seen_at;
+  private OffsetDateTime last_run_at;
+  private OffsetDateTime next_eligible_at;
+  private OffsetDateTime lease_until;
+  private Integer consecutive_failures;
+  private Integer last_result_status;
+}
@@ -0,0 +1,14 @@
+package dev.propprice.co.api.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class JobLeaseResponse {
+  private UUID job_id;
+  private OffsetDateTime lease_until;
+}
@@ -0,0 +1,25 @@
+package dev.propprice.co.api.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class JobView {
+  private UUID job_id;
+  private String portal;
+  private String task_type;
+  private String segment;
+  private String url_hash;
+  private String url;
+  private int attempt;
+  private String status;
+  private OffsetDateTime scheduled_at;
+  private OffsetDateTime last_update_at;
+  private JsonNode hints;
+}
@@ -0,0 +1,10 @@
+package dev.propprice.co.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PolicyRefreshResponse {
+  private int portals;
+}
@@ -0,0 +1,15 @@
+package dev.propprice.co.api.dto;
+
+import java.time.OffsetDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ReplayFailureView {
+  private int partition;
+  private long offset;
+  private String error;
+  private OffsetDateTime failed_at;
+}
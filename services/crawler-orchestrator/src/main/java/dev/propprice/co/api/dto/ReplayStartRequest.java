@@ -0,0 +1,18 @@
+package dev.propprice.co.api.dto;
+
+import java.time.OffsetDateTime;
+
+import lombok.Data;
+
+/** Offset or time bounds (both optional; open ends mean earliest / current end). */
+@Data
+public class ReplayStartRequest {
+  private Integer partition; // optional; all partitions when absent
+  private Long from_offset;
+  private Long to_offset; // exclusive
+  private OffsetDateTime from_time;
+  private OffsetDateTime to_time; // exclusive
+  private Integer rate_per_sec;
+  private Integer batch_size;
+  private Integer max_failures;
+}
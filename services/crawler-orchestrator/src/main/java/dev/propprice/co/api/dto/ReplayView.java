@@ -0,0 +1,28 @@
+package dev.propprice.co.api.dto;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ReplayView {
+  private UUID replay_id;
+  private String topic;
+  private String status;
+  private int rate_per_sec;
+  private long processed;
+  private long failed;
+  private long remaining;
+  /** Next offset to replay, per partition */
+  private Map<Integer, Long> checkpoint;
+  /** Exclusive end, per partition */
+  private Map<Integer, Long> end_offsets;
+  private String owner;
+  private String last_error;
+  private OffsetDateTime created_at;
+  private OffsetDateTime updated_at;
+}
@@ -0,0 +1,24 @@
+package dev.propprice.co.api.dto;
+
+import java.time.OffsetDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SeedFileView {
+  private String path;
+  private String format;
+  private String status;
+  /** Records consumed, including invalid ones and child sitemaps */
+  private long records_done;
+  /** Frontier rows inserted or changed */
+  private long merged;
+  private long invalid;
+  private long bytes_read;
+  private Long bytes_total;
+  private String error;
+  private OffsetDateTime started_at;
+  private OffsetDateTime finished_at;
+}
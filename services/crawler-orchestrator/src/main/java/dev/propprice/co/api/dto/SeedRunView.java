@@ -0,0 +1,30 @@
+package dev.propprice.co.api.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SeedRunView {
+  private UUID run_id;
+  private String portal;
+  private String task_type;
+  private String segment;
+  private int priority;
+  private String status;
+  private int files_total;
+  private int files_done;
+  private long records_done;
+  private long merged;
+  private long invalid;
+  private String owner;
+  private String last_error;
+  private OffsetDateTime created_at;
+  private OffsetDateTime updated_at;
+  /** Per-file progress; only on single-run responses */
+  private List<SeedFileView> files;
+}
@@ -0,0 +1,17 @@
+package dev.propprice.co.api.dto;
+
+import java.util.List;
+
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
+import lombok.Data;
+
+/** Files are relative to co.seed.directory; task_type, segment and priority are per-URL defaults. */
+@Data
+public class SeedStartRequest {
+  private String portal;
+  private List<String> files;
+  private TaskType task_type; // detail when absent
+  private Segment segment; // unknown when absent
+  private Integer priority; // 5 when absent
+}
@@ -0,0 +1,37 @@
+package dev.propprice.co.app;
+
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import dev.propprice.co.domain.entity.PortalPolicy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-portal admission checks shared by every path that dispatches jobs:
+ * in-flight concurrency against max_concurrency and the portal token bucket.
+ */
+@Component
+@RequiredArgsConstructor
+public class CapacityGate {
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final RedisTokenBucket bucket;
+
+  /** Free concurrency slots for the portal. */
+  public int available(String portal, PortalPolicy policy) {
+    Integer inflight = jdbc.queryForObject(
+        "select count(*) from ing.job where portal=:p and status='dispatched'::ing.ing_job_status",
+        Map.of("p", portal),
+        Integer.class);
+    int currentInflight = inflight != null ? inflight : 0;
+    return Math.max(0, policy.getMaxConcurrency() - currentInflight);
+  }
+
+  /** Consume one token from the portal bucket. */
+  public boolean tryAcquireToken(String portal, PortalPolicy policy) {
+    String bucketKey = "portal:" + portal;
+    return bucket.allow(bucketKey, policy.getTargetQps().doubleValue(), policy.getBucketSize());
+  }
+}
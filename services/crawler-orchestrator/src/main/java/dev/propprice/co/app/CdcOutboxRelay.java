@@ -0,0 +1,275 @@
+package dev.propprice.co.app;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGProperty;
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import dev.propprice.co.config.OutboxRelayProperties;
+import dev.propprice.co.config.SchedulingConfig;
+import dev.propprice.co.util.PgOutputDecoder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outbox relay fed by logical replication ({@code co.outbox.relay.mode=cdc}).
+ *
+ * The leader streams inserts to ing.outbox from a pgoutput slot and publishes
+ * them asynchronously. A transaction's end LSN is confirmed to the slot only
+ * once every record in it and in all earlier transactions has been acked by
+ * the broker, so a crash replays from the last fully delivered transaction.
+ * Rows whose send fails stay unsent and are picked up by the polling fallback
+ * ({@link OutboxRelay#drainFallback}). Delivery stays at-least-once.
+ *
+ * In the other modes the leader drops the slot once nothing streams from it
+ * ({@code co.outbox.relay.drop-unused-slot}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CdcOutboxRelay implements SmartLifecycle {
+
+  private static final long LEADER_CHECK_MS = 5_000;
+  /** Idle reads back off from 10 ms up to this, and reset on the next message */
+  private static final long MAX_IDLE_SLEEP_MS = 250;
+
+  private final DataSourceProperties dataSourceProperties;
+  private final NamedParameterJdbcTemplate jdbc;
+  private final KafkaTemplate<String, byte[]> kafka;
+  private final RedisLeaderElector leader;
+  private final OutboxRelayProperties config;
+
+  /** Ids acked by the broker and not yet marked sent; filled from producer callbacks. */
+  private final Queue<Long> acked = new ConcurrentLinkedQueue<>();
+
+  private volatile boolean running;
+  private Thread worker;
+
+  @Override
+  public void start() {
+    if (config.getMode() != OutboxRelayProperties.Mode.cdc)
+      return;
+    running = true;
+    worker = Thread.ofPlatform().daemon().name("co-outbox-cdc").start(this::streamLoop);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (worker != null)
+      worker.interrupt();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void streamLoop() {
+    while (running) {
+      try {
+        if (leader.isLeader()) {
+          ensureSlot();
+          stream();
+        } else {
+          Thread.sleep(LEADER_CHECK_MS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        if (!running)
+          return;
+        log.warn("Outbox replication stream failed; reconnecting in {} ms", config.getReconnectDelay(), e);
+        try {
+          Thread.sleep(config.getReconnectDelay());
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void ensureSlot() {
+    Boolean exists = jdbc.queryForObject(
+        "select exists(select 1 from pg_replication_slots where slot_name = :slot)",
+        Map.of("slot", config.getSlotName()), Boolean.class);
+    if (!Boolean.TRUE.equals(exists)) {
+      jdbc.queryForObject("select lsn::text from pg_create_logical_replication_slot(:slot, 'pgoutput')",
+          Map.of("slot", config.getSlotName()), String.class);
+      log.info("Created logical replication slot {}", config.getSlotName());
+    }
+  }
+
+  /**
+   * Outside cdc mode, drops the slot a previous cdc deployment left behind: an
+   * unconsumed slot pins WAL until the disk fills. A slot still streaming (an
+   * old cdc leader during a rolling deploy) is left alone until the next check.
+   */
+  @Scheduled(fixedDelayString = "${co.outbox.relay.slot-check-interval:300000}", initialDelay = 30_000,
+      scheduler = SchedulingConfig.HOUSEKEEPING)
+  public void dropUnusedSlot() {
+    if (config.getMode() == OutboxRelayProperties.Mode.cdc || !config.isDropUnusedSlot() || !leader.isLeader())
+      return;
+    List<Boolean> slot = jdbc.query("select active from pg_replication_slots where slot_name = :slot",
+        Map.of("slot", config.getSlotName()), (rs, i) -> rs.getBoolean(1));
+    if (slot.isEmpty())
+      return;
+    if (slot.get(0)) {
+      log.warn("Replication slot {} is still in use although co.outbox.relay.mode={}", config.getSlotName(),
+          config.getMode());
+      return;
+    }
+    jdbc.query("select pg_drop_replication_slot(:slot)", Map.of("slot", config.getSlotName()), rs -> null);
+    log.info("Dropped logical replication slot {}: outbox relay mode is {}", config.getSlotName(), config.getMode());
+  }
+
+  private void stream() throws Exception {
+    Properties props = new Properties();
+    PGProperty.USER.set(props, dataSourceProperties.determineUsername());
+    PGProperty.PASSWORD.set(props, dataSourceProperties.determinePassword());
+    PGProperty.ASSUME_MIN_SERVER_VERSION.set(props, "10");
+    PGProperty.REPLICATION.set(props, "database");
+    PGProperty.PREFER_QUERY_MODE.set(props, "simple");
+
+    try (Connection con = DriverManager.getConnection(dataSourceProperties.determineUrl(), props);
+        PGReplicationStream stream = con.unwrap(PGConnection.class).getReplicationAPI()
+            .replicationStream()
+            .logical()
+            .withSlotName(config.getSlotName())
+            .withSlotOption("proto_version", "1")
+            .withSlotOption("publication_names", config.getPublication())
+            .withStatusInterval(config.getStatusInterval(), TimeUnit.MILLISECONDS)
+            .start()) {
+      log.info("Streaming outbox inserts from slot {}", config.getSlotName());
+
+      PgOutputDecoder decoder = new PgOutputDecoder();
+      Deque<PendingTx> pending = new ArrayDeque<>();
+      PendingTx current = null;
+      long leaderCheckAt = System.currentTimeMillis() + LEADER_CHECK_MS;
+      long idleSleep = 10;
+
+      while (running) {
+        ByteBuffer msg = stream.readPending();
+        if (msg == null) {
+          confirm(stream, pending, true);
+          if (System.currentTimeMillis() >= leaderCheckAt) {
+            if (!leader.isLeader()) {
+              log.info("Lost leadership; closing outbox replication stream");
+              return;
+            }
+            leaderCheckAt = System.currentTimeMillis() + LEADER_CHECK_MS;
+          }
+          Thread.sleep(idleSleep);
+          idleSleep = Math.min(idleSleep * 2, MAX_IDLE_SLEEP_MS);
+          continue;
+        }
+        idleSleep = 10;
+
+        PgOutputDecoder.Message m = decoder.decode(msg);
+        if (m instanceof PgOutputDecoder.Begin) {
+          current = new PendingTx();
+          pending.addLast(current);
+        } else if (m instanceof PgOutputDecoder.Insert ins && current != null
+            && "ing".equals(ins.schema()) && "outbox".equals(ins.table())) {
+          publish(current, ins.values());
+        } else if (m instanceof PgOutputDecoder.Commit c && current != null) {
+          current.endLsn = c.endLsn();
+          current.remaining.decrementAndGet(); // sealed
+          current = null;
+        }
+        confirm(stream, pending, false);
+      }
+    }
+  }
+
+  private void publish(PendingTx tx, Map<String, String> row) {
+    String v = row.get("v");
+    OutboxStore.Message m = new OutboxStore.Message(
+        Long.parseLong(row.get("id")),
+        row.get("topic"),
+        bytea(row.get("k")),
+        v != null ? v.getBytes(StandardCharsets.UTF_8) : bytea(row.get("payload")),
+        bytea(row.get("kafka_headers")),
+        0);
+
+    tx.remaining.incrementAndGet();
+    kafka.send(m.toRecord()).whenComplete((res, ex) -> {
+      if (ex == null) {
+        acked.add(m.id());
+      } else {
+        log.warn("CDC publish failed for outbox id={}; left to the polling fallback", m.id(), ex);
+      }
+      tx.remaining.decrementAndGet();
+    });
+  }
+
+  /** bytea in text output format ({@code \x...} hex) */
+  private static byte[] bytea(String text) {
+    return text == null ? null : HexFormat.of().parseHex(text, 2, text.length());
+  }
+
+  /**
+   * Confirm the end LSN of the longest fully delivered prefix of transactions.
+   * When idle with nothing in flight, confirm the last received LSN so the slot
+   * does not hold back WAL for unrelated tables.
+   */
+  private void confirm(PGReplicationStream stream, Deque<PendingTx> pending, boolean idle) {
+    long lsn = -1;
+    while (!pending.isEmpty() && pending.peekFirst().remaining.get() == 0) {
+      lsn = pending.pollFirst().endLsn;
+    }
+    if (lsn < 0 && idle && pending.isEmpty())
+      lsn = stream.getLastReceiveLSN().asLong();
+    if (lsn <= 0)
+      return;
+
+    markSent();
+    LogSequenceNumber confirmed = LogSequenceNumber.valueOf(lsn);
+    stream.setAppliedLSN(confirmed);
+    stream.setFlushedLSN(confirmed);
+  }
+
+  private void markSent() {
+    List<Long> ids = new ArrayList<>();
+    for (Long id; (id = acked.poll()) != null;) {
+      ids.add(id);
+    }
+    if (ids.isEmpty())
+      return;
+    jdbc.update("""
+        update ing.outbox
+        set sent_at = now(), status = 'sent', attempts = attempts + 1, last_error = null
+        where id in (:ids) and sent_at is null
+        """, Map.of("ids", ids));
+  }
+
+  /** One replicated transaction; {@code remaining} counts unacked records plus one until its commit is read. */
+  private static final class PendingTx {
+    final AtomicInteger remaining = new AtomicInteger(1);
+    long endLsn;
+  }
+}
@@ -0,0 +1,101 @@
+package dev.propprice.co.app;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deficit round-robin over weighted queues. Each visit credits a queue with its
+ * weight; a queue may take as many slots as its deficit covers. Deficits and
+ * the round-robin position carry over between calls, so small batches still
+ * converge to the configured weights over time. Queues with nothing to send
+ * forfeit their deficit (classic DRR).
+ *
+ * Not thread-safe; callers keep one instance per portal and synchronize.
+ */
+public class DeficitRoundRobin<K extends Comparable<K>> {
+
+  private final Map<K, Long> deficits = new HashMap<>();
+  private K current;
+  private boolean currentCredited;
+
+  /**
+   * @param weights lane weights; lanes with weight <= 0 are skipped
+   * @param backlog known backlog per lane; missing lanes are treated as unbounded
+   * @param slots   number of items to hand out in this round
+   * @return slots per lane, in service order
+   */
+  public Map<K, Integer> allocate(Map<K, Integer> weights, Map<K, Long> backlog, int slots) {
+    List<K> lanes = new ArrayList<>();
+    Map<K, Long> left = new HashMap<>();
+    for (var e : weights.entrySet()) {
+      long b = backlog.getOrDefault(e.getKey(), Long.MAX_VALUE);
+      if (e.getValue() > 0 && b > 0) {
+        lanes.add(e.getKey());
+        left.put(e.getKey(), b);
+      }
+    }
+    lanes.sort(null);
+    deficits.keySet().retainAll(left.keySet());
+
+    Map<K, Integer> out = new LinkedHashMap<>();
+    if (lanes.isEmpty() || slots <= 0)
+      return out;
+
+    int idx = startIndex(lanes);
+    while (slots > 0 && !lanes.isEmpty()) {
+      idx = idx % lanes.size();
+      K lane = lanes.get(idx);
+      if (!lane.equals(current) || !currentCredited) {
+        current = lane;
+        currentCredited = true;
+        deficits.merge(lane, (long) weights.get(lane), Long::sum);
+      }
+
+      long deficit = deficits.getOrDefault(lane, 0L);
+      int take = (int) Math.min(Math.min(deficit, slots), left.get(lane));
+      if (take > 0) {
+        out.merge(lane, take, Integer::sum);
+        deficits.put(lane, deficit - take);
+        left.merge(lane, (long) -take, Long::sum);
+        slots -= take;
+      }
+
+      if (left.get(lane) <= 0) {
+        // drained: forfeit deficit, next lane slides into this index
+        deficits.remove(lane);
+        lanes.remove(idx);
+        currentCredited = false;
+        continue;
+      }
+      if (slots == 0 && deficits.get(lane) > 0)
+        break; // resume this lane (already credited) on the next call
+      idx++;
+      currentCredited = false;
+    }
+
+    if (!lanes.isEmpty() && !currentCredited) {
+      current = lanes.get(idx % lanes.size());
+    }
+    return out;
+  }
+
+  /** Drop any credit a lane has accumulated, e.g. when it turned out to be empty. */
+  public void forfeit(K lane) {
+    deficits.remove(lane);
+    if (lane.equals(current))
+      currentCredited = false;
+  }
+
+  private int startIndex(List<K> lanes) {
+    if (current == null)
+      return 0;
+    for (int i = 0; i < lanes.size(); i++) {
+      if (lanes.get(i).compareTo(current) >= 0)
+        return i;
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,233 @@
+package dev.propprice.co.app;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.propprice.co.config.FrontierMergeProperties;
+import dev.propprice.co.config.KafkaTopics;
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
+import dev.propprice.co.schema.EventCodec;
+import dev.propprice.co.schema.HeaderCodec;
+import dev.propprice.co.schema.SchemaValidator;
+import dev.propprice.co.schema.Schemas;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Discovered-link stage. The result transaction only writes one
+ * acq.frontier.discovered outbox row per page; a batch listener then collects
+ * pages over a fetch window, dedupes links across them, drops links merged
+ * recently with the same priority, and upserts the rest into ing.frontier with
+ * one statement ({@link FrontierService#merge}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DiscoveredLinkStage {
+
+  static final String LISTENER_ID = "discovered-links";
+  static final String GROUP_ID = "co-frontier-merge";
+  private static final String SCHEMA = "acq.frontier.discovered@v1";
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final FrontierService frontier;
+  private final FrontierMergeProperties config;
+  private final MeterRegistry meters;
+  private final ObjectMapper om = new ObjectMapper();
+
+  private Map<LinkKey, Recent> recent;
+  private Counter received;
+  private Counter skipped;
+  private Counter merged;
+  private Counter invalid;
+
+  @PostConstruct
+  void init() {
+    int capacity = config.getRecentCacheSize();
+    recent = new LinkedHashMap<>(1024, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<LinkKey, Recent> eldest) {
+        return size() > capacity;
+      }
+    };
+    received = Counter.builder("co.frontier.discovered.received")
+        .description("Discovered links received by the merge stage").register(meters);
+    skipped = Counter.builder("co.frontier.discovered.skipped")
+        .description("Discovered links dropped as duplicates or recently merged").register(meters);
+    merged = Counter.builder("co.frontier.discovered.merged")
+        .description("Frontier rows inserted or changed by the merge stage").register(meters);
+    invalid = Counter.builder("co.frontier.discovered.invalid")
+        .description("Discovered links dropped at enqueue for failing validation").register(meters);
+  }
+
+  /**
+   * Queue a page's discovered links for merging, in the caller's transaction.
+   * Links repeated within the page are collapsed here already.
+   *
+   * @return number of distinct links queued
+   */
+  public int enqueue(UUID jobId, String portal, Segment defaultSegment, JsonNode discovered) {
+    Map<String, ObjectNode> links = new LinkedHashMap<>();
+    int bad = 0;
+    for (JsonNode d : discovered) {
+      ObjectNode link = link(d, portal, defaultSegment);
+      if (link == null) {
+        bad++;
+        continue;
+      }
+      links.put(link.get("task_type").asText() + "|" + link.get("url_hash").asText(), link);
+    }
+    if (bad > 0) {
+      invalid.increment(bad);
+      log.debug("Dropped {} of {} discovered links of job {} as invalid", bad, discovered.size(), jobId);
+    }
+    if (links.isEmpty())
+      return 0;
+
+    ObjectNode evt = om.createObjectNode();
+    evt.put("schema_version", 1);
+    evt.put("event_id", UUID.randomUUID().toString());
+    evt.put("occurred_at", Instant.now().toString());
+    evt.put("portal", portal);
+    evt.put("source_job_id", jobId.toString());
+    evt.putArray("links").addAll(links.values());
+    SchemaValidator.validate(Schemas.FRONTIER_DISCOVERED_V1, evt);
+
+    var headersJson = om.createObjectNode();
+    headersJson.put("content-type", EventCodec.JSON);
+    headersJson.put("schema", SCHEMA);
+    headersJson.put("ce_type", KafkaTopics.FRONTIER_DISCOVERED);
+    headersJson.put("ce_id", evt.get("event_id").asText());
+    headersJson.put("ce_source", "co");
+
+    jdbc.update("""
+        insert into ing.outbox(topic, k, v, headers, kafka_headers, created_at)
+        values (:topic, :k, cast(:v as jsonb), cast(:headers as jsonb), :kafka_headers, now())
+        """, new MapSqlParameterSource()
+        .addValue("topic", KafkaTopics.FRONTIER_DISCOVERED)
+        .addValue("k", portal.getBytes(StandardCharsets.UTF_8))
+        .addValue("v", evt.toString())
+        .addValue("headers", headersJson.toString())
+        .addValue("kafka_headers", HeaderCodec.encode(headersJson)));
+    return links.size();
+  }
+
+  /**
+   * One discovered link with defaults applied and its URL canonicalized, or
+   * null if it is invalid (not an absolute http(s) URL, unknown task type or
+   * segment, priority outside 1..9). A bad link is dropped on its own rather
+   * than failing the result.
+   */
+  private ObjectNode link(JsonNode d, String portal, Segment defaultSegment) {
+    String url = d.path("url").asText("");
+    TaskType task = parse(TaskType.class, d.path("task_type").asText(TaskType.detail.name()));
+    Segment segment = parse(Segment.class, d.path("segment").asText(defaultSegment.name()));
+    JsonNode p = d.path("priority");
+    int priority = p.isMissingNode() || p.isNull() ? 5 : p.asInt(0);
+    if (task == null || segment == null || priority < 1 || priority > 9)
+      return null;
+    FrontierService.Candidate c = FrontierService.Candidate.of(portal, task.name(), url, segment.name(), priority);
+    if (c == null)
+      return null;
+    ObjectNode link = om.createObjectNode();
+    link.put("url", c.url());
+    link.put("url_hash", c.urlHash());
+    link.put("task_type", task.name());
+    link.put("segment", segment.name());
+    link.put("priority", priority);
+    return link;
+  }
+
+  private static <E extends Enum<E>> E parse(Class<E> type, String name) {
+    try {
+      return Enum.valueOf(type, name);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  @KafkaListener(id = LISTENER_ID, topics = KafkaTopics.FRONTIER_DISCOVERED, groupId = GROUP_ID,
+      containerFactory = "coBatchListenerFactory")
+  public void onBatch(List<ConsumerRecord<String, byte[]>> records) {
+    // later pages win, as with one upsert per page
+    Map<LinkKey, Link> batch = new LinkedHashMap<>();
+    int total = 0;
+    for (ConsumerRecord<String, byte[]> rec : records) {
+      JsonNode evt = EventCodec.decode(header(rec, "content-type"), header(rec, "schema"), rec.value());
+      String portal = evt.path("portal").asText();
+      for (JsonNode l : evt.path("links")) {
+        total++;
+        Link link = new Link(portal, l.path("task_type").asText(), l.path("url").asText(),
+            l.path("url_hash").asText(), l.path("segment").asText(), l.path("priority").asInt(5));
+        batch.remove(link.key());
+        batch.put(link.key(), link);
+      }
+    }
+    received.increment(total);
+
+    List<Link> fresh = new ArrayList<>(batch.size());
+    long now = System.currentTimeMillis();
+    synchronized (recent) {
+      for (Link link : batch.values()) {
+        Recent r = recent.get(link.key());
+        if (r == null || r.priority() != link.priority() || now - r.mergedAt() > config.getRecentTtl())
+          fresh.add(link);
+      }
+    }
+    skipped.increment(total - fresh.size());
+    if (fresh.isEmpty())
+      return;
+
+    int changed = frontier.merge(fresh.stream().map(Link::candidate).toList());
+    merged.increment(changed);
+
+    synchronized (recent) {
+      for (Link link : fresh) {
+        recent.put(link.key(), new Recent(link.priority(), now));
+      }
+    }
+    log.debug("Merged {} pages: {} links, {} distinct new/changed candidates, {} rows written",
+        records.size(), total, fresh.size(), changed);
+  }
+
+  private static String header(ConsumerRecord<String, byte[]> rec, String name) {
+    Header h = rec.headers().lastHeader(name);
+    return h == null ? null : new String(h.value(), StandardCharsets.UTF_8);
+  }
+
+  record LinkKey(String portal, String taskType, String urlHash) {
+  }
+
+  record Link(String portal, String taskType, String url, String urlHash, String segment, int priority) {
+    LinkKey key() {
+      return new LinkKey(portal, taskType, urlHash);
+    }
+
+    FrontierService.Candidate candidate() {
+      return new FrontierService.Candidate(portal, taskType, url, urlHash, segment, priority);
+    }
+  }
+
+  record Recent(int priority, long mergedAt) {
+  }
+}
@@ -0,0 +1,145 @@
+package dev.propprice.co.app;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import dev.propprice.co.config.DispatcherProperties;
+import dev.propprice.co.config.SchedulingConfig;
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Splits each portal's dispatch batch across (task_type, segment) lanes by
+ * deficit round-robin, so a flood in one lane cannot starve the others.
+ * Weights come from ing.portal_lane_policy; per-lane backlog is refreshed
+ * periodically and used only to skip empty lanes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DispatchLanes {
+
+  private static final List<Lane> ALL_LANES = Arrays.stream(TaskType.values())
+      .flatMap(t -> Arrays.stream(Segment.values()).map(s -> new Lane(t, s)))
+      .toList();
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final PolicyService policyService;
+  private final DispatcherProperties config;
+  private final MeterRegistry meters;
+
+  private final Map<String, DeficitRoundRobin<Lane>> schedulers = new ConcurrentHashMap<>();
+  private final Map<String, Map<Lane, Long>> backlog = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> backlogGauges = new ConcurrentHashMap<>();
+
+  /** Slots per lane for the next batch of {@code slots} rows. */
+  public Map<Lane, Integer> plan(String portal, int slots) {
+    Map<Lane, Integer> weights = weightsFor(portal);
+    Map<Lane, Long> known = backlog.getOrDefault(portal, Map.of());
+    DeficitRoundRobin<Lane> drr = schedulers.computeIfAbsent(portal, p -> new DeficitRoundRobin<>());
+    synchronized (drr) {
+      return drr.allocate(weights, known, slots);
+    }
+  }
+
+  /** Record a lane claim; a short claim means the lane ran dry before the next backlog refresh. */
+  public void recordClaimed(String portal, Lane lane, int planned, int claimed) {
+    if (claimed > 0) {
+      laneCounter(portal, lane).increment(claimed);
+    }
+    if (claimed < planned) {
+      backlog.computeIfAbsent(portal, p -> new ConcurrentHashMap<>()).put(lane, 0L);
+      DeficitRoundRobin<Lane> drr = schedulers.get(portal);
+      if (drr != null) {
+        synchronized (drr) {
+          drr.forfeit(lane);
+        }
+      }
+    }
+  }
+
+  /** Record rows claimed by the leftover (unlaned) pass. */
+  public void recordBackfill(String portal, Lane lane) {
+    laneCounter(portal, lane).increment();
+  }
+
+  @Scheduled(fixedDelayString = "#{@dispatcherProperties.laneBacklogRefresh}", scheduler = SchedulingConfig.HOUSEKEEPING)
+  public void refreshBacklog() {
+    if (!config.isEnabled())
+      return;
+
+    Map<String, Map<Lane, Long>> fresh = new HashMap<>();
+    jdbc.query("""
+        select f.portal, f.task_type::text, f.segment::text, count(*)
+        from ing.frontier f
+        join ing.portal_policy p on p.portal = f.portal
+        where f.status = 'active'::ing.ing_frontier_status
+          and (f.lease_until is null or f.lease_until <= now())
+          and coalesce(f.next_eligible_at,
+                       f.last_run_at + (interval '1 day' * p.min_days_between_runs),
+                       '-infinity') <= now()
+          and f.consecutive_failures < :max_failures
+        group by 1, 2, 3
+        """, Map.of("max_failures", config.getMaxConsecutiveFailures()), rs -> {
+      Lane lane = new Lane(TaskType.valueOf(rs.getString(2)), Segment.valueOf(rs.getString(3)));
+      fresh.computeIfAbsent(rs.getString(1), p -> new HashMap<>()).put(lane, rs.getLong(4));
+    });
+
+    for (String portal : policyService.getActivePortals()) {
+      Map<Lane, Long> lanes = fresh.getOrDefault(portal, Map.of());
+      for (Lane lane : ALL_LANES) {
+        backlogGauge(portal, lane).set(lanes.getOrDefault(lane, 0L));
+      }
+      backlog.put(portal, new ConcurrentHashMap<>(lanes));
+    }
+    log.debug("Refreshed lane backlog for {} portals", fresh.size());
+  }
+
+  private Map<Lane, Integer> weightsFor(String portal) {
+    return weights(policyService.getLaneWeights(portal), config.getDefaultLaneWeight());
+  }
+
+  /** Weight of every lane: the configured one, or {@code defaultWeight}. */
+  public static Map<Lane, Integer> weights(Map<Lane, Integer> configured, int defaultWeight) {
+    Map<Lane, Integer> weights = new HashMap<>();
+    for (Lane lane : ALL_LANES) {
+      weights.put(lane, configured.getOrDefault(lane, defaultWeight));
+    }
+    return weights;
+  }
+
+  private Counter laneCounter(String portal, Lane lane) {
+    return Counter.builder("co.dispatch.lane.dispatched")
+        .description("Rows dispatched per lane")
+        .tag("portal", portal)
+        .tag("task_type", lane.taskType().name())
+        .tag("segment", lane.segment().name())
+        .register(meters);
+  }
+
+  private AtomicLong backlogGauge(String portal, Lane lane) {
+    return backlogGauges.computeIfAbsent(portal + "|" + lane, k -> {
+      AtomicLong value = new AtomicLong();
+      Gauge.builder("co.dispatch.lane.backlog", value, AtomicLong::get)
+          .description("Due rows per lane at last backlog refresh")
+          .tag("portal", portal)
+          .tag("task_type", lane.taskType().name())
+          .tag("segment", lane.segment().name())
+          .register(meters);
+      return value;
+    });
+  }
+}
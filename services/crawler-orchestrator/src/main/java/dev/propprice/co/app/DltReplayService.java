@@ -0,0 +1,484 @@
+package dev.propprice.co.app;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.propprice.co.api.dto.ReplayFailureView;
+import dev.propprice.co.api.dto.ReplayStartRequest;
+import dev.propprice.co.api.dto.ReplayView;
+import dev.propprice.co.config.DltReplayProperties;
+import dev.propprice.co.config.KafkaTopics;
+import dev.propprice.co.config.SchedulingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays acq.raw.page.DLT through {@link PageResultListener#onResult}, i.e.
+ * the normal transactional path with its event_log idempotency, so records
+ * that already went through are skipped and a replayed range can be replayed
+ * again safely. Each run reads its offset range with its own unsubscribed
+ * consumer, paces records to the requested rate, records failures and
+ * checkpoints after every batch (see V11). Runs execute on the instance that
+ * started or resumed them, which heartbeats them on a timer; checkpoints and
+ * status writes only apply while this instance is still the run's owner, and a
+ * worker whose run was taken over stops.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DltReplayService implements DisposableBean {
+
+  private static final TypeReference<Map<Integer, Long>> OFFSETS = new TypeReference<>() {
+  };
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final ConsumerFactory<String, byte[]> consumerFactory;
+  private final PageResultListener listener;
+  private final RedisLeaderElector instance;
+  private final DltReplayProperties config;
+  private final MeterRegistry meters;
+  private final ObjectMapper om = new ObjectMapper();
+
+  /** Runs executing on this instance; the flag asks the worker to pause. */
+  private final Map<UUID, Run> local = new ConcurrentHashMap<>();
+
+  public ReplayView start(ReplayStartRequest req) {
+    int rate = req.getRate_per_sec() != null ? req.getRate_per_sec() : config.getDefaultRate();
+    int batch = req.getBatch_size() != null ? req.getBatch_size() : config.getDefaultBatchSize();
+    int maxFailures = req.getMax_failures() != null ? req.getMax_failures() : config.getDefaultMaxFailures();
+    if (rate <= 0 || batch <= 0 || maxFailures < 0)
+      throw new IllegalArgumentException("rate_per_sec and batch_size must be positive");
+
+    Map<Integer, Long> from = new TreeMap<>();
+    Map<Integer, Long> to = new TreeMap<>();
+    plan(req, from, to);
+
+    UUID id = UUID.randomUUID();
+    jdbc.update("""
+        insert into ing.dlt_replay(replay_id, topic, status, rate_per_sec, batch_size, max_failures,
+                                   end_offsets, checkpoint, owner, heartbeat_at)
+        values (:id, :topic, 'running', :rate, :batch, :max_failures,
+                cast(:end_offsets as jsonb), cast(:checkpoint as jsonb), :owner, now())
+        """, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("topic", KafkaTopics.RAW_PAGE_DLT)
+        .addValue("rate", rate)
+        .addValue("batch", batch)
+        .addValue("max_failures", maxFailures)
+        .addValue("end_offsets", json(to))
+        .addValue("checkpoint", json(from))
+        .addValue("owner", instance.getMyId()));
+    log.info("Starting DLT replay {} of {} records (rate={}/s)", id, remaining(from, to), rate);
+    launch(id);
+    return get(id).orElseThrow();
+  }
+
+  /**
+   * Continue a paused or failed run, or take over a running one whose owner
+   * stopped heartbeating.
+   *
+   * @throws IllegalStateException if the run is live elsewhere or already completed
+   */
+  public Optional<ReplayView> resume(UUID id) {
+    if (get(id).isEmpty())
+      return Optional.empty();
+    int claimed = jdbc.update("""
+        update ing.dlt_replay
+        set status = 'running', owner = :owner, heartbeat_at = now(), last_error = null, updated_at = now()
+        where replay_id = :id
+          and (status in ('paused', 'failed')
+               or (status = 'running' and heartbeat_at < now() - interval '1 millisecond' * :timeout))
+        """, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("owner", instance.getMyId())
+        .addValue("timeout", config.getHeartbeatTimeout()));
+    if (claimed == 0)
+      throw new IllegalStateException("Replay " + id + " is completed or still running elsewhere");
+    launch(id);
+    return get(id);
+  }
+
+  /**
+   * Ask a run to stop after its current batch. A run whose owner is gone is
+   * marked paused directly.
+   *
+   * @throws IllegalStateException if the run is live on another instance
+   */
+  public Optional<ReplayView> pause(UUID id) {
+    Run run = local.get(id);
+    if (run != null) {
+      run.pause = true;
+      return get(id);
+    }
+    if (get(id).isEmpty())
+      return Optional.empty();
+    int n = jdbc.update("""
+        update ing.dlt_replay set status = 'paused', updated_at = now()
+        where replay_id = :id
+          and (status = 'failed'
+               or (status = 'running' and heartbeat_at < now() - interval '1 millisecond' * :timeout))
+        """, new MapSqlParameterSource().addValue("id", id).addValue("timeout", config.getHeartbeatTimeout()));
+    ReplayView v = get(id).orElseThrow();
+    if (n == 0 && "running".equals(v.getStatus()))
+      throw new IllegalStateException("Replay " + id + " is running on " + v.getOwner());
+    return Optional.of(v);
+  }
+
+  public Optional<ReplayView> get(UUID id) {
+    return jdbc.query(SELECT + " where replay_id = :id", Map.of("id", id), viewMapper()).stream().findFirst();
+  }
+
+  public List<ReplayView> list(int limit) {
+    return jdbc.query(SELECT + " order by created_at desc limit :lim",
+        Map.of("lim", Math.max(1, Math.min(limit, 200))), viewMapper());
+  }
+
+  public List<ReplayFailureView> failures(UUID id, int limit) {
+    return jdbc.query("""
+        select kafka_partition, kafka_offset, error, failed_at
+        from ing.dlt_replay_failure
+        where replay_id = :id
+        order by kafka_partition, kafka_offset
+        limit :lim
+        """, new MapSqlParameterSource().addValue("id", id).addValue("lim", Math.max(1, Math.min(limit, 1000))),
+        (rs, i) -> new ReplayFailureView(rs.getInt(1), rs.getLong(2), rs.getString(3),
+            rs.getObject(4, OffsetDateTime.class)));
+  }
+
+  /** Keeps local runs alive independent of batch progress (a slow batch can outlast the timeout). */
+  @Scheduled(fixedDelayString = "#{@dltReplayProperties.heartbeatInterval}", scheduler = SchedulingConfig.HOUSEKEEPING)
+  public void heartbeat() {
+    for (Map.Entry<UUID, Run> r : local.entrySet()) {
+      try {
+        if (!touch(r.getKey()))
+          lost(r.getKey(), r.getValue());
+      } catch (Exception e) {
+        log.warn("Heartbeat of DLT replay {} failed", r.getKey(), e);
+      }
+    }
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    local.values().forEach(r -> r.pause = true);
+    for (Run r : local.values()) {
+      r.thread.join(config.getPollTimeout() * 3);
+    }
+  }
+
+  /** Resolve the request to [from, to) per partition against the DLT's current offsets. */
+  private void plan(ReplayStartRequest req, Map<Integer, Long> from, Map<Integer, Long> to) {
+    try (Consumer<String, byte[]> c = consumer(1)) {
+      List<TopicPartition> tps = c.partitionsFor(KafkaTopics.RAW_PAGE_DLT).stream()
+          .filter(p -> req.getPartition() == null || p.partition() == req.getPartition())
+          .map(p -> new TopicPartition(p.topic(), p.partition()))
+          .toList();
+      if (tps.isEmpty())
+        throw new IllegalArgumentException("No such partition of " + KafkaTopics.RAW_PAGE_DLT);
+
+      Map<TopicPartition, Long> begin = c.beginningOffsets(tps);
+      Map<TopicPartition, Long> end = c.endOffsets(tps);
+      Map<TopicPartition, OffsetAndTimestamp> fromTime = req.getFrom_time() == null ? Map.of()
+          : c.offsetsForTimes(timestamps(tps, req.getFrom_time()));
+      Map<TopicPartition, OffsetAndTimestamp> toTime = req.getTo_time() == null ? Map.of()
+          : c.offsetsForTimes(timestamps(tps, req.getTo_time()));
+
+      for (TopicPartition tp : tps) {
+        long lo = begin.get(tp);
+        long hi = end.get(tp);
+        if (req.getFrom_time() != null)
+          lo = Math.max(lo, fromTime.get(tp) != null ? fromTime.get(tp).offset() : hi);
+        if (req.getFrom_offset() != null)
+          lo = Math.max(lo, req.getFrom_offset());
+        if (req.getTo_time() != null && toTime.get(tp) != null)
+          hi = Math.min(hi, toTime.get(tp).offset());
+        if (req.getTo_offset() != null)
+          hi = Math.min(hi, req.getTo_offset());
+        from.put(tp.partition(), Math.min(lo, hi));
+        to.put(tp.partition(), hi);
+      }
+    }
+  }
+
+  private void launch(UUID id) {
+    Run run = new Run();
+    run.thread = Thread.ofPlatform().daemon().name("co-dlt-replay-" + id).unstarted(() -> {
+      try {
+        replay(id, run);
+      } catch (LostOwnership e) {
+        log.warn("DLT replay {} was taken over by another instance; stopping here", id);
+      } finally {
+        local.remove(id);
+      }
+    });
+    local.put(id, run);
+    run.thread.start();
+  }
+
+  private void replay(UUID id, Run run) {
+    Counter ok = counter("replayed");
+    Counter bad = counter("failed");
+    try {
+      Map<String, Object> row = jdbc.queryForMap("""
+          select rate_per_sec, batch_size, max_failures, end_offsets::text, checkpoint::text, failed
+          from ing.dlt_replay where replay_id = :id
+          """, Map.of("id", id));
+      int rate = ((Number) row.get("rate_per_sec")).intValue();
+      int maxFailures = ((Number) row.get("max_failures")).intValue();
+      long failedTotal = ((Number) row.get("failed")).longValue();
+      Map<TopicPartition, Long> end = partitions(om.readValue((String) row.get("end_offsets"), OFFSETS));
+      Map<TopicPartition, Long> next = partitions(om.readValue((String) row.get("checkpoint"), OFFSETS));
+
+      try (Consumer<String, byte[]> c = consumer(((Number) row.get("batch_size")).intValue())) {
+        assign(c, next, end);
+        long interval = 1_000_000_000L / rate;
+        long nextAt = System.nanoTime();
+
+        while (!c.assignment().isEmpty()) {
+          if (run.pause) {
+            finish(id, "paused", null);
+            log.info("DLT replay {} paused", id);
+            return;
+          }
+          long processed = 0;
+          long failed = 0;
+          for (ConsumerRecord<String, byte[]> rec : c.poll(Duration.ofMillis(config.getPollTimeout()))) {
+            TopicPartition tp = new TopicPartition(rec.topic(), rec.partition());
+            if (rec.offset() >= end.get(tp))
+              continue;
+            if (run.lost)
+              throw new LostOwnership(); // the new owner replays from the last checkpoint
+
+            nextAt += interval;
+            long wait = nextAt - System.nanoTime();
+            if (wait > 0)
+              LockSupport.parkNanos(wait);
+            else if (wait < -1_000_000_000L)
+              nextAt = System.nanoTime(); // no catch-up bursts after a slow stretch
+
+            try {
+              listener.onResult(header(rec, "ce_id"), header(rec, "content-type"), header(rec, "schema"), rec.value());
+              ok.increment();
+            } catch (Exception e) {
+              failed++;
+              bad.increment();
+              recordFailure(id, rec, e);
+            }
+            processed++;
+          }
+          for (TopicPartition tp : c.assignment()) {
+            next.put(tp, Math.min(c.position(tp), end.get(tp)));
+          }
+          if (!checkpoint(id, next, processed, failed)) {
+            lost(id, run);
+            throw new LostOwnership();
+          }
+          failedTotal += failed;
+          if (failedTotal > maxFailures) {
+            finish(id, "paused", "Paused after " + failedTotal + " failures (max_failures=" + maxFailures + ")");
+            log.warn("DLT replay {} paused after {} failures", id, failedTotal);
+            return;
+          }
+          assign(c, next, end);
+        }
+      }
+      finish(id, "completed", null);
+      log.info("DLT replay {} completed", id);
+    } catch (LostOwnership e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("DLT replay {} failed; resume continues from the last checkpoint", id, e);
+      finish(id, "failed", String.valueOf(e));
+    }
+  }
+
+  /** (Re)assign the partitions that still have records in range, at their checkpoints. */
+  private static void assign(Consumer<String, byte[]> c, Map<TopicPartition, Long> next,
+      Map<TopicPartition, Long> end) {
+    List<TopicPartition> open = new ArrayList<>();
+    next.forEach((tp, offset) -> {
+      if (offset < end.get(tp))
+        open.add(tp);
+    });
+    if (open.size() == c.assignment().size() && c.assignment().containsAll(open))
+      return;
+    c.assign(open);
+    open.forEach(tp -> c.seek(tp, next.get(tp)));
+  }
+
+  /** @return false if the run is no longer running on this instance; nothing was written then */
+  private boolean checkpoint(UUID id, Map<TopicPartition, Long> next, long processed, long failed) {
+    Map<Integer, Long> cp = new TreeMap<>();
+    next.forEach((tp, offset) -> cp.put(tp.partition(), offset));
+    return jdbc.update("""
+        update ing.dlt_replay
+        set checkpoint = cast(:checkpoint as jsonb),
+            processed = processed + :processed,
+            failed = failed + :failed,
+            heartbeat_at = now(),
+            updated_at = now()
+        where replay_id = :id and owner = :owner and status = 'running'
+        """, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("owner", instance.getMyId())
+        .addValue("checkpoint", json(cp))
+        .addValue("processed", processed)
+        .addValue("failed", failed)) > 0;
+  }
+
+  private void finish(UUID id, String status, String error) {
+    jdbc.update("""
+        update ing.dlt_replay
+        set status = :status, last_error = :error, heartbeat_at = now(), updated_at = now()
+        where replay_id = :id and owner = :owner
+        """, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("owner", instance.getMyId())
+        .addValue("status", status)
+        .addValue("error", error));
+  }
+
+  /** @return false if the run is no longer running on this instance */
+  private boolean touch(UUID id) {
+    return jdbc.update("""
+        update ing.dlt_replay set heartbeat_at = now(), updated_at = now()
+        where replay_id = :id and owner = :owner and status = 'running'
+        """, new MapSqlParameterSource().addValue("id", id).addValue("owner", instance.getMyId())) > 0;
+  }
+
+  private void lost(UUID id, Run run) {
+    if (!run.lost)
+      log.warn("DLT replay {} is no longer owned by this instance", id);
+    run.lost = true;
+  }
+
+  private void recordFailure(UUID id, ConsumerRecord<String, byte[]> rec, Exception e) {
+    Throwable root = e;
+    while (root.getCause() != null && root.getCause() != root)
+      root = root.getCause();
+    String error = String.valueOf(root);
+    jdbc.update("""
+        insert into ing.dlt_replay_failure(replay_id, kafka_partition, kafka_offset, error)
+        values (:id, :p, :o, :error)
+        on conflict (replay_id, kafka_partition, kafka_offset) do update set
+          error = excluded.error, failed_at = now()
+        """, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("p", rec.partition())
+        .addValue("o", rec.offset())
+        .addValue("error", error.length() > 2000 ? error.substring(0, 2000) : error));
+  }
+
+  private Consumer<String, byte[]> consumer(int maxPollRecords) {
+    Properties props = new Properties();
+    props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+    props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+    return consumerFactory.createConsumer(null, "co-dlt-replay", null, props);
+  }
+
+  private Counter counter(String outcome) {
+    return Counter.builder("co.dlt.replay.records")
+        .description("DLT records replayed through the result handler")
+        .tag("outcome", outcome)
+        .register(meters);
+  }
+
+  private static final String SELECT = """
+      select replay_id, topic, status, rate_per_sec, processed, failed, checkpoint::text, end_offsets::text,
+             owner, last_error, created_at, updated_at
+      from ing.dlt_replay
+      """;
+
+  private RowMapper<ReplayView> viewMapper() {
+    return (rs, i) -> {
+      try {
+        Map<Integer, Long> checkpoint = om.readValue(rs.getString(7), OFFSETS);
+        Map<Integer, Long> end = om.readValue(rs.getString(8), OFFSETS);
+        return new ReplayView(rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3), rs.getInt(4),
+            rs.getLong(5), rs.getLong(6), remaining(checkpoint, end), checkpoint, end,
+            rs.getString(9), rs.getString(10),
+            rs.getObject(11, OffsetDateTime.class), rs.getObject(12, OffsetDateTime.class));
+      } catch (JsonProcessingException e) {
+        throw new IllegalStateException(e);
+      }
+    };
+  }
+
+  private static long remaining(Map<Integer, Long> from, Map<Integer, Long> to) {
+    long n = 0;
+    for (var e : to.entrySet()) {
+      n += Math.max(0, e.getValue() - from.getOrDefault(e.getKey(), e.getValue()));
+    }
+    return n;
+  }
+
+  private static Map<TopicPartition, Long> partitions(Map<Integer, Long> offsets) {
+    Map<TopicPartition, Long> m = new HashMap<>();
+    offsets.forEach((p, o) -> m.put(new TopicPartition(KafkaTopics.RAW_PAGE_DLT, p), o));
+    return m;
+  }
+
+  private static Map<TopicPartition, Long> timestamps(List<TopicPartition> tps, OffsetDateTime at) {
+    Map<TopicPartition, Long> m = new HashMap<>();
+    tps.forEach(tp -> m.put(tp, at.toInstant().toEpochMilli()));
+    return m;
+  }
+
+  private String json(Map<Integer, Long> offsets) {
+    try {
+      return om.writeValueAsString(offsets);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String header(ConsumerRecord<String, byte[]> rec, String name) {
+    Header h = rec.headers().lastHeader(name);
+    return h == null ? null : new String(h.value(), StandardCharsets.UTF_8);
+  }
+
+  private static final class Run {
+    volatile boolean pause;
+    /** another instance took the run over; write nothing more */
+    volatile boolean lost;
+    Thread thread;
+  }
+
+  private static final class LostOwnership extends RuntimeException {
+    LostOwnership() {
+      super(null, null, false, false);
+    }
+  }
+}
@@ -1,8 +1,9 @@
 package dev.propprice.co.app;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -11,18 +12,15 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import dev.propprice.co.config.DispatcherProperties;
-import dev.propprice.co.config.KafkaTopics;
+import dev.propprice.co.config.SchedulingConfig;
 import dev.propprice.co.domain.entity.PortalPolicy;
 import dev.propprice.co.domain.enums.Segment;
 import dev.propprice.co.domain.enums.TaskType;
-import dev.propprice.co.schema.SchemaValidator;
-import dev.propprice.co.schema.Schemas;
+import dev.propprice.co.jfr.ClaimQueryEvent;
+import dev.propprice.co.jfr.DispatchTickEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,106 +31,93 @@ public class FrontierDispatcher {
 
   private final NamedParameterJdbcTemplate jdbc;
   private final PolicyService policyService;
-  private final RedisTokenBucket bucket;
-  private final ObjectMapper om = new ObjectMapper();
+  private final CapacityGate capacityGate;
   private final RedisLeaderElector leader;
   private final DispatcherProperties config;
-  private final LeaseService leaseService;
+  private final JobDispatchOutbox dispatchOutbox;
+  private final DispatchLanes lanes;
+  private final TransactionTemplate tx;
 
-  @Scheduled(fixedDelayString = "${co.dispatcher.tick-interval:1000}")
+  @Scheduled(fixedDelayString = "${co.dispatcher.tick-interval:1000}", scheduler = SchedulingConfig.DISPATCH)
   public void tick() {
     if (!config.isEnabled())
       return;
-    if (!leader.isLeader())
+    long fence = leader.fencingToken();
+    if (fence == 0)
       return;
 
-    List<String> portals = getActivePortals();
+    List<String> portals = policyService.getActivePortals();
     for (String portal : portals) {
       try {
-        dispatchForPortal(portal);
-      } catch (InterruptedException ie) {
-        Thread.currentThread().interrupt();
-        log.warn("Dispatcher interrupted for portal={}", portal);
-        break;
+        // one transaction per portal (a self-invoked @Transactional would not apply)
+        tx.executeWithoutResult(status -> dispatchForPortal(portal, fence));
       } catch (Exception e) {
-        // transactional method already rolled back
         log.error("Dispatch error for portal={} (batch rolled back)", portal, e);
       }
     }
   }
 
-  private List<String> getActivePortals() {
-    return jdbc.query("select portal from ing.portal_policy where max_concurrency > 0",
-        (rs, i) -> rs.getString(1));
+  /** Claims and job inserts carry the term's fencing token; a stale leader claims nothing. */
+  void dispatchForPortal(String portal, long fence) {
+    DispatchTickEvent evt = new DispatchTickEvent();
+    evt.begin();
+    evt.portal = portal;
+    try {
+      evt.outcome = dispatchForPortal(portal, fence, evt);
+    } finally {
+      if (evt.outcome == null)
+        evt.outcome = "error";
+      evt.commit();
+    }
   }
 
-  @Transactional
-  void dispatchForPortal(String portal) throws InterruptedException {
+  private String dispatchForPortal(String portal, long fence, DispatchTickEvent evt) {
     PortalPolicy policy = policyService.getOrDefault(portal);
     if (policy.getMaxConcurrency() <= 0)
-      return;
+      return "disabled";
 
-    int capacity = calculateCapacity(portal, policy);
+    int capacity = capacityGate.available(portal, policy);
+    evt.capacity = capacity;
     if (capacity <= 0)
-      return;
+      return "no_capacity";
 
-    if (!checkRateLimit(portal, policy))
-      return;
+    if (!capacityGate.tryAcquireToken(portal, policy))
+      return "rate_limited";
 
-    int batchCap = Math.min(capacity, policy.getBucketSize());
-    int batchSize = Math.min(batchCap, Math.max(1, config.getMaxBatchSize()));
+    int batchSize = batchSize(capacity, policy, config.getMaxBatchSize());
+    evt.batchSize = batchSize;
 
-    List<Claimed> claimed = claimDueRows(portal,
-        batchSize,
-        policy.getMinDaysBetweenRuns(),
-        config.getLeaseDurationMinutes());
+    List<Claimed> claimed = claimByLanes(portal, batchSize, policy, fence);
+    evt.claimed = claimed.size();
 
     if (claimed.isEmpty()) {
       log.debug("No due URLs found for portal={}", portal);
-      return;
+      return "empty";
     }
 
     log.info("Dispatching {} jobs for portal={}", claimed.size(), portal);
 
-    try {
-      // All-or-nothing within this transaction
-      for (Claimed c : claimed) {
-        createJobAndOutboxEntry(portal, c);
-      }
-    } catch (Exception e) {
-      // Release leases in a separate transaction so the release is not rolled back
-      try {
-        leaseService.releaseLeases(portal, claimed);
-      } catch (Exception releaseEx) {
-        log.warn("Failed to release leases for portal={} after rollback", portal, releaseEx);
-      }
-      throw e; // rethrow to rollback job/outbox inserts
+    // All-or-nothing: a failure rolls back the claim together with the jobs and outbox rows
+    for (Claimed c : claimed) {
+      createJobAndOutboxEntry(portal, c, fence);
     }
+    return "dispatched";
   }
 
-  private int calculateCapacity(String portal, PortalPolicy policy) {
-    Integer inflight = jdbc.queryForObject(
-        "select count(*) from ing.job where portal=:p and status='dispatched'::ing.ing_job_status",
-        Map.of("p", portal),
-        Integer.class);
-    int currentInflight = inflight != null ? inflight : 0;
-    return Math.max(0, policy.getMaxConcurrency() - currentInflight);
-  }
-
-  private boolean checkRateLimit(String portal, PortalPolicy policy) {
-    String bucketKey = "portal:" + portal;
-    return bucket.allow(bucketKey, policy.getTargetQps().doubleValue(), policy.getBucketSize());
+  /** Rows claimed by one admitted tick: free slots, capped by the bucket size and max-batch-size. */
+  public static int batchSize(int capacity, PortalPolicy policy, int maxBatchSize) {
+    return Math.min(Math.min(capacity, policy.getBucketSize()), Math.max(1, maxBatchSize));
   }
 
-  private void createJobAndOutboxEntry(String portal, Claimed claimed) {
-    UUID jobId = UUID.randomUUID();
-    OffsetDateTime nowUtc = OffsetDateTime.now(ZoneOffset.UTC);
+  private void createJobAndOutboxEntry(String portal, Claimed claimed, long fence) {
+    OffsetDateTime nowUtc = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS);
+    UUID jobId = JobIds.next(nowUtc.toInstant());
 
-    insertJob(jobId, portal, claimed, nowUtc);
-    insertOutboxEntry(jobId, portal, claimed, nowUtc);
+    insertJob(jobId, portal, claimed, nowUtc, fence);
+    dispatchOutbox.enqueue(jobId, portal, claimed, 1);
   }
 
-  private void insertJob(UUID jobId, String portal, Claimed claimed, OffsetDateTime scheduledAt) {
+  private void insertJob(UUID jobId, String portal, Claimed claimed, OffsetDateTime scheduledAt, long fence) {
     var params = new MapSqlParameterSource()
         .addValue("job_id", jobId)
         .addValue("portal", portal)
@@ -140,78 +125,63 @@ public class FrontierDispatcher {
         .addValue("segment", claimed.segment().name())
         .addValue("url_hash", claimed.urlHash())
         .addValue("url", claimed.url())
-        .addValue("scheduled_at", scheduledAt);
+        .addValue("scheduled_at", scheduledAt)
+        .addValue("fence", fence);
 
     int updated = jdbc.update("""
         insert into ing.job(job_id, portal, task_type, segment, url_hash, url, attempt, status, scheduled_at, hints)
-        values (:job_id, :portal, :task_type::ing.ing_task_type, :segment::ing.ing_segment,
-                :url_hash, :url, 1, 'dispatched'::ing.ing_job_status, :scheduled_at, '{}'::jsonb)
-        """, params);
+        select :job_id, :portal, :task_type::ing.ing_task_type, :segment::ing.ing_segment,
+               :url_hash, :url, 1, 'dispatched'::ing.ing_job_status, :scheduled_at, '{}'::jsonb
+        where %s
+        """.formatted(RedisLeaderElector.FENCE_CHECK), params);
 
     if (updated != 1) {
-      throw new RuntimeException("Failed to insert job record");
+      throw new IllegalStateException("Job insert rejected: fencing token " + fence + " is no longer current");
     }
   }
 
-  private void insertOutboxEntry(UUID jobId, String portal, Claimed claimed, OffsetDateTime occurredAt) {
-    ObjectNode evt = createJobDispatchedEvent(jobId, portal, claimed, occurredAt);
-    SchemaValidator.validate(Schemas.JOB_DISPATCHED_V1, evt);
-
-    var headersJson = om.createObjectNode();
-    headersJson.put("content-type", "application/json");
-    headersJson.put("schema", "acq.job.dispatched@v1");
-    headersJson.put("ce_type", "acq.job.dispatched");
-    headersJson.put("ce_id", evt.get("event_id").asText());
-    headersJson.put("ce_source", "co");
-
-    var params = new MapSqlParameterSource()
-        .addValue("topic", KafkaTopics.JOB_DISPATCHED)
-        .addValue("k", claimed.urlHash().getBytes(java.nio.charset.StandardCharsets.UTF_8))
-        .addValue("v", evt.toString())
-        .addValue("headers", headersJson.toString());
-
-    int updated = jdbc.update("""
-        insert into ing.outbox(topic, k, v, headers, created_at)
-        values (:topic, :k, cast(:v as jsonb), cast(:headers as jsonb), now())
-        """, params);
-
-    if (updated != 1) {
-      throw new RuntimeException("Failed to insert outbox record");
+  /**
+   * Fills the batch lane by lane (deficit round-robin over task_type/segment),
+   * then hands any slots left by empty lanes to the plain priority order.
+   */
+  private List<Claimed> claimByLanes(String portal, int batchSize, PortalPolicy policy, long fence) {
+    List<Claimed> claimed = new ArrayList<>(batchSize);
+    for (Map.Entry<Lane, Integer> slot : lanes.plan(portal, batchSize).entrySet()) {
+      List<Claimed> rows = claimDueRows(portal, slot.getKey(), slot.getValue(),
+          policy.getMinDaysBetweenRuns(), config.getLeaseDurationMinutes(), fence);
+      lanes.recordClaimed(portal, slot.getKey(), slot.getValue(), rows.size());
+      claimed.addAll(rows);
     }
-  }
 
-  private ObjectNode createJobDispatchedEvent(UUID jobId, String portal, Claimed claimed, OffsetDateTime occurredAt) {
-    ObjectNode evt = om.createObjectNode();
-    evt.put("schema_version", 1);
-    evt.put("event_id", UUID.randomUUID().toString());
-    evt.put("occurred_at", Instant.now().toString());
-
-    var job = evt.putObject("job");
-    job.put("job_id", jobId.toString());
-    job.put("portal", portal);
-    job.put("task_type", claimed.taskType().name());
-    job.put("segment", claimed.segment().name());
-    job.put("priority", claimed.taskType() == TaskType.search_page ? 2 : 5);
-
-    var req = evt.putObject("request");
-    req.put("url", claimed.url());
-    req.put("url_hash", claimed.urlHash());
-    req.put("attempt", 1);
-
-    return evt;
+    int left = batchSize - claimed.size();
+    if (left > 0) {
+      List<Claimed> rows = claimDueRows(portal, null, left,
+          policy.getMinDaysBetweenRuns(), config.getLeaseDurationMinutes(), fence);
+      for (Claimed c : rows) {
+        lanes.recordBackfill(portal, new Lane(c.taskType(), c.segment()));
+      }
+      claimed.addAll(rows);
+    }
+    return claimed;
   }
 
-  private List<Claimed> claimDueRows(String portal, int limit, int minDaysBetweenRuns, int leaseMinutes) {
+  private List<Claimed> claimDueRows(String portal, Lane lane, int limit, int minDaysBetweenRuns,
+      int leaseMinutes, long fence) {
+    String laneFilter = lane == null ? ""
+        : "and task_type = :task_type::ing.ing_task_type and segment = :segment::ing.ing_segment";
     String sql = """
         with cte as (
             select portal, task_type, url_hash, url, segment
             from ing.frontier
             where portal = :portal
               and status = 'active'::ing.ing_frontier_status
+              %s
               and (lease_until is null or lease_until <= now())
-              and (last_run_at is null
-                   or last_run_at <= now() - (interval '1 day' * :min_days_between_runs))
+              and coalesce(next_eligible_at,
+                           last_run_at + (interval '1 day' * :min_days_between_runs),
+                           '-infinity') <= now()
               and consecutive_failures < :max_failures
+              and %s
             order by priority asc, coalesce(last_run_at, 'epoch') asc, first_seen_at asc
             for update skip locked
             limit :lim
@@ -224,20 +194,36 @@ public class FrontierDispatcher {
           and f.task_type = cte.task_type
           and f.url_hash = cte.url_hash
         returning f.task_type::text, f.segment::text, f.url_hash, f.url
-        """;
+        """.formatted(laneFilter, RedisLeaderElector.FENCE_CHECK);
 
     MapSqlParameterSource params = new MapSqlParameterSource()
         .addValue("portal", portal)
         .addValue("lim", limit)
         .addValue("min_days_between_runs", minDaysBetweenRuns)
         .addValue("max_failures", config.getMaxConsecutiveFailures())
-        .addValue("lease_minutes", leaseMinutes);
+        .addValue("lease_minutes", leaseMinutes)
+        .addValue("fence", fence);
+    if (lane != null) {
+      params.addValue("task_type", lane.taskType().name())
+          .addValue("segment", lane.segment().name());
+    }
 
-    return jdbc.query(sql, params, (rs, i) -> new Claimed(
+    ClaimQueryEvent evt = new ClaimQueryEvent();
+    evt.begin();
+    List<Claimed> rows = jdbc.query(sql, params, (rs, i) -> new Claimed(
         TaskType.valueOf(rs.getString(1)),
         Segment.valueOf(rs.getString(2)),
         rs.getString(3),
         rs.getString(4)));
+    evt.end();
+    if (evt.shouldCommit()) {
+      evt.portal = portal;
+      evt.lane = lane == null ? "any" : lane.taskType() + "/" + lane.segment();
+      evt.limit = limit;
+      evt.claimed = rows.size();
+      evt.commit();
+    }
+    return rows;
   }
 
   record Claimed(TaskType taskType, Segment segment, String urlHash, String url) {
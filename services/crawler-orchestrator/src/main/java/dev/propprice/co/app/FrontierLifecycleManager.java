@@ -0,0 +1,177 @@
+package dev.propprice.co.app;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import dev.propprice.co.api.dto.FrontierReactivateResponse;
+import dev.propprice.co.config.DispatcherProperties;
+import dev.propprice.co.config.FrontierLifecycleProperties;
+import dev.propprice.co.config.SchedulingConfig;
+import dev.propprice.co.domain.enums.TaskType;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps dead URLs out of the active frontier (see V14). Active rows that
+ * reached max-consecutive-failures are quarantined; at retest_at they get one
+ * more attempt (the next failure quarantines them again) until they have been
+ * quarantined retire-after-quarantines times, then they are retired. Retired
+ * rows are moved to ing.frontier_archive after archive-after-days. Every step
+ * runs in bounded batches on the leader and is undone by {@link #reactivate}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FrontierLifecycleManager {
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final RedisLeaderElector leader;
+  private final DispatcherProperties dispatcher;
+  private final FrontierLifecycleProperties config;
+  private final MeterRegistry meters;
+
+  @Scheduled(fixedDelayString = "${co.frontier.lifecycle.interval:300000}", initialDelay = 30_000,
+      scheduler = SchedulingConfig.HOUSEKEEPING)
+  public void sweep() {
+    if (!config.isEnabled() || !leader.isLeader())
+      return;
+    try {
+      int quarantined = repeat("quarantined", """
+          with c as (
+            select portal, task_type, url_hash
+            from ing.frontier
+            where status = 'active'::ing.ing_frontier_status
+              and consecutive_failures >= :max_failures
+              and (lease_until is null or lease_until < now())
+            limit :batch
+            for update skip locked
+          )
+          update ing.frontier f
+          set status = 'quarantined'::ing.ing_frontier_status,
+              quarantined_at = now(),
+              quarantine_count = f.quarantine_count + 1,
+              retest_at = now() + interval '1 hour' * :retest_hours * power(2, least(f.quarantine_count, 10))
+          from c
+          where f.portal = c.portal and f.task_type = c.task_type and f.url_hash = c.url_hash
+          """);
+      int retired = repeat("retired", """
+          with c as (
+            select portal, task_type, url_hash
+            from ing.frontier
+            where status = 'quarantined'::ing.ing_frontier_status
+              and retest_at <= now()
+              and quarantine_count >= :retire_after
+            limit :batch
+            for update skip locked
+          )
+          update ing.frontier f
+          set status = 'retired'::ing.ing_frontier_status,
+              retired_at = now(),
+              retest_at = null
+          from c
+          where f.portal = c.portal and f.task_type = c.task_type and f.url_hash = c.url_hash
+          """);
+      int retested = repeat("retested", """
+          with c as (
+            select portal, task_type, url_hash
+            from ing.frontier
+            where status = 'quarantined'::ing.ing_frontier_status
+              and retest_at <= now()
+            limit :batch
+            for update skip locked
+          )
+          update ing.frontier f
+          set status = 'active'::ing.ing_frontier_status,
+              consecutive_failures = greatest(:max_failures - 1, 0),
+              retest_at = null
+          from c
+          where f.portal = c.portal and f.task_type = c.task_type and f.url_hash = c.url_hash
+          """);
+      int archived = repeat("archived", """
+          with c as (
+            select portal, task_type, url_hash
+            from ing.frontier
+            where status = 'retired'::ing.ing_frontier_status
+              and retired_at < now() - interval '1 day' * :archive_after_days
+            limit :batch
+            for update skip locked
+          ), moved as (
+            delete from ing.frontier f
+            using c
+            where f.portal = c.portal and f.task_type = c.task_type and f.url_hash = c.url_hash
+            returning f.*
+          )
+          insert into ing.frontier_archive as a (portal, task_type, url_hash, row_data)
+          select portal, task_type, url_hash, to_jsonb(moved) from moved
+          on conflict (portal, task_type, url_hash) do update set
+            row_data = excluded.row_data, archived_at = now()
+          """);
+      if (quarantined + retired + retested + archived > 0)
+        log.info("Frontier lifecycle: {} quarantined, {} retired, {} back for a retest, {} archived",
+            quarantined, retired, retested, archived);
+    } catch (Exception e) {
+      log.warn("Frontier lifecycle sweep failed", e);
+    }
+  }
+
+  /**
+   * Put URLs back into dispatch: archived rows are restored, quarantined and
+   * retired ones become active with their failure history cleared. URLs
+   * re-added to the frontier since they were archived keep the newer row.
+   */
+  @Transactional
+  public FrontierReactivateResponse reactivate(String portal, TaskType taskType, List<String> urlHashes) {
+    var params = new MapSqlParameterSource()
+        .addValue("portal", portal)
+        .addValue("task_type", taskType.name())
+        .addValue("hashes", urlHashes);
+    int restored = jdbc.update("""
+        with r as (
+          delete from ing.frontier_archive
+          where portal = :portal and task_type = :task_type::ing.ing_task_type and url_hash in (:hashes)
+          returning row_data
+        )
+        insert into ing.frontier
+        select (jsonb_populate_record(null::ing.frontier, row_data)).* from r
+        on conflict do nothing
+        """, params);
+    int reactivated = jdbc.update("""
+        update ing.frontier
+        set status = 'active'::ing.ing_frontier_status,
+            consecutive_failures = 0,
+            quarantine_count = 0,
+            quarantined_at = null,
+            retest_at = null,
+            retired_at = null
+        where portal = :portal and task_type = :task_type::ing.ing_task_type and url_hash in (:hashes)
+          and status in ('quarantined'::ing.ing_frontier_status, 'retired'::ing.ing_frontier_status)
+        """, params);
+    meters.counter("co.frontier.lifecycle", "transition", "reactivated").increment(reactivated);
+    return new FrontierReactivateResponse(restored, reactivated);
+  }
+
+  /** Runs one transition in batches; each statement commits on its own. */
+  private int repeat(String transition, String sql) {
+    var params = new MapSqlParameterSource()
+        .addValue("batch", config.getBatchSize())
+        .addValue("max_failures", dispatcher.getMaxConsecutiveFailures())
+        .addValue("retest_hours", config.getRetestHours())
+        .addValue("retire_after", config.getRetireAfterQuarantines())
+        .addValue("archive_after_days", config.getArchiveAfterDays());
+    int total = 0;
+    for (int i = 0; i < config.getMaxBatches(); i++) {
+      int n = jdbc.update(sql, params);
+      total += n;
+      if (n < config.getBatchSize())
+        break;
+    }
+    meters.counter("co.frontier.lifecycle", "transition", transition).increment(total);
+    return total;
+  }
+}
@@ -0,0 +1,171 @@
+package dev.propprice.co.app;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import dev.propprice.co.api.dto.FrontierPageResponse;
+import dev.propprice.co.api.dto.FrontierView;
+import dev.propprice.co.config.FrontierQueryProperties;
+import dev.propprice.co.config.ReadReplica;
+import dev.propprice.co.domain.enums.FrontierStatus;
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Read access to ing.frontier in primary-key order. Pages continue from the
+ * last key seen (keyset), so each page is an index range scan no matter how
+ * deep the caller is; the stream variant pulls rows through a server-side
+ * cursor with a bounded fetch size. Nothing is loaded as managed entities.
+ */
+@Service
+@RequiredArgsConstructor
+public class FrontierQueryService {
+
+  /** Columns returned; each includes the previous one's. */
+  public enum Projection {
+    keys, summary, full
+  }
+
+  /** Optional filters; null means any. */
+  public record Filter(String portal, TaskType taskType, Segment segment, FrontierStatus status) {
+  }
+
+  private static final String KEYSET =
+      "(portal, task_type, url_hash) > (:c_portal::text, :c_task_type::ing.ing_task_type, :c_url_hash::bpchar)";
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final DataSource dataSource;
+  private final FrontierQueryProperties config;
+
+  private NamedParameterJdbcTemplate streaming;
+
+  @PostConstruct
+  void init() {
+    JdbcTemplate t = new JdbcTemplate(dataSource);
+    t.setFetchSize(config.getStreamFetchSize());
+    streaming = new NamedParameterJdbcTemplate(t);
+  }
+
+  /**
+   * One page after {@code cursor} (null for the first page).
+   *
+   * @throws IllegalArgumentException for a malformed cursor
+   */
+  @ReadReplica
+  public FrontierPageResponse page(Filter filter, Projection projection, String cursor, int limit) {
+    int lim = Math.max(1, Math.min(limit, config.getMaxPageSize()));
+    MapSqlParameterSource params = params(filter).addValue("lim", lim);
+    String keyset = null;
+    if (cursor != null && !cursor.isBlank()) {
+      Key after = Key.decode(cursor);
+      params.addValue("c_portal", after.portal())
+          .addValue("c_task_type", after.taskType())
+          .addValue("c_url_hash", after.urlHash());
+      keyset = KEYSET;
+    }
+
+    List<FrontierView> items = jdbc.query(sql(filter, projection, keyset) + " limit :lim", params, mapper(projection));
+    String next = null;
+    if (items.size() == lim) {
+      FrontierView last = items.get(items.size() - 1);
+      next = new Key(last.getPortal(), last.getTask_type(), last.getUrl_hash()).encode();
+    }
+    return new FrontierPageResponse(items, next);
+  }
+
+  /**
+   * All matching rows in key order. Must run inside a transaction (Postgres
+   * only uses a cursor with auto-commit off) and the stream must be closed.
+   */
+  @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+  public Stream<FrontierView> stream(Filter filter, Projection projection) {
+    return streaming.queryForStream(sql(filter, projection, null), params(filter), mapper(projection));
+  }
+
+  private static MapSqlParameterSource params(Filter f) {
+    return new MapSqlParameterSource()
+        .addValue("portal", f.portal())
+        .addValue("task_type", f.taskType() != null ? f.taskType().name() : null)
+        .addValue("segment", f.segment() != null ? f.segment().name() : null)
+        .addValue("status", f.status() != null ? f.status().name() : null);
+  }
+
+  private static String sql(Filter f, Projection projection, String keyset) {
+    StringBuilder sql = new StringBuilder("select portal, task_type::text, url_hash");
+    if (projection != Projection.keys)
+      sql.append(", url, segment::text, status::text, priority");
+    if (projection == Projection.full)
+      sql.append(", first_seen_at, last_run_at, next_eligible_at, lease_until, consecutive_failures, last_result_status");
+    sql.append(" from ing.frontier where true");
+    if (f.portal() != null)
+      sql.append(" and portal = :portal");
+    if (f.taskType() != null)
+      sql.append(" and task_type = :task_type::ing.ing_task_type");
+    if (f.segment() != null)
+      sql.append(" and segment = :segment::ing.ing_segment");
+    if (f.status() != null)
+      sql.append(" and status = :status::ing.ing_frontier_status");
+    if (keyset != null)
+      sql.append(" and ").append(keyset);
+    return sql.append(" order by portal, task_type, url_hash").toString();
+  }
+
+  private static RowMapper<FrontierView> mapper(Projection projection) {
+    return (rs, i) -> {
+      FrontierView v = new FrontierView(rs.getString(1), rs.getString(2), rs.getString(3),
+          null, null, null, null, null, null, null, null, null, null);
+      if (projection != Projection.keys) {
+        v.setUrl(rs.getString(4));
+        v.setSegment(rs.getString(5));
+        v.setStatus(rs.getString(6));
+        v.setPriority(rs.getInt(7));
+      }
+      if (projection == Projection.full) {
+        v.setFirst_seen_at(rs.getObject(8, OffsetDateTime.class));
+        v.setLast_run_at(rs.getObject(9, OffsetDateTime.class));
+        v.setNext_eligible_at(rs.getObject(10, OffsetDateTime.class));
+        v.setLease_until(rs.getObject(11, OffsetDateTime.class));
+        v.setConsecutive_failures(rs.getInt(12));
+        v.setLast_result_status(rs.getObject(13, Integer.class));
+      }
+      return v;
+    };
+  }
+
+  /** Opaque cursor: base64url of the last primary key returned. */
+  record Key(String portal, String taskType, String urlHash) {
+
+    String encode() {
+      String raw = portal + "\n" + taskType + "\n" + urlHash;
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Key decode(String cursor) {
+      String[] parts;
+      try {
+        parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", -1);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Malformed cursor", e);
+      }
+      if (parts.length != 3)
+        throw new IllegalArgumentException("Malformed cursor");
+      TaskType.valueOf(parts[1]); // rejects anything the cast would fail on
+      return new Key(parts[0], parts[1], parts[2]);
+    }
+  }
+}
@@ -1,13 +1,17 @@
 package dev.propprice.co.app;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.support.SqlArrayValue;
 import org.springframework.stereotype.Service;
 
 import dev.propprice.co.api.dto.FrontierBatchUpsertRequest;
-import dev.propprice.co.domain.enums.Segment;
-import dev.propprice.co.domain.enums.TaskType;
 import dev.propprice.co.util.Hashing;
+import dev.propprice.co.util.UrlCanonicalizer;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -15,19 +19,43 @@ import lombok.RequiredArgsConstructor;
 public class FrontierService {
   private final NamedParameterJdbcTemplate jdbc;
 
+  /** A URL to merge; taskType and segment are enum names, url is canonical and urlHash its md5. */
+  public record Candidate(String portal, String taskType, String url, String urlHash, String segment, int priority) {
+
+    /**
+     * The one place a URL entering the frontier is canonicalized and hashed,
+     * so a page reached through the API, a seed file or a discovered link
+     * maps to a single row.
+     *
+     * @return null when {@code rawUrl} is not an absolute http(s) URL
+     */
+    public static Candidate of(String portal, String taskType, String rawUrl, String segment, int priority) {
+      String url = UrlCanonicalizer.canonicalize(rawUrl);
+      return url == null ? null : new Candidate(portal, taskType, url, Hashing.md5(url), segment, priority);
+    }
+  }
+
+  /** @throws IllegalArgumentException if any URL is invalid; nothing is written then */
   public int batchUpsert(FrontierBatchUpsertRequest req) {
-    int total = 0;
+    List<Candidate> candidates = new ArrayList<>(req.getResources().size());
     for (var r : req.getResources()) {
       int priority = (r.getPriority() != null) ? r.getPriority() : 5;
+      Candidate c = Candidate.of(req.getPortal(), r.getTask_type().name(), r.getUrl(), r.getSegment().name(), priority);
+      if (c == null)
+        throw new IllegalArgumentException("Not an absolute http(s) URL: " + r.getUrl());
+      candidates.add(c);
+    }
+    int total = 0;
+    for (int i = 0; i < candidates.size(); i++) {
+      var r = req.getResources().get(i);
       String dedupeKey = (r.getDedupe_key() != null && !r.getDedupe_key().isBlank()) ? r.getDedupe_key() : null;
-      total += upsertOne(req.getPortal(), r.getTask_type(), r.getSegment(), r.getUrl(), priority, dedupeKey);
+      total += upsertOne(candidates.get(i), dedupeKey);
     }
     return total;
   }
 
-  private int upsertOne(String portal, TaskType taskType, Segment segment, String url, int priority, String dedupeKey) {
+  private int upsertOne(Candidate c, String dedupeKey) {
 
-    String urlHash = Hashing.md5(url);
     String sql = """
         insert into ing.frontier (portal, task_type, url, url_hash, segment, priority, status, dedupe_key, first_seen_at, scope, meta)
         values (:portal, :task_type::ing.ing_task_type, :url, :url_hash, :segment::ing.ing_segment, :priority,
@@ -38,13 +66,51 @@ public class FrontierService {
           dedupe_key = coalesce(excluded.dedupe_key, ing.frontier.dedupe_key)
         """;
     MapSqlParameterSource p = new MapSqlParameterSource()
-        .addValue("portal", portal)
-        .addValue("task_type", taskType.name())
-        .addValue("url", url)
-        .addValue("url_hash", urlHash)
-        .addValue("segment", segment.name())
-        .addValue("priority", priority)
+        .addValue("portal", c.portal())
+        .addValue("task_type", c.taskType())
+        .addValue("url", c.url())
+        .addValue("url_hash", c.urlHash())
+        .addValue("segment", c.segment())
+        .addValue("priority", c.priority())
         .addValue("dedupe_key", dedupeKey);
     return jdbc.update(sql, p);
   }
+
+  /**
+   * Insert new URLs and update the priority of known ones in one statement,
+   * skipping archived URLs and reactivating paused rows. Candidates must be
+   * distinct by (portal, task_type, url_hash); they are locked in key order.
+   *
+   * @return rows inserted or changed
+   */
+  public int merge(List<Candidate> candidates) {
+    List<Candidate> links = candidates.stream()
+        .sorted(Comparator.comparing(Candidate::portal).thenComparing(Candidate::taskType)
+            .thenComparing(Candidate::urlHash))
+        .toList();
+    return jdbc.update("""
+        insert into ing.frontier (portal, task_type, url, url_hash, segment, priority,
+                                  status, dedupe_key, first_seen_at, scope, meta)
+        select u.portal, u.task_type::ing.ing_task_type, u.url, u.url_hash,
+               u.segment::ing.ing_segment, u.priority,
+               'active'::ing.ing_frontier_status, null, now(), '{}'::jsonb, '{}'::jsonb
+        from unnest(:portals, :task_types, :urls, :url_hashes, :segments, :priorities)
+             as u(portal, task_type, url, url_hash, segment, priority)
+        where not exists (select 1 from ing.frontier_archive a
+                          where a.portal = u.portal and a.task_type = u.task_type::ing.ing_task_type
+                            and a.url_hash = u.url_hash)
+        on conflict (portal, task_type, url_hash) do update set
+          priority = excluded.priority,
+          status   = case when ing.frontier.status = 'paused'::ing.ing_frontier_status
+                          then 'active'::ing.ing_frontier_status else ing.frontier.status end
+        where ing.frontier.priority is distinct from excluded.priority
+           or ing.frontier.status = 'paused'::ing.ing_frontier_status
+        """, new MapSqlParameterSource()
+        .addValue("portals", new SqlArrayValue("text", links.stream().map(Candidate::portal).toArray()))
+        .addValue("task_types", new SqlArrayValue("text", links.stream().map(Candidate::taskType).toArray()))
+        .addValue("urls", new SqlArrayValue("text", links.stream().map(Candidate::url).toArray()))
+        .addValue("url_hashes", new SqlArrayValue("bpchar", links.stream().map(Candidate::urlHash).toArray()))
+        .addValue("segments", new SqlArrayValue("text", links.stream().map(Candidate::segment).toArray()))
+        .addValue("priorities", new SqlArrayValue("int4", links.stream().map(Candidate::priority).toArray())));
+  }
 }
@@ -0,0 +1,196 @@
+package dev.propprice.co.app;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.propprice.co.api.dto.FrontierStatsGroup;
+import dev.propprice.co.api.dto.FrontierStatsResponse;
+import dev.propprice.co.config.FrontierStatsProperties;
+import dev.propprice.co.config.ReadReplica;
+import dev.propprice.co.config.SchedulingConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Frontier backlog statistics from ing.frontier_stats (see V10, V16, V18). Reads
+ * add the not-yet-folded deltas, so answers are current and never scan
+ * ing.frontier. Folding and recounting run on the leader and never overlap
+ * there; while more than max-pending-deltas are waiting (no leader, or the
+ * leader falling behind) every instance folds. Concurrent folds are safe, a
+ * recount racing one fails and runs again next interval.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FrontierStatsService {
+
+  public static final Duration RESOLUTION = Duration.ofHours(1);
+
+  /** Upper bounds of the age histogram buckets; the last bucket is open. */
+  private static final Duration[] EDGES = { Duration.ofHours(1), Duration.ofDays(1), Duration.ofDays(7) };
+  private static final String[] LABELS = { "lt_1h", "1h_1d", "1d_7d", "gte_7d" };
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final RedisLeaderElector leader;
+  private final FrontierStatsProperties config;
+
+  @ReadReplica
+  public FrontierStatsResponse read(String portal, String taskType, String segment) {
+    var params = new MapSqlParameterSource()
+        .addValue("portal", portal)
+        .addValue("task_type", taskType)
+        .addValue("segment", segment);
+    StringBuilder where = new StringBuilder(" where true");
+    if (portal != null)
+      where.append(" and portal = :portal");
+    if (taskType != null)
+      where.append(" and task_type = :task_type::ing.ing_task_type");
+    if (segment != null)
+      where.append(" and segment = :segment::ing.ing_segment");
+
+    String sql = """
+        select portal, task_type::text, segment::text, status::text,
+               case when bucket = '-infinity' then null else bucket end, sum(n)
+        from (select portal, task_type, segment, status, bucket, n from ing.frontier_stats
+              union all
+              select portal, task_type, segment, status, bucket, d from ing.frontier_stats_delta) s
+        %s
+        group by 1, 2, 3, 4, 5
+        having sum(n) <> 0
+        order by 1, 2, 3, 4, 5 nulls first
+        """.formatted(where);
+
+    OffsetDateTime now = OffsetDateTime.now();
+    Map<String, FrontierStatsGroup> groups = new LinkedHashMap<>();
+    jdbc.query(sql, params, rs -> {
+      String p = rs.getString(1), t = rs.getString(2), sg = rs.getString(3), st = rs.getString(4);
+      FrontierStatsGroup g = groups.computeIfAbsent(p + "|" + t + "|" + sg + "|" + st,
+          k -> new FrontierStatsGroup(p, t, sg, st, 0, 0, null, null, histogram(), histogram()));
+      OffsetDateTime bucket = rs.getObject(5, OffsetDateTime.class);
+      long n = rs.getLong(6);
+      g.setTotal(g.getTotal() + n);
+      if (bucket == null || !"active".equals(g.getStatus()))
+        return;
+      if (!bucket.isAfter(now)) {
+        g.setDue(g.getDue() + n);
+        if (g.getOldest_due_at() == null) {
+          g.setOldest_due_at(bucket);
+          g.setOldest_due_age_seconds(Duration.between(bucket, now).toSeconds());
+        }
+        g.getDue_age().merge(label(Duration.between(bucket, now)), n, Long::sum);
+      } else {
+        g.getUpcoming().merge(label(Duration.between(now, bucket)), n, Long::sum);
+      }
+    });
+    return new FrontierStatsResponse(now, RESOLUTION.toSeconds(), new ArrayList<>(groups.values()));
+  }
+
+  @Scheduled(fixedDelayString = "${co.frontier.stats.fold-interval:5000}", scheduler = SchedulingConfig.HOUSEKEEPING)
+  public synchronized void fold() {
+    try {
+      if (!leader.isLeader() && pendingDeltas() < config.getMaxPendingDeltas())
+        return;
+      tx.executeWithoutResult(s -> foldDeltas());
+    } catch (Exception e) {
+      log.warn("Folding frontier stats deltas failed", e);
+    }
+  }
+
+  /**
+   * Recount from ing.frontier in one repeatable-read snapshot: the recount and
+   * the deltas it deletes see the same committed writes, and deltas committed
+   * after the snapshot survive for the next fold.
+   */
+  @Scheduled(fixedDelayString = "${co.frontier.stats.reconcile-interval:21600000}", initialDelay = 60_000,
+      scheduler = SchedulingConfig.HOUSEKEEPING)
+  public synchronized void reconcile() {
+    if (!leader.isLeader())
+      return;
+    TransactionTemplate rr = new TransactionTemplate(tx.getTransactionManager());
+    rr.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    try {
+      long started = System.currentTimeMillis();
+      Integer drift = rr.execute(s -> {
+        foldDeltas();
+        return jdbc.query("""
+            with actual as (
+              select f.portal, f.task_type, f.segment, f.status,
+                     ing.frontier_due_bucket(f.status, f.next_eligible_at, f.last_run_at, f.first_seen_at,
+                                             f.lease_until, coalesce(p.min_days_between_runs, 7)) as bucket,
+                     count(*) as n
+              from ing.frontier f
+              left join ing.portal_policy p on p.portal = f.portal
+              group by 1, 2, 3, 4, 5
+            ), upserted as (
+              insert into ing.frontier_stats as fs (portal, task_type, segment, status, bucket, n)
+              select * from actual
+              on conflict (portal, task_type, segment, status, bucket) do update set n = excluded.n
+              where fs.n <> excluded.n
+              returning 1
+            ), removed as (
+              delete from ing.frontier_stats fs
+              where not exists (select 1 from actual a
+                                where a.portal = fs.portal and a.task_type = fs.task_type
+                                  and a.segment = fs.segment and a.status = fs.status
+                                  and a.bucket = fs.bucket)
+              returning 1
+            )
+            select (select count(*) from upserted) + (select count(*) from removed)
+            """, new MapSqlParameterSource(), rs -> rs.next() ? rs.getInt(1) : 0);
+      });
+      log.info("Reconciled frontier stats in {} ms ({} counters corrected)",
+          System.currentTimeMillis() - started, drift);
+    } catch (Exception e) {
+      log.warn("Reconciling frontier stats failed", e);
+    }
+  }
+
+  /** Upper bound on unfolded deltas from the id range; two index probes, no scan. */
+  private long pendingDeltas() {
+    Long n = jdbc.queryForObject("select coalesce(max(id) - min(id) + 1, 0) from ing.frontier_stats_delta",
+        new MapSqlParameterSource(), Long.class);
+    return n == null ? 0 : n;
+  }
+
+  private void foldDeltas() {
+    jdbc.update("""
+        with d as (
+          delete from ing.frontier_stats_delta returning portal, task_type, segment, status, bucket, d
+        ), agg as (
+          select portal, task_type, segment, status, bucket, sum(d) as n
+          from d group by 1, 2, 3, 4, 5
+        )
+        insert into ing.frontier_stats as fs (portal, task_type, segment, status, bucket, n)
+        select * from agg
+        on conflict (portal, task_type, segment, status, bucket) do update set n = fs.n + excluded.n
+        """, new MapSqlParameterSource());
+    jdbc.update("delete from ing.frontier_stats where n = 0", new MapSqlParameterSource());
+  }
+
+  private static Map<String, Long> histogram() {
+    Map<String, Long> h = new LinkedHashMap<>();
+    for (String l : LABELS)
+      h.put(l, 0L);
+    return h;
+  }
+
+  private static String label(Duration d) {
+    for (int i = 0; i < EDGES.length; i++) {
+      if (d.compareTo(EDGES[i]) < 0)
+        return LABELS[i];
+    }
+    return LABELS[EDGES.length];
+  }
+}
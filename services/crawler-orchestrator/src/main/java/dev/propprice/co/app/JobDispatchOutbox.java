@@ -0,0 +1,89 @@
+package dev.propprice.co.app;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import dev.propprice.co.config.EventEncodingProperties;
+import dev.propprice.co.config.KafkaTopics;
+import dev.propprice.co.domain.enums.TaskType;
+import dev.propprice.co.schema.EventCodec;
+import dev.propprice.co.schema.HeaderCodec;
+import dev.propprice.co.schema.SchemaValidator;
+import dev.propprice.co.schema.Schemas;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes acq.job.dispatched events to the outbox, in the caller's transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobDispatchOutbox {
+
+  private static final String SCHEMA = "acq.job.dispatched@v1";
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final EventEncodingProperties encoding;
+  private final ObjectMapper om = new ObjectMapper();
+
+  public void enqueue(UUID jobId, String portal, FrontierDispatcher.Claimed claimed, int attempt) {
+    ObjectNode evt = createJobDispatchedEvent(jobId, portal, claimed, attempt);
+    SchemaValidator.validate(Schemas.JOB_DISPATCHED_V1, evt);
+
+    boolean avro = encoding.getFormat() == EventEncodingProperties.Format.avro;
+    String contentType = avro ? EventCodec.AVRO : EventCodec.JSON;
+
+    var headersJson = om.createObjectNode();
+    headersJson.put("content-type", contentType);
+    headersJson.put("schema", SCHEMA);
+    headersJson.put("ce_type", "acq.job.dispatched");
+    headersJson.put("ce_id", evt.get("event_id").asText());
+    headersJson.put("ce_source", "co");
+
+    var params = new MapSqlParameterSource()
+        .addValue("topic", KafkaTopics.JOB_DISPATCHED)
+        .addValue("k", claimed.urlHash().getBytes(StandardCharsets.UTF_8))
+        .addValue("v", avro ? null : evt.toString())
+        .addValue("payload", avro ? EventCodec.encode(contentType, SCHEMA, evt) : null)
+        .addValue("headers", headersJson.toString())
+        .addValue("kafka_headers", HeaderCodec.encode(headersJson));
+
+    int updated = jdbc.update("""
+        insert into ing.outbox(topic, k, v, payload, headers, kafka_headers, created_at)
+        values (:topic, :k, cast(:v as jsonb), :payload, cast(:headers as jsonb), :kafka_headers, now())
+        """, params);
+
+    if (updated != 1) {
+      throw new RuntimeException("Failed to insert outbox record");
+    }
+  }
+
+  private ObjectNode createJobDispatchedEvent(UUID jobId, String portal, FrontierDispatcher.Claimed claimed,
+      int attempt) {
+    ObjectNode evt = om.createObjectNode();
+    evt.put("schema_version", 1);
+    evt.put("event_id", UUID.randomUUID().toString());
+    evt.put("occurred_at", Instant.now().toString());
+
+    var job = evt.putObject("job");
+    job.put("job_id", jobId.toString());
+    job.put("portal", portal);
+    job.put("task_type", claimed.taskType().name());
+    job.put("segment", claimed.segment().name());
+    job.put("priority", claimed.taskType() == TaskType.search_page ? 2 : 5);
+
+    var req = evt.putObject("request");
+    req.put("url", claimed.url());
+    req.put("url_hash", claimed.urlHash());
+    req.put("attempt", attempt);
+
+    return evt;
+  }
+}
@@ -0,0 +1,49 @@
+package dev.propprice.co.app;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/**
+ * Job ids are time-ordered UUIDs (version 7) carrying the job's scheduled_at
+ * in milliseconds. ing.job is partitioned on scheduled_at, so an update by id
+ * can name the partition instead of probing the primary key of every one.
+ * Ids from before this scheme (random, version 4) still match, unpruned.
+ */
+public final class JobIds {
+
+  /** Predicate pruning ing.job to the job's partition; bind with {@link #bind}. */
+  public static final String PARTITION = "scheduled_at between :scheduled_from and :scheduled_to";
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+  private static final OffsetDateTime FIRST = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+  private static final OffsetDateTime LAST = OffsetDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  private JobIds() {
+  }
+
+  /** New id for a job scheduled at {@code scheduledAt}, which must be stored truncated to milliseconds. */
+  public static UUID next(Instant scheduledAt) {
+    long msb = (scheduledAt.toEpochMilli() << 16) | 0x7000L | (RANDOM.nextInt() & 0x0FFFL);
+    long lsb = (RANDOM.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+    return new UUID(msb, lsb);
+  }
+
+  /** @return the scheduled_at encoded in the id, or null for a random (legacy) id */
+  public static Instant scheduledAt(UUID jobId) {
+    return jobId.version() == 7 ? Instant.ofEpochMilli(jobId.getMostSignificantBits() >>> 16) : null;
+  }
+
+  /** Adds job_id and the {@link #PARTITION} bounds for it. */
+  public static MapSqlParameterSource bind(MapSqlParameterSource params, UUID jobId) {
+    Instant at = scheduledAt(jobId);
+    OffsetDateTime exact = at == null ? null : at.atOffset(ZoneOffset.UTC);
+    return params.addValue("job_id", jobId)
+        .addValue("scheduled_from", exact == null ? FIRST : exact)
+        .addValue("scheduled_to", exact == null ? LAST : exact);
+  }
+}
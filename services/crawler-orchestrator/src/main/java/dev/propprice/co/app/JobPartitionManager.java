@@ -0,0 +1,195 @@
+package dev.propprice.co.app;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.propprice.co.config.JobPartitionProperties;
+import dev.propprice.co.config.SchedulingConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps ing.job partitioned by day: creates partitions ahead of time (and for
+ * any day that spilled into the default partition), and once a partition is
+ * past retention and holds no open jobs (dispatched/retry), streams it to a
+ * gzipped NDJSON file and drops it. Runs on the leader only.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobPartitionManager {
+
+  private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final RedisLeaderElector leader;
+  private final JobPartitionProperties config;
+
+  @Scheduled(fixedDelayString = "${co.jobs.partitions.maintenance-interval:3600000}", initialDelay = 10_000,
+      scheduler = SchedulingConfig.HOUSEKEEPING)
+  public void maintain() {
+    if (!config.isEnabled() || !leader.isLeader())
+      return;
+
+    try {
+      ensureFuturePartitions();
+    } catch (Exception e) {
+      log.error("Failed to create upcoming ing.job partitions", e);
+    }
+
+    OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minusDays(config.getRetentionDays());
+    for (Partition p : listPartitions()) {
+      if (p.upperBound() == null || !p.upperBound().isBefore(cutoff))
+        continue;
+      try {
+        archiveAndDrop(p);
+      } catch (Exception e) {
+        log.error("Failed to archive partition {}", p.name(), e);
+      }
+    }
+  }
+
+  /**
+   * Creates today's partition and the next days-ahead ones, plus one for every
+   * day that has rows in the default partition (dispatched while no partition
+   * covered them). Those rows block creating the day's partition, so they are
+   * moved into it first.
+   */
+  void ensureFuturePartitions() {
+    LocalDate today = LocalDate.now(ZoneOffset.UTC);
+    SortedSet<LocalDate> days = new TreeSet<>(daysInDefaultPartition());
+    for (int i = 0; i <= config.getDaysAhead(); i++) {
+      days.add(today.plusDays(i));
+    }
+    for (LocalDate day : days) {
+      createPartition(day);
+    }
+  }
+
+  private List<LocalDate> daysInDefaultPartition() {
+    return jdbc.query("""
+        select distinct (scheduled_at at time zone 'utc')::date from ing.job_p_default
+        """, Map.of(), (rs, i) -> rs.getObject(1, LocalDate.class));
+  }
+
+  private void createPartition(LocalDate day) {
+    String table = "ing.job_p" + day.format(SUFFIX);
+    var params = new MapSqlParameterSource()
+        .addValue("table", table)
+        .addValue("from", day.atStartOfDay().atOffset(ZoneOffset.UTC))
+        .addValue("to", day.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+    Integer moved = tx.execute(s -> {
+      if (Boolean.TRUE.equals(jdbc.queryForObject("select to_regclass(:table) is not null", params, Boolean.class)))
+        return null;
+      // no new rows for this day may reach the default partition until the new one is attached
+      jdbc.getJdbcOperations().execute("lock table ing.job_p_default in exclusive mode");
+      jdbc.getJdbcOperations().execute("create table %s (like ing.job including defaults)".formatted(table));
+      int n = jdbc.update("""
+          with moved as (
+            delete from ing.job_p_default
+            where scheduled_at >= :from and scheduled_at < :to
+            returning *
+          )
+          insert into %s select * from moved
+          """.formatted(table), params);
+      jdbc.getJdbcOperations().execute("""
+          alter table ing.job attach partition %s
+          for values from ('%sT00:00:00Z') to ('%sT00:00:00Z')
+          """.formatted(table, day, day.plusDays(1)));
+      return n;
+    });
+    if (moved != null && moved > 0)
+      log.warn("Moved {} rows of {} out of ing.job_p_default into {}", moved, day, table);
+  }
+
+  List<Partition> listPartitions() {
+    return jdbc.query("""
+        select c.relname,
+               (regexp_match(pg_get_expr(c.relpartbound, c.oid), 'TO \\(''([^'']+)''\\)'))[1]::timestamptz
+        from pg_inherits i
+        join pg_class c on c.oid = i.inhrelid
+        join pg_class p on p.oid = i.inhparent
+        join pg_namespace n on n.oid = p.relnamespace
+        where n.nspname = 'ing' and p.relname = 'job'
+        order by 2 nulls last
+        """, Map.of(), (rs, i) -> new Partition(rs.getString(1), rs.getObject(2, OffsetDateTime.class)));
+  }
+
+  private void archiveAndDrop(Partition p) throws IOException {
+    String table = "ing." + p.name();
+    Boolean open = jdbc.queryForObject("""
+        select exists(select 1 from %s where status in ('dispatched'::ing.ing_job_status, 'retry'::ing.ing_job_status))
+        """.formatted(table), Map.of(), Boolean.class);
+    if (Boolean.TRUE.equals(open)) {
+      log.info("Partition {} still has open jobs; archival postponed", p.name());
+      return;
+    }
+
+    Path dir = Paths.get(config.getArchiveDir());
+    Files.createDirectories(dir);
+    Path target = dir.resolve(p.name() + ".ndjson.gz");
+    Path tmp = dir.resolve(p.name() + ".ndjson.gz.part");
+
+    long rows = export(table, tmp);
+    Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+    tx.executeWithoutResult(s -> {
+      jdbc.getJdbcOperations().execute("alter table ing.job detach partition " + table);
+      jdbc.getJdbcOperations().execute("drop table " + table);
+    });
+    log.info("Archived {} rows of {} to {} and dropped the partition", rows, p.name(), target);
+  }
+
+  /** Streams the partition row by row (server-side cursor) into a gzipped NDJSON file. */
+  private long export(String table, Path file) throws IOException {
+    try (Writer out = new BufferedWriter(new OutputStreamWriter(
+        new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024), StandardCharsets.UTF_8))) {
+      long[] rows = { 0 };
+      tx.executeWithoutResult(s -> jdbc.getJdbcOperations().query(con -> {
+        PreparedStatement ps = con.prepareStatement(
+            "select to_jsonb(j)::text from " + table + " j order by scheduled_at");
+        ps.setFetchSize(config.getExportFetchSize());
+        return ps;
+      }, rs -> {
+        try {
+          out.write(rs.getString(1));
+          out.write('\n');
+          rows[0]++;
+        } catch (IOException e) {
+          throw new IllegalStateException("Failed writing archive " + file, e);
+        }
+      }));
+      return rows[0];
+    } catch (RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+  }
+
+  record Partition(String name, OffsetDateTime upperBound) {
+  }
+}
@@ -0,0 +1,97 @@
+package dev.propprice.co.app;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.propprice.co.api.dto.JobView;
+import dev.propprice.co.config.JobPartitionProperties;
+import dev.propprice.co.config.ReadReplica;
+import dev.propprice.co.domain.enums.JobStatus;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Read access to recent ing.job partitions. Every query is bounded on
+ * scheduled_at so Postgres prunes to the partitions in the window.
+ */
+@Service
+@RequiredArgsConstructor
+public class JobQueryService {
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final JobPartitionProperties config;
+  private final ObjectMapper om = new ObjectMapper();
+
+  @ReadReplica
+  public List<JobView> find(String portal, JobStatus status, OffsetDateTime since, OffsetDateTime until, int limit) {
+    OffsetDateTime to = until != null ? until : OffsetDateTime.now();
+    OffsetDateTime from = since != null ? since : to.minusDays(1);
+    if (Duration.between(from, to).toDays() > config.getQueryWindowDays()) {
+      throw new IllegalArgumentException("Window exceeds " + config.getQueryWindowDays() + " days");
+    }
+
+    var params = new MapSqlParameterSource()
+        .addValue("from", from)
+        .addValue("to", to)
+        .addValue("portal", portal)
+        .addValue("status", status != null ? status.name() : null)
+        .addValue("lim", Math.max(1, Math.min(limit, 1000)));
+
+    StringBuilder sql = new StringBuilder("""
+        select job_id, portal, task_type::text, segment::text, url_hash, url, attempt, status::text,
+               scheduled_at, last_update_at, hints::text
+        from ing.job
+        where scheduled_at >= :from and scheduled_at < :to
+        """);
+    if (portal != null)
+      sql.append(" and portal = :portal");
+    if (status != null)
+      sql.append(" and status = :status::ing.ing_job_status");
+    sql.append(" order by scheduled_at desc limit :lim");
+
+    return jdbc.query(sql.toString(), params, rowMapper());
+  }
+
+  @ReadReplica
+  public Optional<JobView> get(UUID jobId) {
+    OffsetDateTime from = OffsetDateTime.now().minusDays(config.getRetentionDays() + 1L);
+    return jdbc.query("""
+        select job_id, portal, task_type::text, segment::text, url_hash, url, attempt, status::text,
+               scheduled_at, last_update_at, hints::text
+        from ing.job
+        where job_id = :job_id and scheduled_at >= :from
+        """, new MapSqlParameterSource().addValue("job_id", jobId).addValue("from", from), rowMapper())
+        .stream().findFirst();
+  }
+
+  private RowMapper<JobView> rowMapper() {
+    return (rs, i) -> {
+      try {
+        return new JobView(
+            rs.getObject(1, UUID.class),
+            rs.getString(2),
+            rs.getString(3),
+            rs.getString(4),
+            rs.getString(5),
+            rs.getString(6),
+            rs.getInt(7),
+            rs.getString(8),
+            rs.getObject(9, OffsetDateTime.class),
+            rs.getObject(10, OffsetDateTime.class),
+            om.readTree(rs.getString(11)));
+      } catch (JsonProcessingException e) {
+        throw new IllegalStateException(e);
+      }
+    };
+  }
+}
@@ -0,0 +1,189 @@
+package dev.propprice.co.app;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ConsumerGroupDescription;
+import org.apache.kafka.clients.admin.MemberDescription;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import dev.propprice.co.config.KafkaListenerProperties;
+import dev.propprice.co.config.KafkaTopics;
+import dev.propprice.co.config.SchedulingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sizes the page result listener from consumer-group lag. Total consumers
+ * wanted is lag / target-lag-per-consumer, capped by the partition count and
+ * split evenly across the instances in the group; this instance's share is
+ * clamped to [min, max] concurrency. Instances are told apart by the
+ * listener's per-instance client id prefix. Scaling up waits for the up
+ * cooldown, scaling down for the longer down cooldown and only to a size that
+ * keeps lag per consumer under {@code scale-down-headroom} of the target.
+ * Changing concurrency restarts the container, which commits offsets and
+ * rebalances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LagAutoscaler implements DisposableBean {
+
+  private static final long ADMIN_TIMEOUT_SECONDS = 10;
+  /** client.id prefix of the page result listener; each instance appends its own id */
+  static final String CLIENT_ID_PREFIX = "co-results-";
+
+  private final KafkaAdmin kafkaAdmin;
+  private final KafkaListenerEndpointRegistry registry;
+  private final KafkaListenerProperties config;
+  private final MeterRegistry meters;
+
+  private final AtomicLong lag = new AtomicLong();
+  private final AtomicLong partitions = new AtomicLong();
+  private final AtomicLong desired = new AtomicLong();
+  private AdminClient admin;
+  private long lastChangeAt;
+
+  @PostConstruct
+  void registerMeters() {
+    Gauge.builder("co.kafka.listener.lag", lag, AtomicLong::get)
+        .description("Consumer-group lag on acq.raw.page at the last check")
+        .tag("group", PageResultListener.GROUP_ID)
+        .register(meters);
+    Gauge.builder("co.kafka.listener.partitions", partitions, AtomicLong::get)
+        .description("Partitions of acq.raw.page")
+        .register(meters);
+    Gauge.builder("co.kafka.listener.concurrency.desired", desired, AtomicLong::get)
+        .description("Concurrency the autoscaler wants for this instance")
+        .register(meters);
+    Gauge.builder("co.kafka.listener.concurrency", this, s -> s.container() == null ? 0 : s.container().getConcurrency())
+        .description("Current page result listener concurrency on this instance")
+        .register(meters);
+  }
+
+  @Scheduled(fixedDelayString = "${co.kafka.listener.autoscale-interval:15000}", initialDelay = 30_000,
+      scheduler = SchedulingConfig.HOUSEKEEPING)
+  public void adjust() {
+    if (!config.isAutoscaleEnabled())
+      return;
+    ConcurrentMessageListenerContainer<?, ?> container = container();
+    if (container == null || !container.isRunning())
+      return;
+
+    try {
+      Snapshot s = snapshot();
+      lag.set(s.lag());
+      partitions.set(s.partitions());
+
+      int current = container.getConcurrency();
+      int up = concurrency(s, config.getTargetLagPerConsumer());
+      // shrink only as far as leaves headroom below the target lag, so a lag near a boundary cannot flap
+      int down = concurrency(s, Math.max(1, (long) (config.getTargetLagPerConsumer() * config.getScaleDownHeadroom())));
+      int target = up > current ? up : Math.min(current, down);
+      desired.set(target);
+
+      long sinceChange = System.currentTimeMillis() - lastChangeAt;
+      if ((target > current && sinceChange >= config.getScaleUpCooldown())
+          || (target < current && sinceChange >= config.getScaleDownCooldown())) {
+        resize(container, current, target, s);
+        lastChangeAt = System.currentTimeMillis();
+      }
+    } catch (Exception e) {
+      log.warn("Lag autoscaler check failed", e);
+    }
+  }
+
+  /** This instance's share of lag / perConsumer consumers, capped by partitions and clamped to [min, max]. */
+  private int concurrency(Snapshot s, long perConsumer) {
+    long wantedTotal = Math.min(s.partitions(), Math.max(1, (s.lag() + perConsumer - 1) / perConsumer));
+    int share = (int) Math.ceil((double) wantedTotal / s.instances());
+    return Math.max(config.getMinConcurrency(), Math.min(Math.min(config.getMaxConcurrency(), s.partitions()), share));
+  }
+
+  private void resize(ConcurrentMessageListenerContainer<?, ?> container, int from, int to, Snapshot s) {
+    log.info("Scaling page result listener {} -> {} (lag={}, partitions={}, instances={})",
+        from, to, s.lag(), s.partitions(), s.instances());
+    container.stop(); // blocks until consumers commit and leave the group
+    container.setConcurrency(to);
+    container.start();
+    Counter.builder("co.kafka.listener.scale")
+        .description("Listener concurrency changes made by the autoscaler")
+        .tag("direction", to > from ? "up" : "down")
+        .register(meters)
+        .increment();
+  }
+
+  private Snapshot snapshot() throws Exception {
+    AdminClient client = admin();
+    TopicDescription topic = client.describeTopics(List.of(KafkaTopics.RAW_PAGE))
+        .allTopicNames().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS).get(KafkaTopics.RAW_PAGE);
+
+    Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+    topic.partitions().forEach(p -> latest.put(new TopicPartition(KafkaTopics.RAW_PAGE, p.partition()), OffsetSpec.latest()));
+    var ends = client.listOffsets(latest).all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    Map<TopicPartition, OffsetAndMetadata> committed = client.listConsumerGroupOffsets(PageResultListener.GROUP_ID)
+        .partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    long total = 0;
+    for (var e : ends.entrySet()) {
+      OffsetAndMetadata c = committed.get(e.getKey());
+      if (c != null)
+        total += Math.max(0, e.getValue().offset() - c.offset());
+    }
+
+    ConsumerGroupDescription group = client.describeConsumerGroups(List.of(PageResultListener.GROUP_ID))
+        .describedGroups().get(PageResultListener.GROUP_ID).get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    long instances = group.members().stream().map(LagAutoscaler::instanceOf).distinct().count();
+
+    return new Snapshot(total, topic.partitions().size(), (int) Math.max(1, instances));
+  }
+
+  /**
+   * Consumers of one instance share its client id prefix (plus "-n" per
+   * thread); members without it, e.g. from an older build, count one each.
+   * Hosts are not used: several instances may run on one host.
+   */
+  static String instanceOf(MemberDescription m) {
+    String clientId = m.clientId();
+    if (clientId == null || !clientId.startsWith(CLIENT_ID_PREFIX))
+      return m.consumerId();
+    int dash = clientId.lastIndexOf('-');
+    return dash > CLIENT_ID_PREFIX.length() ? clientId.substring(0, dash) : clientId;
+  }
+
+  private ConcurrentMessageListenerContainer<?, ?> container() {
+    return (ConcurrentMessageListenerContainer<?, ?>) registry.getListenerContainer(PageResultListener.LISTENER_ID);
+  }
+
+  private synchronized AdminClient admin() {
+    if (admin == null)
+      admin = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+    return admin;
+  }
+
+  @Override
+  public synchronized void destroy() {
+    if (admin != null)
+      admin.close();
+  }
+
+  record Snapshot(long lag, int partitions, int instances) {
+  }
+}
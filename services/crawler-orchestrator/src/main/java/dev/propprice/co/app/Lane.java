@@ -0,0 +1,21 @@
+package dev.propprice.co.app;
+
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
+
+/**
+ * Dispatch lane within a portal: rows sharing a task type and segment.
+ */
+public record Lane(TaskType taskType, Segment segment) implements Comparable<Lane> {
+
+  @Override
+  public int compareTo(Lane o) {
+    int c = taskType.compareTo(o.taskType);
+    return c != 0 ? c : segment.compareTo(o.segment);
+  }
+
+  @Override
+  public String toString() {
+    return taskType.name() + "/" + segment.name();
+  }
+}
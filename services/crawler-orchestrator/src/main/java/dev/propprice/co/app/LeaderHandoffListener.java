@@ -0,0 +1,45 @@
+package dev.propprice.co.app;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Standby side of the leadership handoff: when the leader announces a release,
+ * try to take the key right away instead of waiting for the next tick to poll
+ * it (or for the TTL, if the release was missed).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LeaderHandoffListener implements MessageListener {
+
+  private final RedisMessageListenerContainer container;
+  private final RedisLeaderElector leader;
+
+  @PostConstruct
+  void subscribe() {
+    container.addMessageListener(this, new ChannelTopic(RedisLeaderElector.RELEASED_CHANNEL));
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String from = new String(message.getBody(), StandardCharsets.UTF_8);
+    if (from.equals(leader.getMyId()) || leader.isSteppedDown())
+      return;
+    try {
+      if (leader.renew())
+        log.info("Took over leadership released by {}", from);
+    } catch (Exception e) {
+      log.warn("Leadership takeover after release by {} failed; next tick will retry", from, e);
+    }
+  }
+}
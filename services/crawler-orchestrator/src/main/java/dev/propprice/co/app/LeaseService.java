@@ -1,44 +1,58 @@
 package dev.propprice.co.app;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import dev.propprice.co.domain.enums.TaskType;
+import dev.propprice.co.config.DispatcherProperties;
 import lombok.RequiredArgsConstructor;
 
 /**
- * Separates lease release into REQUIRES_NEW transactions so releases are not
- * rolled back with the batch when a dispatch error occurs.
+ * Extends frontier leases for long-running jobs on scraper heartbeat.
  */
 @Service
 @RequiredArgsConstructor
 public class LeaseService {
 
   private final NamedParameterJdbcTemplate jdbc;
+  private final DispatcherProperties config;
 
-  @Transactional(propagation = Propagation.REQUIRES_NEW)
-  public void releaseLeases(String portal, List<FrontierDispatcher.Claimed> claimed) {
-    for (FrontierDispatcher.Claimed c : claimed) {
-      releaseLease(portal, c.taskType(), c.urlHash());
-    }
-  }
-
-  private void releaseLease(String portal, TaskType taskType, String urlHash) {
-    jdbc.update("""
-        update ing.frontier
-        set lease_until = null
-        where portal = :portal
-          and task_type = :task_type::ing.ing_task_type
-          and url_hash = :url_hash
-        """,
-        new MapSqlParameterSource()
-            .addValue("portal", portal)
-            .addValue("task_type", taskType.name())
-            .addValue("url_hash", urlHash));
+  /**
+   * Heartbeat from a scraper still working on {@code jobId}: pushes the frontier
+   * lease out by {@code minutes} (capped) and touches the job so the watchdog
+   * does not treat it as orphaned.
+   *
+   * @return the new lease expiry, or empty if the job is no longer in flight
+   */
+  @Transactional
+  public Optional<OffsetDateTime> extendLease(UUID jobId, int minutes) {
+    int bounded = Math.max(1, Math.min(minutes, config.getMaxLeaseExtensionMinutes()));
+    List<OffsetDateTime> until = jdbc.query("""
+        with j as (
+          update ing.job
+          set last_update_at = now()
+          where job_id = :job_id
+            and %s
+            and status = 'dispatched'::ing.ing_job_status
+          returning portal, task_type, url_hash
+        )
+        update ing.frontier f
+        set lease_until = greatest(coalesce(f.lease_until, now()), now() + (interval '1 minute' * :minutes))
+        from j
+        where f.portal = j.portal
+          and f.task_type = j.task_type
+          and f.url_hash = j.url_hash
+        returning f.lease_until
+        """.formatted(JobIds.PARTITION),
+        JobIds.bind(new MapSqlParameterSource(), jobId)
+            .addValue("minutes", bounded),
+        (rs, i) -> rs.getObject(1, OffsetDateTime.class));
+    return until.stream().findFirst();
   }
 }
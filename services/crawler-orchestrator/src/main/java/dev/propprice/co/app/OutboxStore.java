@@ -0,0 +1,102 @@
+package dev.propprice.co.app;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import dev.propprice.co.schema.HeaderCodec;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Relay-side access to ing.outbox with plain JDBC. Rows come back as the bytes
+ * the producer sends: the pre-encoded payload, or the jsonb text converted to
+ * UTF-8 by the server, and the headers encoded at insert time. No entity or
+ * JSON tree is built per message.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxStore {
+
+  /** An outbox row ready to publish. */
+  public record Message(long id, String topic, byte[] key, byte[] value, byte[] headers, int attempts) {
+
+    public ProducerRecord<String, byte[]> toRecord() {
+      String k = key != null ? new String(key, StandardCharsets.UTF_8) : null;
+      return new ProducerRecord<>(topic, null, k, value, HeaderCodec.decode(headers));
+    }
+  }
+
+  private static final String SELECT = """
+      select id, topic, k, coalesce(payload, convert_to(v::text, 'UTF8')), kafka_headers, attempts
+      from ing.outbox
+      where status = 'pending'
+        and next_attempt_at <= now()
+      """;
+
+  private static final RowMapper<Message> MAPPER = (rs, i) -> new Message(
+      rs.getLong(1), rs.getString(2), rs.getBytes(3), rs.getBytes(4), rs.getBytes(5), rs.getInt(6));
+
+  private final NamedParameterJdbcTemplate jdbc;
+
+  /**
+   * Due pending rows, oldest schedule first (partial index from V12). Rows
+   * locked by another relay's open batch are skipped, so concurrent relays
+   * never publish the same row. Call inside the transaction that marks them.
+   */
+  public List<Message> fetchDue(int limit) {
+    return jdbc.query(SELECT + """
+          order by next_attempt_at, id
+          limit :limit
+          for update skip locked
+        """, Map.of("limit", limit), MAPPER);
+  }
+
+  /** One due pending row, locked; null if it is no longer due or another relay holds it. */
+  public Message fetchOne(long id) {
+    return jdbc.query(SELECT + """
+          and id = :id
+          for update skip locked
+        """, Map.of("id", id), MAPPER).stream().findFirst().orElse(null);
+  }
+
+  /** Same as {@link #fetchDue}, restricted to rows older than the CDC grace period. */
+  public List<Message> fetchStaleDue(double graceSeconds, int limit) {
+    return jdbc.query(SELECT + """
+          and created_at <= now() - make_interval(secs => :grace_seconds)
+          order by next_attempt_at, id
+          limit :limit
+          for update skip locked
+        """, new MapSqlParameterSource().addValue("grace_seconds", graceSeconds).addValue("limit", limit), MAPPER);
+  }
+
+  public void markSent(List<Long> ids) {
+    if (ids.isEmpty())
+      return;
+    jdbc.update("""
+        update ing.outbox
+        set sent_at = now(), status = 'sent', attempts = attempts + 1, last_error = null
+        where id in (:ids)
+        """, Map.of("ids", ids));
+  }
+
+  /** Count the failed attempt and schedule the next one, or mark the row dead after the last. */
+  public void markFailed(Message m, String error) {
+    jdbc.update("""
+        update ing.outbox
+        set attempts = attempts + 1, last_error = :err,
+            status = case when attempts + 1 >= :max_attempts then 'dead' else 'pending' end,
+            next_attempt_at = now() + make_interval(secs => :backoff)
+        where id = :id
+        """, new MapSqlParameterSource()
+        .addValue("id", m.id())
+        .addValue("err", error)
+        .addValue("max_attempts", OutboxRelay.MAX_ATTEMPTS)
+        .addValue("backoff", OutboxRelay.backoff(m.attempts() + 1).toSeconds()));
+  }
+}
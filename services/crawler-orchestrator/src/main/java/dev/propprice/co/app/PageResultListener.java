@@ -1,6 +1,5 @@
 package dev.propprice.co.app;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -13,15 +12,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import dev.propprice.co.config.KafkaTopics;
+import dev.propprice.co.domain.entity.PortalPolicy;
 import dev.propprice.co.domain.enums.JobStatus;
 import dev.propprice.co.domain.enums.Segment;
 import dev.propprice.co.domain.enums.TaskType;
+import dev.propprice.co.jfr.ResultProcessedEvent;
+import dev.propprice.co.schema.EventCodec;
 import dev.propprice.co.schema.SchemaValidator;
 import dev.propprice.co.schema.Schemas;
-import dev.propprice.co.util.Hashing;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -30,14 +30,28 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class PageResultListener {
 
+  static final String LISTENER_ID = "page-results";
+  static final String GROUP_ID = "co-result-handler";
+
   private final NamedParameterJdbcTemplate jdbc;
-  private final ObjectMapper om = new ObjectMapper();
+  private final PolicyService policyService;
+  private final RetryScheduler retryScheduler;
+  private final DiscoveredLinkStage discoveredLinks;
+  private final RecrawlPlanner recrawlPlanner;
 
-  @KafkaListener(topics = KafkaTopics.RAW_PAGE, groupId = "co-result-handler", containerFactory = "coKafkaListenerFactory")
+  @KafkaListener(id = LISTENER_ID, topics = KafkaTopics.RAW_PAGE, groupId = GROUP_ID, containerFactory = "coKafkaListenerFactory",
+      clientIdPrefix = LagAutoscaler.CLIENT_ID_PREFIX + "#{@redisLeaderElector.myId}")
   @Transactional
-  public void onResult(@Header(name = "ce_id", required = false) String ceId, String value) {
+  public void onResult(@Header(name = "ce_id", required = false) String ceId,
+      @Header(name = "content-type", required = false) String contentType,
+      @Header(name = "schema", required = false) String schema,
+      byte[] value) {
+    ResultProcessedEvent jfr = new ResultProcessedEvent();
+    jfr.begin();
+    jfr.bytes = value == null ? 0 : value.length;
+    jfr.outcome = "error";
     try {
-      JsonNode evt = om.readTree(value);
+      JsonNode evt = EventCodec.decode(contentType, schema, value);
 
       SchemaValidator.validate(Schemas.RAW_PAGE_V1, evt);
 
@@ -48,8 +62,10 @@ public class PageResultListener {
 
       UUID eventId = UUID.fromString(
           (ceId != null && !ceId.isBlank()) ? ceId : evt.path("event_id").asText(UUID.randomUUID().toString()));
-      if (alreadyProcessed(eventId))
+      if (alreadyProcessed(eventId)) {
+        jfr.outcome = "duplicate";
         return;
+      }
       markProcessed(eventId, "acq.raw.page");
 
       JsonNode job = evt.path("job");
@@ -66,73 +82,82 @@ public class PageResultListener {
 
       int status = http.path("status").asInt(200);
       boolean ok = status >= 200 && status < 300;
+      jfr.portal = portal;
+      jfr.httpStatus = status;
 
-      // 1) Update job
-      jdbc.update("""
+      // 1) Update job; retryable failures go to the retry scheduler until max_attempts
+      PortalPolicy policy = policyService.getOrDefault(portal);
+      JobStatus newStatus = ok ? JobStatus.succeeded : retryable(status) ? JobStatus.retry : JobStatus.failed;
+      List<Integer> attempt = jdbc.query("""
             update ing.job
-            set status = :new_status::ing.ing_job_status,
+            set status = (case when :new_status = 'retry' and attempt >= :max_attempts then 'failed'
+                               else :new_status end)::ing.ing_job_status,
                 last_update_at = now(),
                 hints = jsonb_set(hints,'{last_status}', to_jsonb(:last_status::int), true)
-            where job_id = :job_id
-          """, new MapSqlParameterSource()
-          .addValue("job_id", jobId)
-          .addValue("new_status", ok ? JobStatus.succeeded.name() : JobStatus.retry.name())
-          .addValue("last_status", status));
+            where job_id = :job_id and %s
+            returning attempt
+          """.formatted(JobIds.PARTITION), JobIds.bind(new MapSqlParameterSource(), jobId)
+          .addValue("new_status", newStatus.name())
+          .addValue("max_attempts", policy.getMaxAttempts())
+          .addValue("last_status", status), (rs, i) -> rs.getInt(1));
+      if (newStatus == JobStatus.retry && !attempt.isEmpty() && attempt.get(0) < policy.getMaxAttempts()) {
+        retryScheduler.scheduleAfterCommit(jobId, portal, attempt.get(0));
+      }
 
-      // 2) Touch frontier (no next_run_at scheduling)
+      // 2) Touch frontier; successful fetches also feed change tracking and next eligibility
+      RecrawlPlanner.Plan plan = ok
+          ? recrawlPlanner.plan(portal, task, urlHash, textOrNull(http.path("content_hash")), policy)
+          : null;
       jdbc.update("""
             update ing.frontier f
             set last_run_at = now(),
                 last_result_status = :status,
                 last_success_at = case when :status between 200 and 299 then now() else f.last_success_at end,
                 consecutive_failures = case when :status between 200 and 299 then 0 else f.consecutive_failures + 1 end,
-                lease_until = null
+                quarantine_count = case when :status between 200 and 299 then 0 else f.quarantine_count end,
+                lease_until = null,
+                content_hash = coalesce(cast(:content_hash as char(32)), f.content_hash),
+                change_events = coalesce(cast(:change_events as double precision), f.change_events),
+                change_exposure_days = coalesce(cast(:change_exposure_days as double precision), f.change_exposure_days),
+                -- null (failures, fixed interval) falls back to last_run_at + min_days_between_runs;
+                -- keeping a past value would make a failed URL due again on the next tick
+                next_eligible_at = cast(:next_eligible_at as timestamptz)
             where f.portal=:portal and f.task_type=:task::ing.ing_task_type and f.url_hash=:h
           """, new MapSqlParameterSource()
           .addValue("portal", portal)
           .addValue("task", task.name())
           .addValue("h", urlHash)
-          .addValue("status", status));
+          .addValue("status", status)
+          .addValue("content_hash", plan == null ? null : plan.contentHash())
+          .addValue("change_events", plan == null ? null : plan.history().changes())
+          .addValue("change_exposure_days", plan == null ? null : plan.history().exposureDays())
+          .addValue("next_eligible_at", plan == null ? null : plan.nextEligibleAt()));
 
-      // 3) Upsert discovered links (from search pages). Required array; for detail
-      // it's empty.
+      // 3) Hand discovered links (search pages) to the merge stage; for detail it's empty
       if (discovered.isArray() && discovered.size() > 0) {
-        List<MapSqlParameterSource> batch = new ArrayList<>(discovered.size());
-        for (JsonNode d : discovered) {
-          String dUrl = d.path("url").asText();
-          String dHash = Hashing.md5(dUrl);
-          TaskType dTask = TaskType.valueOf(d.path("task_type").asText("detail"));
-          Segment dSeg = Segment.valueOf(d.path("segment").asText(jobSeg.name()));
-          int dPrio = d.path("priority").asInt(5);
-
-          batch.add(new MapSqlParameterSource()
-              .addValue("portal", portal)
-              .addValue("task_type", dTask.name())
-              .addValue("url", dUrl)
-              .addValue("url_hash", dHash)
-              .addValue("segment", dSeg.name())
-              .addValue("priority", dPrio)
-              .addValue("dedupe_key", null));
-        }
-
-        jdbc.batchUpdate("""
-              insert into ing.frontier (portal, task_type, url, url_hash, segment, priority,
-                                        status, dedupe_key, first_seen_at, scope, meta)
-              values (:portal, :task_type::ing.ing_task_type, :url, :url_hash,
-                      :segment::ing.ing_segment, :priority,
-                      'active'::ing.ing_frontier_status, :dedupe_key, now(), '{}'::jsonb, '{}'::jsonb)
-              on conflict (portal, task_type, url_hash) do update set
-                priority = excluded.priority,
-                status   = 'active'::ing.ing_frontier_status
-            """, batch.toArray(MapSqlParameterSource[]::new));
+        discoveredLinks.enqueue(jobId, portal, jobSeg, discovered);
+        jfr.discoveredLinks = discovered.size();
       }
+      jfr.outcome = newStatus.name();
 
     } catch (Exception e) {
-      log.warn("PageResultListener error (rolled back). value={}", value, e);
+      log.warn("PageResultListener error (rolled back). content-type={} schema={} bytes={}",
+          contentType, schema, value == null ? 0 : value.length, e);
       throw new RuntimeException(e);
+    } finally {
+      jfr.commit();
     }
   }
 
+  private static String textOrNull(JsonNode n) {
+    return n.isTextual() && !n.asText().isBlank() ? n.asText() : null;
+  }
+
+  /** Server errors, timeouts and throttling are worth another attempt; other 4xx are not. */
+  private static boolean retryable(int httpStatus) {
+    return httpStatus >= 500 || httpStatus == 408 || httpStatus == 429;
+  }
+
   private boolean alreadyProcessed(UUID eventId) {
     Integer n = jdbc.queryForObject("select count(*) from ing.event_log where event_id=:e",
         Map.of("e", eventId), Integer.class);
@@ -0,0 +1,88 @@
+package dev.propprice.co.app;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import dev.propprice.co.config.PolicyCacheProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds one connection in LISTEN co_portal_policy and reloads the policy cache
+ * whenever the trigger on ing.portal_policy / ing.portal_lane_policy fires.
+ * After a reconnect the cache is reloaded as notifications may have been missed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PolicyChangeListener implements SmartLifecycle {
+
+  static final String CHANNEL = "co_portal_policy";
+
+  private final DataSource dataSource;
+  private final PolicyService policyService;
+  private final PolicyCacheProperties config;
+
+  private volatile boolean running;
+  private Thread worker;
+
+  @Override
+  public void start() {
+    if (!config.isNotifyEnabled())
+      return;
+    running = true;
+    worker = Thread.ofPlatform().daemon().name("co-policy-listener").start(this::listenLoop);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (worker != null)
+      worker.interrupt();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void listenLoop() {
+    while (running) {
+      try (Connection con = dataSource.getConnection()) {
+        PGConnection pg = con.unwrap(PGConnection.class);
+        try (Statement st = con.createStatement()) {
+          st.execute("LISTEN " + CHANNEL);
+        }
+        if (!con.getAutoCommit())
+          con.commit();
+        log.info("Listening for policy changes on {}", CHANNEL);
+        policyService.refresh();
+
+        while (running) {
+          PGNotification[] notes = pg.getNotifications(config.getNotifyPollTimeout());
+          if (notes != null && notes.length > 0) {
+            log.info("Policy change notified for portal={}; reloading cache", notes[0].getParameter());
+            policyService.refresh();
+          }
+        }
+      } catch (Exception e) {
+        if (!running)
+          return;
+        log.warn("Policy change listener failed; reconnecting in {} ms", config.getNotifyReconnectDelay(), e);
+        try {
+          Thread.sleep(config.getNotifyReconnectDelay());
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+}
@@ -1,21 +1,106 @@
 package dev.propprice.co.app;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import dev.propprice.co.config.SchedulingConfig;
+import dev.propprice.co.domain.entity.PortalLanePolicy;
 import dev.propprice.co.domain.entity.PortalPolicy;
+import dev.propprice.co.domain.repo.PortalLanePolicyRepository;
 import dev.propprice.co.domain.repo.PortalPolicyRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Portal and lane policies served from an in-process snapshot. The snapshot is
+ * reloaded when ing.portal_policy / ing.portal_lane_policy change (see
+ * {@link PolicyChangeListener}), on the TTL safety net, and on admin request;
+ * the dispatch path itself never reads the tables.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PolicyService {
   private final PortalPolicyRepository repo;
+  private final PortalLanePolicyRepository laneRepo;
+  private final TransactionTemplate tx;
+
+  private volatile Snapshot snapshot;
 
   public PortalPolicy getOrDefault(String portal) {
-    return repo.findById(portal).orElseGet(() -> {
-      PortalPolicy p = new PortalPolicy();
-      p.setPortal(portal);
-      return p; // defaults from entity
-    });
+    PortalPolicy p = snapshot().policies().get(portal);
+    if (p != null)
+      return p;
+    PortalPolicy d = new PortalPolicy();
+    d.setPortal(portal);
+    return d; // defaults from entity
+  }
+
+  /** Portals eligible for dispatch (max_concurrency > 0). */
+  public List<String> getActivePortals() {
+    return snapshot().activePortals();
+  }
+
+  /** Configured lane weights; lanes without a row fall back to the dispatcher default. */
+  public Map<Lane, Integer> getLaneWeights(String portal) {
+    return snapshot().laneWeights().getOrDefault(portal, Map.of());
+  }
+
+  /** Reload every policy; returns the number of portals loaded. */
+  public synchronized int refresh() {
+    // read-write on purpose: repository reads are read-only transactions, which
+    // may go to the replica, and policies feed the dispatcher
+    return tx.execute(s -> load());
+  }
+
+  private int load() {
+    Map<String, PortalPolicy> policies = new HashMap<>();
+    for (PortalPolicy p : repo.findAll()) {
+      policies.put(p.getPortal(), p);
+    }
+    Map<String, Map<Lane, Integer>> lanes = new HashMap<>();
+    for (PortalLanePolicy lp : laneRepo.findAll()) {
+      lanes.computeIfAbsent(lp.getId().getPortal(), k -> new HashMap<>())
+          .put(new Lane(lp.getId().getTaskType(), lp.getId().getSegment()), lp.getWeight());
+    }
+    List<String> active = policies.values().stream()
+        .filter(p -> p.getMaxConcurrency() > 0)
+        .map(PortalPolicy::getPortal)
+        .sorted()
+        .toList();
+
+    snapshot = new Snapshot(Map.copyOf(policies), Map.copyOf(lanes), active);
+    log.debug("Policy cache loaded: {} portals ({} active)", policies.size(), active.size());
+    return policies.size();
+  }
+
+  @Scheduled(fixedDelayString = "${co.policy.cache-ttl:300000}", initialDelayString = "${co.policy.cache-ttl:300000}",
+      scheduler = SchedulingConfig.HOUSEKEEPING)
+  public void expire() {
+    try {
+      refresh();
+    } catch (Exception e) {
+      log.warn("Policy cache TTL reload failed; keeping previous snapshot", e);
+    }
+  }
+
+  private Snapshot snapshot() {
+    Snapshot s = snapshot;
+    if (s == null) {
+      refresh();
+      s = snapshot;
+    }
+    return s;
+  }
+
+  private record Snapshot(
+      Map<String, PortalPolicy> policies,
+      Map<String, Map<Lane, Integer>> laneWeights,
+      List<String> activePortals) {
   }
 }
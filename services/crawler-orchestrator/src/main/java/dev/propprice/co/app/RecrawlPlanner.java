@@ -0,0 +1,115 @@
+package dev.propprice.co.app;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import dev.propprice.co.config.RecrawlProperties;
+import dev.propprice.co.domain.entity.PortalPolicy;
+import dev.propprice.co.domain.enums.TaskType;
+import dev.propprice.co.util.ChangeRateEstimator;
+import dev.propprice.co.util.ChangeRateEstimator.History;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Turns a successful fetch's content hash into the URL's next eligibility:
+ * compares it with the stored hash, updates the decayed change history and
+ * picks the interval at which a change is {@code recrawl_change_prob} likely,
+ * bounded by the portal's recrawl_min_hours / recrawl_max_days.
+ *
+ * Budget metrics compare each interval with min_days_between_runs, the fixed
+ * interval every URL used before.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecrawlPlanner {
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final RecrawlProperties config;
+  private final MeterRegistry meters;
+
+  /**
+   * Locks the frontier row and plans its next crawl; call in the result
+   * transaction before updating the row.
+   *
+   * @return null if the row does not exist
+   */
+  public Plan plan(String portal, TaskType task, String urlHash, String contentHash, PortalPolicy policy) {
+    List<Row> rows = jdbc.query("""
+        select content_hash, change_events, change_exposure_days, last_success_at
+        from ing.frontier
+        where portal = :portal and task_type = :task::ing.ing_task_type and url_hash = :h
+        for update
+        """, new MapSqlParameterSource()
+        .addValue("portal", portal)
+        .addValue("task", task.name())
+        .addValue("h", urlHash), (rs, i) -> new Row(
+        rs.getString(1),
+        new History(rs.getDouble(2), rs.getDouble(3)),
+        rs.getObject(4, OffsetDateTime.class)));
+    if (rows.isEmpty())
+      return null;
+    Row row = rows.get(0);
+
+    if (contentHash == null || !config.isAdaptive()) // nothing to learn from: fixed interval
+      return new Plan(row.contentHash(), row.history(), null);
+
+    OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+    History history = row.history();
+    if (row.contentHash() != null && row.lastSuccessAt() != null) {
+      boolean changed = !contentHash.equals(row.contentHash());
+      double elapsedDays = Duration.between(row.lastSuccessAt(), now).toMillis() / 86_400_000.0;
+      history = ChangeRateEstimator.observe(history, changed, elapsedDays, config.getDecay());
+      Counter.builder("co.recrawl.observations")
+          .description("Successful fetches compared with the previous content hash")
+          .tag("portal", portal)
+          .tag("changed", String.valueOf(changed))
+          .register(meters)
+          .increment();
+    }
+
+    double days = intervalDays(history, policy, config);
+    record(portal, days, policy.getMinDaysBetweenRuns());
+    return new Plan(contentHash, history, now.plusSeconds(Math.round(days * 86_400)));
+  }
+
+  /** Days until the next crawl for a URL with this change history, within the portal's bounds. */
+  public static double intervalDays(History history, PortalPolicy policy, RecrawlProperties config) {
+    double p = policy.getRecrawlChangeProb().doubleValue();
+    double rate = ChangeRateEstimator.rate(history,
+        config.getPriorWeight() * ChangeRateEstimator.priorChanges(p),
+        config.getPriorWeight() * policy.getMinDaysBetweenRuns());
+    return ChangeRateEstimator.intervalDays(rate, p, policy.getRecrawlMinHours() / 24.0, policy.getRecrawlMaxDays());
+  }
+
+  private void record(String portal, double days, double baseline) {
+    DistributionSummary.builder("co.recrawl.interval.days")
+        .description("Adaptive recrawl interval chosen per successful fetch")
+        .tag("portal", portal)
+        .register(meters)
+        .record(days);
+    if (days != baseline) {
+      Counter.builder("co.recrawl.budget.days")
+          .description("Crawl-days deferred (saved) or advanced (spent) against min_days_between_runs")
+          .tag("portal", portal)
+          .tag("direction", days > baseline ? "saved" : "spent")
+          .register(meters)
+          .increment(Math.abs(days - baseline));
+    }
+  }
+
+  /** New change-tracking state; {@code nextEligibleAt} null falls back to min_days_between_runs. */
+  public record Plan(String contentHash, History history, OffsetDateTime nextEligibleAt) {
+  }
+
+  private record Row(String contentHash, History history, OffsetDateTime lastSuccessAt) {
+  }
+}
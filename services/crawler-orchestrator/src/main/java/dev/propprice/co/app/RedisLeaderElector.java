@@ -3,40 +3,76 @@ package dev.propprice.co.app;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.context.SmartLifecycle;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Redis leader lease, renewed on a background thread. {@link #isLeader()} only
+ * reads the cached term, which expires locally before the Redis key can, so a
+ * paused renewal thread makes this instance stop acting as leader on its own.
+ *
+ * Each term carries a fencing token (INCR co:leader:fence on acquisition) that
+ * is written to ing.leader_fence before the term is used; leader writes check
+ * it there, see {@link #FENCE_CHECK}.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
-public class RedisLeaderElector {
+public class RedisLeaderElector implements SmartLifecycle {
+  /** Pub/sub channel announcing a voluntary release; the payload is the releasing instance id */
+  public static final String RELEASED_CHANNEL = "co:leader:released";
+
+  /**
+   * Predicate for leader writes: true only while :fence is the current token.
+   * Locks the fence row for share, so a new term cannot start mid-transaction.
+   */
+  public static final String FENCE_CHECK = """
+      exists (select 1 from ing.leader_fence
+              where name = 'co:leader' and token = :fence
+              for share)""";
+
   private final StringRedisTemplate redis;
+  private final NamedParameterJdbcTemplate jdbc;
   private final String key = "co:leader";
+  private final String fenceKey = "co:leader:fence";
   private final String myId = UUID.randomUUID().toString();
   private final Duration ttl = Duration.ofSeconds(15);
+  /** Renew at a third of the TTL; trust a renewal for two thirds of it. */
+  private final Duration renewInterval = ttl.dividedBy(3);
+  private final Duration validFor = ttl.minus(renewInterval);
 
-  // Atomic leader election using Lua script
+  // Atomic leader election using Lua script; returns the term's fencing token, or 0
   private static final String LUA_SCRIPT = """
       local key = KEYS[1]
+      local fence_key = KEYS[2]
       local my_id = ARGV[1]
       local ttl_seconds = tonumber(ARGV[2])
 
       local current = redis.call('GET', key)
 
-      -- If no leader exists, claim leadership
+      -- If no leader exists, claim leadership with a new token
       if current == false then
+        local token = redis.call('INCR', fence_key)
         redis.call('SET', key, my_id, 'EX', ttl_seconds)
-        return 1
+        return token
       end
 
-      -- If we are the current leader, refresh TTL
+      -- If we are the current leader, refresh TTL; nobody else can have bumped the token
       if current == my_id then
         redis.call('EXPIRE', key, ttl_seconds)
-        return 1
+        return tonumber(redis.call('GET', fence_key))
       end
 
       -- Someone else is leader
@@ -45,27 +81,133 @@ public class RedisLeaderElector {
 
   private final DefaultRedisScript<Long> script = new DefaultRedisScript<>(LUA_SCRIPT, Long.class);
 
-  /**
-   * Returns true iff this instance is (or becomes) the leader; also refreshes TTL
-   * atomically.
-   */
+  // Delete the key only if we still hold it, and announce the release
+  private static final String RELEASE_SCRIPT = """
+      if redis.call('GET', KEYS[1]) == ARGV[1] then
+        redis.call('DEL', KEYS[1])
+        redis.call('PUBLISH', ARGV[2], ARGV[1])
+        return 1
+      end
+      return 0
+      """;
+
+  private final DefaultRedisScript<Long> releaseScript = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+
+  private volatile boolean steppedDown;
+  private volatile Term term;
+  private ScheduledExecutorService renewer;
+
+  @Override
+  public void start() {
+    renewer = Executors.newSingleThreadScheduledExecutor(r -> Thread.ofPlatform().daemon()
+        .name("co-leader-renewal").unstarted(r));
+    renewer.scheduleWithFixedDelay(this::renewQuietly, 0, renewInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    if (renewer != null)
+      renewer.shutdownNow();
+    renewer = null;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return renewer != null;
+  }
+
+  /** Cached: true while this instance holds an unexpired term. No Redis call. */
   public boolean isLeader() {
-    List<String> keys = Arrays.asList(key);
-    Long result = redis.execute(script, keys, myId, String.valueOf(ttl.getSeconds()));
-    return result != null && result == 1L;
+    return fencingToken() != 0;
+  }
+
+  /** Fencing token of the current term, or 0 when not leader. */
+  public long fencingToken() {
+    Term t = term;
+    return !steppedDown && t != null && System.nanoTime() < t.validUntil() ? t.token() : 0;
   }
 
   /**
-   * Voluntarily release leadership (for graceful shutdown)
+   * Acquire or refresh the lease now. Runs on the renewal thread and from the
+   * handoff listener; synchronized so a new token is fenced exactly once.
    */
-  public void releaseLeadership() {
-    String current = redis.opsForValue().get(key);
-    if (myId.equals(current)) {
-      redis.delete(key);
+  public synchronized boolean renew() {
+    if (steppedDown)
+      return false;
+    long started = System.nanoTime();
+    List<String> keys = Arrays.asList(key, fenceKey);
+    Long token = redis.execute(script, keys, myId, String.valueOf(ttl.getSeconds()));
+    if (token == null || token == 0L) {
+      if (term != null)
+        log.info("Lost leadership (term {})", term.token());
+      term = null;
+      return false;
+    }
+
+    Term t = term;
+    if (t == null || t.token() != token) {
+      advanceFence(token);
+      log.info("Acquired leadership, term {}", token);
+    }
+    term = new Term(token, started + validFor.toNanos());
+    return true;
+  }
+
+  private void renewQuietly() {
+    try {
+      renew();
+    } catch (Exception e) {
+      log.warn("Leader lease renewal failed", e);
     }
   }
 
+  /** Waits for any write of the previous term still holding the fence row. */
+  private void advanceFence(long token) {
+    int updated = jdbc.update("""
+        update ing.leader_fence
+        set token = :token, holder = :holder, acquired_at = now()
+        where name = :name and token < :token
+        """, Map.of("name", key, "token", token, "holder", myId));
+    if (updated != 1) {
+      // Redis counter behind the database (e.g. Redis was flushed): catch it up and
+      // give the key back so the next acquisition draws a newer token
+      Long current = jdbc.queryForObject("select token from ing.leader_fence where name = :name",
+          Map.of("name", key), Long.class);
+      redis.opsForValue().set(fenceKey, String.valueOf(current));
+      redis.execute(releaseScript, Arrays.asList(key), myId, RELEASED_CHANNEL);
+      throw new IllegalStateException("Fencing token " + token + " is not newer than ing.leader_fence (" + current + ")");
+    }
+  }
+
+  /**
+   * Stop acting as leader without giving up the key, so leader-only work winds
+   * down while no other instance can start yet. Permanent for this instance.
+   */
+  public void stepDown() {
+    steppedDown = true;
+  }
+
+  public boolean isSteppedDown() {
+    return steppedDown;
+  }
+
+  /**
+   * Voluntarily release leadership (for graceful shutdown) and publish the
+   * release on {@link #RELEASED_CHANNEL} so standbys take over immediately.
+   *
+   * @return true if this instance held the key
+   */
+  public boolean releaseLeadership() {
+    stepDown();
+    term = null;
+    Long released = redis.execute(releaseScript, Arrays.asList(key), myId, RELEASED_CHANNEL);
+    return released != null && released == 1L;
+  }
+
   public String getMyId() {
     return myId;
   }
-}
\ No newline at end of file
+
+  record Term(long token, long validUntil) {
+  }
+}
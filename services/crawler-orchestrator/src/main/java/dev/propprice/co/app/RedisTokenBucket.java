@@ -8,12 +8,15 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
+import dev.propprice.co.jfr.TokenBucketEvent;
 import lombok.RequiredArgsConstructor;
 
 /**
  * Simple token-bucket (tokens/sec, burst=capacity). Returns true if one token
  * was consumed.
  * Keys used: "tb:{key}:tokens", "tb:{key}:ts"
+ * {@link dev.propprice.co.util.TokenBucket} is the same arithmetic in Java
+ * (used by the dispatch simulator); keep the two in step.
  */
 @Component
 @RequiredArgsConstructor
@@ -52,11 +55,25 @@ public class RedisTokenBucket {
   private final DefaultRedisScript<Long> script = new DefaultRedisScript<>(LUA, Long.class);
 
   public boolean allow(String key, double tokensPerSec, int capacity) {
-    long now = Instant.now().toEpochMilli();
+    return allow(key, tokensPerSec, capacity, Instant.now().toEpochMilli());
+  }
+
+  boolean allow(String key, double tokensPerSec, int capacity, long now) {
     String tk = "tb:" + key + ":tokens";
     String ts = "tb:" + key + ":ts";
     List<String> keys = Arrays.asList(tk, ts);
+    TokenBucketEvent evt = new TokenBucketEvent();
+    evt.begin();
     Long ok = redis.execute(script, keys, String.valueOf(tokensPerSec), String.valueOf(capacity), String.valueOf(now));
-    return ok != null && ok == 1L;
+    boolean allowed = ok != null && ok == 1L;
+    evt.end();
+    if (evt.shouldCommit()) {
+      evt.key = key;
+      evt.rate = tokensPerSec;
+      evt.capacity = capacity;
+      evt.allowed = allowed;
+      evt.commit();
+    }
+    return allowed;
   }
 }
@@ -0,0 +1,247 @@
+package dev.propprice.co.app;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.propprice.co.config.DispatcherProperties;
+import dev.propprice.co.config.RetryProperties;
+import dev.propprice.co.config.SchedulingConfig;
+import dev.propprice.co.domain.entity.PortalPolicy;
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
+import dev.propprice.co.util.HierarchicalTimingWheel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Re-dispatches jobs in {@code retry} after the portal's backoff_sec, with
+ * attempt+1. Pending retries live in an in-memory timing wheel that is rebuilt
+ * from ing.job on startup, so no table is polled while waiting.
+ *
+ * Every instance schedules the retries it observed; the re-dispatch update is
+ * guarded on (status, attempt), so the same job is never re-dispatched twice.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetryScheduler {
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final PolicyService policyService;
+  private final CapacityGate capacityGate;
+  private final JobDispatchOutbox dispatchOutbox;
+  private final DispatcherProperties dispatcherConfig;
+  private final RetryProperties config;
+
+  private HierarchicalTimingWheel<PendingRetry> wheel;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    // open the wheel first so retries committed while loading are not lost (duplicates are harmless)
+    synchronized (this) {
+      wheel = new HierarchicalTimingWheel<>(config.getTickInterval(), config.getWheelSize(),
+          System.currentTimeMillis());
+    }
+    List<PendingRetry> pending = jdbc.query("""
+        select job_id, portal, attempt, last_update_at
+        from ing.job
+        where status = 'retry'::ing.ing_job_status
+        """, Map.of(), (rs, i) -> new PendingRetry(
+        rs.getObject(1, UUID.class),
+        rs.getString(2),
+        rs.getInt(3),
+        rs.getTimestamp(4).toInstant()));
+
+    for (PendingRetry r : pending) {
+      schedule(r.jobId(), r.portal(), r.attempt(), r.failedAt());
+    }
+    log.info("Retry scheduler rebuilt with {} pending retries", pending.size());
+  }
+
+  /**
+   * Schedule a job that just moved to {@code retry}; jobs that used up
+   * max_attempts are marked failed instead.
+   */
+  public void schedule(UUID jobId, String portal, int attempt, Instant failedAt) {
+    PortalPolicy policy = policyService.getOrDefault(portal);
+    if (attempt >= policy.getMaxAttempts()) {
+      markFailed(jobId, attempt);
+      return;
+    }
+    long due = failedAt.toEpochMilli() + backoffMillis(policy, attempt);
+    synchronized (this) {
+      if (wheel != null) {
+        wheel.schedule(new PendingRetry(jobId, portal, attempt, failedAt), due);
+      }
+    }
+  }
+
+  /** Like {@link #schedule}, but only once the surrounding transaction has committed. */
+  public void scheduleAfterCommit(UUID jobId, String portal, int attempt) {
+    Instant failedAt = Instant.now();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      schedule(jobId, portal, attempt, failedAt);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        schedule(jobId, portal, attempt, failedAt);
+      }
+    });
+  }
+
+  @Scheduled(fixedDelayString = "${co.retry.tick-interval:1000}", scheduler = SchedulingConfig.DISPATCH)
+  public void tick() {
+    if (!config.isEnabled() || !dispatcherConfig.isEnabled())
+      return;
+
+    List<PendingRetry> due;
+    synchronized (this) {
+      if (wheel == null)
+        return;
+      due = wheel.advance(System.currentTimeMillis());
+    }
+    if (due.isEmpty())
+      return;
+
+    Map<String, List<PendingRetry>> byPortal = new LinkedHashMap<>();
+    for (PendingRetry r : due) {
+      byPortal.computeIfAbsent(r.portal(), p -> new ArrayList<>()).add(r);
+    }
+    byPortal.forEach(this::redispatchForPortal);
+  }
+
+  private void redispatchForPortal(String portal, List<PendingRetry> due) {
+    PortalPolicy policy = policyService.getOrDefault(portal);
+    int capacity;
+    try {
+      capacity = capacityGate.available(portal, policy);
+    } catch (Exception e) {
+      log.warn("Retry capacity check failed for portal={}", portal, e);
+      capacity = 0;
+    }
+
+    for (PendingRetry r : due) {
+      if (capacity <= 0 || !capacityGate.tryAcquireToken(portal, policy)) {
+        defer(r);
+        continue;
+      }
+      try {
+        if (Boolean.TRUE.equals(tx.execute(s -> redispatch(r)))) {
+          capacity--;
+        }
+      } catch (Exception e) {
+        log.warn("Retry re-dispatch failed for job={} portal={}", r.jobId(), portal, e);
+        defer(r);
+      }
+    }
+  }
+
+  /** @return true if a new attempt was dispatched */
+  private boolean redispatch(PendingRetry r) {
+    var params = JobIds.bind(new MapSqlParameterSource(), r.jobId())
+        .addValue("attempt", r.attempt())
+        .addValue("portal", r.portal())
+        .addValue("lease_minutes", dispatcherConfig.getLeaseDurationMinutes());
+
+    List<FrontierDispatcher.Claimed> job = jdbc.query("""
+        select task_type::text, segment::text, url_hash, url
+        from ing.job
+        where job_id = :job_id
+          and %s
+          and status = 'retry'::ing.ing_job_status
+          and attempt = :attempt
+        for update skip locked
+        """.formatted(JobIds.PARTITION), params, (rs, i) -> new FrontierDispatcher.Claimed(
+        TaskType.valueOf(rs.getString(1)),
+        Segment.valueOf(rs.getString(2)),
+        rs.getString(3),
+        rs.getString(4)));
+    if (job.isEmpty())
+      return false; // already handled elsewhere
+
+    FrontierDispatcher.Claimed c = job.get(0);
+    params.addValue("task_type", c.taskType().name())
+        .addValue("url_hash", c.urlHash());
+
+    int leased = jdbc.update("""
+        update ing.frontier
+        set lease_until = now() + (interval '1 minute' * :lease_minutes),
+            last_dispatched_at = now()
+        where portal = :portal
+          and task_type = :task_type::ing.ing_task_type
+          and url_hash = :url_hash
+          and status = 'active'::ing.ing_frontier_status
+          and (lease_until is null or lease_until <= now())
+        """, params);
+
+    if (leased == 0) {
+      // URL is in flight through a fresh dispatch or no longer active: nothing left to retry
+      jdbc.update("""
+          update ing.job
+          set status = 'failed'::ing.ing_job_status,
+              last_update_at = now()
+          where job_id = :job_id and %s
+          """.formatted(JobIds.PARTITION), params);
+      return false;
+    }
+
+    jdbc.update("""
+        update ing.job
+        set status = 'dispatched'::ing.ing_job_status,
+            attempt = attempt + 1,
+            last_update_at = now()
+        where job_id = :job_id and %s
+        """.formatted(JobIds.PARTITION), params);
+    dispatchOutbox.enqueue(r.jobId(), r.portal(), c, r.attempt() + 1);
+    log.info("Re-dispatched job={} portal={} attempt={}", r.jobId(), r.portal(), r.attempt() + 1);
+    return true;
+  }
+
+  private void markFailed(UUID jobId, int attempt) {
+    int n = jdbc.update("""
+        update ing.job
+        set status = 'failed'::ing.ing_job_status,
+            last_update_at = now()
+        where job_id = :job_id
+          and %s
+          and status = 'retry'::ing.ing_job_status
+        """.formatted(JobIds.PARTITION), JobIds.bind(new MapSqlParameterSource(), jobId));
+    if (n > 0)
+      log.info("Job={} failed permanently after {} attempts", jobId, attempt);
+  }
+
+  private void defer(PendingRetry r) {
+    synchronized (this) {
+      wheel.schedule(r, System.currentTimeMillis() + config.getDeferDelay());
+    }
+  }
+
+  /** Delay before re-dispatching a job whose attempt {@code attempt} failed. */
+  public static long backoffMillis(PortalPolicy policy, int attempt) {
+    Integer[] backoff = policy.getBackoffSec();
+    if (backoff == null || backoff.length == 0)
+      return 0;
+    int idx = Math.min(Math.max(attempt, 1), backoff.length) - 1;
+    return backoff[idx] * 1000L;
+  }
+
+  record PendingRetry(UUID jobId, String portal, int attempt, Instant failedAt) {
+  }
+}
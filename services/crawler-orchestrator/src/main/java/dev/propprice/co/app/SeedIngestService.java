@@ -0,0 +1,511 @@
+package dev.propprice.co.app;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.propprice.co.api.dto.SeedFileView;
+import dev.propprice.co.api.dto.SeedRunView;
+import dev.propprice.co.api.dto.SeedStartRequest;
+import dev.propprice.co.app.FrontierService.Candidate;
+import dev.propprice.co.config.SchedulingConfig;
+import dev.propprice.co.config.SeedIngestProperties;
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
+import dev.propprice.co.util.SeedFileReader;
+import dev.propprice.co.util.SeedFileReader.Entry;
+import dev.propprice.co.util.SeedFileReader.Format;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bulk frontier seeding from local files (see V15). Each run streams its files
+ * in order through {@link SeedFileReader}, canonicalizes and hashes the URLs,
+ * and merges them with {@link FrontierService#merge} in batches; every batch
+ * commits together with the file's progress, so a resumed run skips exactly
+ * the records already merged. Child sitemaps of an index are looked up by file
+ * name next to the index and appended to the run. Runs execute on the instance
+ * that started or resumed them, which heartbeats them on a timer; progress and
+ * status writes only apply while this instance is still the run's owner, and a
+ * worker that finds it was taken over stops without writing anything more.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeedIngestService implements DisposableBean {
+
+  private final NamedParameterJdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final FrontierService frontier;
+  private final RedisLeaderElector instance;
+  private final SeedIngestProperties config;
+  private final MeterRegistry meters;
+
+  /** Runs executing on this instance; the flag asks the worker to pause. */
+  private final Map<UUID, Run> local = new ConcurrentHashMap<>();
+
+  /** Records between pause / ownership checks while skipping to a checkpoint */
+  private static final long SKIP_CHECK_EVERY = 10_000;
+
+  /**
+   * @throws IllegalArgumentException for a missing portal, a priority outside
+   *                                  1..9 or an unreadable, unknown or
+   *                                  out-of-directory file
+   */
+  public SeedRunView start(SeedStartRequest req) {
+    if (req.getPortal() == null || req.getPortal().isBlank() || req.getFiles() == null || req.getFiles().isEmpty())
+      throw new IllegalArgumentException("portal and files are required");
+    int priority = req.getPriority() != null ? req.getPriority() : 5;
+    if (!validPriority(priority))
+      throw new IllegalArgumentException("priority must be between 1 and 9");
+    List<String> files = new ArrayList<>();
+    for (String f : req.getFiles()) {
+      Path p = resolve(f).orElseThrow(() -> new IllegalArgumentException("Not a file under co.seed.directory: " + f));
+      if (!Files.isReadable(p))
+        throw new IllegalArgumentException("Not readable: " + f);
+      Format.of(p.getFileName().toString());
+      String rel = base().relativize(p).toString();
+      if (!files.contains(rel))
+        files.add(rel);
+    }
+
+    UUID id = UUID.randomUUID();
+    tx.executeWithoutResult(s -> {
+      jdbc.update("""
+          insert into ing.seed_run(run_id, portal, task_type, segment, priority, status, owner, heartbeat_at)
+          values (:id, :portal, :task_type::ing.ing_task_type, :segment::ing.ing_segment, :priority,
+                  'running', :owner, now())
+          """, new MapSqlParameterSource()
+          .addValue("id", id)
+          .addValue("portal", req.getPortal())
+          .addValue("task_type", (req.getTask_type() != null ? req.getTask_type() : TaskType.detail).name())
+          .addValue("segment", (req.getSegment() != null ? req.getSegment() : Segment.unknown).name())
+          .addValue("priority", priority)
+          .addValue("owner", instance.getMyId()));
+      for (String f : files) {
+        addFile(id, f);
+      }
+    });
+    log.info("Starting seed run {} for {} with {} files", id, req.getPortal(), files.size());
+    launch(id);
+    return get(id).orElseThrow();
+  }
+
+  /**
+   * Continue a paused or failed run (failed files are retried from their
+   * checkpoint), or take over a running one whose owner stopped heartbeating.
+   *
+   * @throws IllegalStateException if the run is live elsewhere or already completed
+   */
+  public Optional<SeedRunView> resume(UUID id) {
+    if (get(id).isEmpty())
+      return Optional.empty();
+    Integer claimed = tx.execute(s -> {
+      int n = jdbc.update("""
+          update ing.seed_run
+          set status = 'running', owner = :owner, heartbeat_at = now(), last_error = null, updated_at = now()
+          where run_id = :id
+            and (status in ('paused', 'failed')
+                 or (status = 'running' and heartbeat_at < now() - interval '1 millisecond' * :timeout))
+          """, new MapSqlParameterSource()
+          .addValue("id", id)
+          .addValue("owner", instance.getMyId())
+          .addValue("timeout", config.getHeartbeatTimeout()));
+      if (n > 0)
+        jdbc.update("update ing.seed_file set status = 'pending', error = null where run_id = :id and status = 'failed'",
+            Map.of("id", id));
+      return n;
+    });
+    if (claimed == null || claimed == 0)
+      throw new IllegalStateException("Seed run " + id + " is completed or still running elsewhere");
+    launch(id);
+    return get(id);
+  }
+
+  /**
+   * Ask a run to stop after its current batch. A run whose owner is gone is
+   * marked paused directly.
+   *
+   * @throws IllegalStateException if the run is live on another instance
+   */
+  public Optional<SeedRunView> pause(UUID id) {
+    Run run = local.get(id);
+    if (run != null) {
+      run.pause = true;
+      return get(id);
+    }
+    if (get(id).isEmpty())
+      return Optional.empty();
+    int n = jdbc.update("""
+        update ing.seed_run set status = 'paused', updated_at = now()
+        where run_id = :id
+          and (status = 'failed'
+               or (status = 'running' and heartbeat_at < now() - interval '1 millisecond' * :timeout))
+        """, new MapSqlParameterSource().addValue("id", id).addValue("timeout", config.getHeartbeatTimeout()));
+    SeedRunView v = get(id).orElseThrow();
+    if (n == 0 && "running".equals(v.getStatus()))
+      throw new IllegalStateException("Seed run " + id + " is running on " + v.getOwner());
+    return Optional.of(v);
+  }
+
+  public Optional<SeedRunView> get(UUID id) {
+    Optional<SeedRunView> run = jdbc.query(SELECT.formatted("where r.run_id = :id"), Map.of("id", id), viewMapper())
+        .stream().findFirst();
+    run.ifPresent(v -> v.setFiles(jdbc.query("""
+        select path, format, status, records_done, merged, invalid, bytes_read, bytes_total, error,
+               started_at, finished_at
+        from ing.seed_file where run_id = :id order by ordinal
+        """, Map.of("id", id), (rs, i) -> new SeedFileView(rs.getString(1), rs.getString(2), rs.getString(3),
+        rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getObject(8, Long.class), rs.getString(9),
+        rs.getObject(10, OffsetDateTime.class), rs.getObject(11, OffsetDateTime.class)))));
+    return run;
+  }
+
+  public List<SeedRunView> list(int limit) {
+    return jdbc.query(SELECT.formatted("") + " order by r.created_at desc limit :lim",
+        Map.of("lim", Math.max(1, Math.min(limit, 200))), viewMapper());
+  }
+
+  /** Keeps local runs alive independent of batch progress (the resume skip can take a while). */
+  @Scheduled(fixedDelayString = "#{@seedIngestProperties.heartbeatInterval}", scheduler = SchedulingConfig.HOUSEKEEPING)
+  public void heartbeat() {
+    for (Map.Entry<UUID, Run> r : local.entrySet()) {
+      try {
+        if (!touch(r.getKey()))
+          lost(r.getKey(), r.getValue());
+      } catch (Exception e) {
+        log.warn("Heartbeat of seed run {} failed", r.getKey(), e);
+      }
+    }
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    local.values().forEach(r -> r.pause = true);
+    for (Run r : local.values()) {
+      r.thread.join(10_000);
+    }
+  }
+
+  private void launch(UUID id) {
+    Run run = new Run();
+    run.thread = Thread.ofPlatform().daemon().name("co-seed-" + id).unstarted(() -> {
+      try {
+        ingest(id, run);
+      } catch (LostOwnership e) {
+        log.warn("Seed run {} was taken over by another instance; stopping here", id);
+      } finally {
+        local.remove(id);
+      }
+    });
+    local.put(id, run);
+    run.thread.start();
+  }
+
+  private void ingest(UUID id, Run run) {
+    try {
+      Map<String, Object> row = jdbc.queryForMap("""
+          select portal, task_type::text, segment::text, priority from ing.seed_run where run_id = :id
+          """, Map.of("id", id));
+      Defaults defaults = new Defaults((String) row.get("portal"), (String) row.get("task_type"),
+          (String) row.get("segment"), ((Number) row.get("priority")).intValue());
+
+      while (true) {
+        if (run.lost)
+          throw new LostOwnership();
+        if (run.pause) {
+          finish(id, "paused", null);
+          log.info("Seed run {} paused", id);
+          return;
+        }
+        List<Map<String, Object>> next = jdbc.queryForList("""
+            select ordinal, path, format, records_done from ing.seed_file
+            where run_id = :id and status in ('pending', 'running')
+            order by ordinal limit 1
+            """, Map.of("id", id));
+        if (next.isEmpty())
+          break;
+        Map<String, Object> f = next.get(0);
+        int ordinal = ((Number) f.get("ordinal")).intValue();
+        String path = (String) f.get("path");
+        Optional<Path> file = resolve(path).filter(Files::isReadable);
+        if (file.isEmpty()) {
+          fileStatus(id, ordinal, "missing", "Not found under co.seed.directory");
+          continue;
+        }
+        jdbc.update("""
+            update ing.seed_file set status = 'running', started_at = coalesce(started_at, now())
+            where run_id = :id and ordinal = :ordinal
+            """, Map.of("id", id, "ordinal", ordinal));
+        try {
+          if (ingestFile(id, run, defaults, ordinal, file.get(), Format.valueOf((String) f.get("format")),
+              ((Number) f.get("records_done")).longValue()))
+            fileStatus(id, ordinal, "done", null);
+        } catch (IOException e) {
+          log.warn("Seed file {} of run {} failed: {}", path, id, e.getMessage());
+          fileStatus(id, ordinal, "failed", String.valueOf(e.getMessage()));
+        }
+      }
+      finish(id, "completed", null);
+      log.info("Seed run {} completed", id);
+    } catch (LostOwnership e) {
+      throw e;
+    } catch (Exception e) {
+      log.error("Seed run {} failed; resume continues from the last checkpoint", id, e);
+      finish(id, "failed", String.valueOf(e));
+    }
+  }
+
+  /** @return true at the end of the file, false when paused */
+  private boolean ingestFile(UUID id, Run run, Defaults defaults, int ordinal, Path path, Format format,
+      long done) throws IOException {
+    Counter merged = counter("merged");
+    Counter invalid = counter("invalid");
+    try (SeedFileReader reader = SeedFileReader.open(path, format)) {
+      for (long i = 0; i < done; i++) {
+        if (i % SKIP_CHECK_EVERY == 0) {
+          if (run.lost)
+            throw new LostOwnership();
+          if (run.pause)
+            return false;
+        }
+        if (reader.next() == null)
+          return true;
+      }
+      int batchSize = Math.max(1, config.getBatchSize());
+      while (true) {
+        if (run.lost)
+          throw new LostOwnership();
+        if (run.pause)
+          return false;
+        Map<String, Candidate> batch = new LinkedHashMap<>();
+        List<String> children = new ArrayList<>();
+        long records = 0;
+        long bad = 0;
+        Entry e = null;
+        while (batch.size() < batchSize && (e = reader.next()) != null) {
+          records++;
+          if (e.sitemap()) {
+            children.add(child(path, e.url()));
+            continue;
+          }
+          Candidate c = candidate(defaults, e);
+          if (c == null)
+            bad++;
+          else
+            batch.put(c.taskType() + "|" + c.urlHash(), c); // merge cannot touch a row twice
+        }
+        if (records == 0)
+          return true;
+
+        long bytes = reader.bytesRead();
+        long n = records;
+        long invalidCount = bad;
+        Integer changed = tx.execute(s -> {
+          int written = batch.isEmpty() ? 0 : frontier.merge(new ArrayList<>(batch.values()));
+          for (String child : children) {
+            if (child == null)
+              continue;
+            addFile(id, child);
+          }
+          // ownership first: a taken-over run rolls the whole batch back, the new owner redoes it
+          if (!touch(id))
+            throw new LostOwnership();
+          jdbc.update("""
+              update ing.seed_file
+              set records_done = records_done + :records, merged = merged + :merged,
+                  invalid = invalid + :invalid, bytes_read = greatest(bytes_read, :bytes)
+              where run_id = :id and ordinal = :ordinal
+              """, new MapSqlParameterSource()
+              .addValue("id", id)
+              .addValue("ordinal", ordinal)
+              .addValue("records", n)
+              .addValue("merged", written)
+              .addValue("invalid", invalidCount + children.stream().filter(c -> c == null).count())
+              .addValue("bytes", bytes));
+          return written;
+        });
+        merged.increment(changed == null ? 0 : changed);
+        invalid.increment(bad);
+        if (e == null)
+          return true;
+      }
+    }
+  }
+
+  private static Candidate candidate(Defaults d, Entry e) {
+    try {
+      String taskType = e.taskType() != null ? TaskType.valueOf(e.taskType()).name() : d.taskType();
+      String segment = e.segment() != null ? Segment.valueOf(e.segment()).name() : d.segment();
+      int priority = e.priority() != null ? e.priority() : d.priority();
+      // out of range would fail chk_frontier_priority_range and with it the whole batch, on every resume
+      if (!validPriority(priority))
+        return null;
+      return Candidate.of(d.portal(), taskType, e.url(), segment, priority);
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
+  }
+
+  private static boolean validPriority(int priority) {
+    return priority >= 1 && priority <= 9;
+  }
+
+  /**
+   * Local file for a child sitemap: a URL maps to its file name next to the
+   * index, anything else is a path relative to the index's directory.
+   *
+   * @return the path relative to co.seed.directory, or null if it cannot be used
+   */
+  private String child(Path index, String loc) {
+    try {
+      String name = loc;
+      if (loc.regionMatches(true, 0, "http", 0, 4)) {
+        String p = URI.create(loc).getPath();
+        name = p == null ? "" : p.substring(p.lastIndexOf('/') + 1);
+      }
+      if (name.isBlank())
+        return null;
+      Path p = index.getParent().resolve(name).normalize();
+      if (!p.startsWith(base()))
+        return null;
+      Format.of(p.getFileName().toString());
+      return base().relativize(p).toString();
+    } catch (IllegalArgumentException | InvalidPathException e) {
+      return null;
+    }
+  }
+
+  private void addFile(UUID id, String path) {
+    jdbc.update("""
+        insert into ing.seed_file(run_id, ordinal, path, format, status, bytes_total)
+        select :id, coalesce(max(ordinal), -1) + 1, :path, :format, 'pending', :bytes_total
+        from ing.seed_file where run_id = :id
+        on conflict (run_id, path) do nothing
+        """, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("path", path)
+        .addValue("format", Format.of(Path.of(path).getFileName().toString()).name())
+        .addValue("bytes_total", resolve(path).map(SeedIngestService::size).orElse(null)));
+  }
+
+  private void fileStatus(UUID id, int ordinal, String status, String error) {
+    jdbc.update("""
+        update ing.seed_file set status = :status, error = :error, finished_at = now()
+        where run_id = :id and ordinal = :ordinal
+        """, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("ordinal", ordinal)
+        .addValue("status", status)
+        .addValue("error", error != null && error.length() > 2000 ? error.substring(0, 2000) : error));
+  }
+
+  private void finish(UUID id, String status, String error) {
+    jdbc.update("""
+        update ing.seed_run
+        set status = :status, last_error = :error, heartbeat_at = now(), updated_at = now()
+        where run_id = :id and owner = :owner
+        """, new MapSqlParameterSource()
+        .addValue("id", id)
+        .addValue("owner", instance.getMyId())
+        .addValue("status", status)
+        .addValue("error", error));
+  }
+
+  /** @return false if the run is no longer running on this instance */
+  private boolean touch(UUID id) {
+    return jdbc.update("""
+        update ing.seed_run set heartbeat_at = now(), updated_at = now()
+        where run_id = :id and owner = :owner and status = 'running'
+        """, new MapSqlParameterSource().addValue("id", id).addValue("owner", instance.getMyId())) > 0;
+  }
+
+  private void lost(UUID id, Run run) {
+    if (!run.lost)
+      log.warn("Seed run {} is no longer owned by this instance", id);
+    run.lost = true;
+  }
+
+  private Path base() {
+    return Path.of(config.getDirectory()).toAbsolutePath().normalize();
+  }
+
+  /** A regular file under co.seed.directory, or empty. */
+  private Optional<Path> resolve(String relative) {
+    try {
+      Path p = base().resolve(relative).normalize();
+      return p.startsWith(base()) && Files.isRegularFile(p) ? Optional.of(p) : Optional.empty();
+    } catch (InvalidPathException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static Long size(Path p) {
+    try {
+      return Files.size(p);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private Counter counter(String outcome) {
+    return Counter.builder("co.seed.urls")
+        .description("Seed URLs by outcome: frontier rows written or rejected as invalid")
+        .tag("outcome", outcome)
+        .register(meters);
+  }
+
+  private static final String SELECT = """
+      select r.run_id, r.portal, r.task_type::text, r.segment::text, r.priority, r.status,
+             count(f.ordinal), count(f.ordinal) filter (where f.status in ('done', 'missing', 'failed')),
+             coalesce(sum(f.records_done), 0), coalesce(sum(f.merged), 0), coalesce(sum(f.invalid), 0),
+             r.owner, r.last_error, r.created_at, r.updated_at
+      from ing.seed_run r
+      left join ing.seed_file f on f.run_id = r.run_id
+      %s
+      group by r.run_id
+      """;
+
+  private static RowMapper<SeedRunView> viewMapper() {
+    return (rs, i) -> new SeedRunView(rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3),
+        rs.getString(4), rs.getInt(5), rs.getString(6), rs.getInt(7), rs.getInt(8), rs.getLong(9), rs.getLong(10),
+        rs.getLong(11), rs.getString(12), rs.getString(13), rs.getObject(14, OffsetDateTime.class),
+        rs.getObject(15, OffsetDateTime.class), null);
+  }
+
+  private record Defaults(String portal, String taskType, String segment, int priority) {
+  }
+
+  private static final class Run {
+    volatile boolean pause;
+    /** another instance took the run over; write nothing more */
+    volatile boolean lost;
+    Thread thread;
+  }
+
+  private static final class LostOwnership extends RuntimeException {
+    LostOwnership() {
+      super(null, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,277 @@
+package dev.propprice.co.app;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dev.propprice.co.config.KafkaTopics;
+import dev.propprice.co.config.OutboxRelayProperties;
+import dev.propprice.co.config.SchedulingConfig;
+import dev.propprice.co.jfr.OutboxPublishEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exactly-once outbox relay ({@code co.outbox.relay.mode=transactional}).
+ *
+ * Each drained batch is published in one Kafka transaction with an idempotent,
+ * compressed producer, together with a marker record listing the batch's
+ * outbox ids on {@link KafkaTopics#OUTBOX_RELAY_STATE}. Rows are marked sent
+ * right after the commit. If the process dies between the Kafka commit and the
+ * database commit, the next leader reads the last committed marker before its
+ * first drain (outside the drain transaction) and marks those rows sent
+ * instead of publishing them again. An aborted batch is retried row by row,
+ * each row in its own database transaction, so at most the rows of that one
+ * marker are ever committed to Kafka without being marked sent.
+ *
+ * Runs on the leader only. All instances share one transactional.id, so a new
+ * leader fences any producer left behind by the previous one. Consumers must
+ * read with {@code isolation.level=read_committed}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionalOutboxRelay implements DisposableBean {
+
+  private static final String STATE_KEY = "outbox";
+  private static final long RECOVERY_TIMEOUT_MS = 60_000;
+
+  private final OutboxStore store;
+  private final NamedParameterJdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final KafkaProperties kafkaProperties;
+  private final SslBundles sslBundles;
+  private final OutboxRelayProperties config;
+  private final RedisLeaderElector leader;
+
+  private DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+  private KafkaTemplate<String, byte[]> kafka;
+  private volatile boolean recovered;
+  /** Ids committed to Kafka whose sent_at update has not been committed yet */
+  private final List<Long> unconfirmed = new ArrayList<>();
+
+  @Scheduled(fixedDelay = 500, scheduler = SchedulingConfig.RELAY)
+  public void drain() {
+    if (config.getMode() != OutboxRelayProperties.Mode.transactional)
+      return;
+    if (!leader.isLeader()) {
+      recovered = false;
+      return;
+    }
+    if (!recovered) {
+      // once per leadership term, before the first batch and outside its transaction
+      try {
+        recoverLastBatch();
+        recovered = true;
+      } catch (Exception e) {
+        log.warn("Outbox relay recovery failed; not publishing until it succeeds", e);
+        return;
+      }
+    }
+    List<Long> isolate = tx.execute(s -> drainBatch());
+    if (isolate == null || isolate.isEmpty())
+      return;
+    // one Kafka and one database transaction per row, so the last marker always
+    // covers everything committed to Kafka but not yet marked sent
+    for (long id : isolate) {
+      tx.executeWithoutResult(s -> relayOne(id));
+    }
+  }
+
+  /** @return ids of an aborted batch, to retry row by row after this transaction */
+  private List<Long> drainBatch() {
+    confirmOnCommit();
+
+    List<OutboxStore.Message> batch = store.fetchDue(config.getBatchSize());
+    if (batch.isEmpty())
+      return List.of();
+
+    try {
+      publish(batch);
+      unconfirmed.addAll(ids(batch));
+      store.markSent(ids(batch));
+      log.debug("Published {} outbox messages in one transaction", batch.size());
+      return List.of();
+    } catch (Exception e) {
+      if (batch.size() == 1) {
+        markFailed(batch.get(0), e);
+        return List.of();
+      }
+      log.warn("Outbox batch of {} aborted; retrying row by row", batch.size(), e);
+      return ids(batch);
+    }
+  }
+
+  private void relayOne(long id) {
+    confirmOnCommit();
+    OutboxStore.Message m = store.fetchOne(id);
+    if (m == null)
+      return;
+    try {
+      publish(List.of(m));
+      unconfirmed.add(m.id());
+      store.markSent(List.of(m.id()));
+    } catch (Exception e) {
+      markFailed(m, e);
+    }
+  }
+
+  private void publish(List<OutboxStore.Message> batch) {
+    String marker = String.join(",", ids(batch).stream().map(String::valueOf).toList());
+    OutboxPublishEvent evt = new OutboxPublishEvent();
+    evt.begin();
+    evt.mode = OutboxRelayProperties.Mode.transactional.name();
+    evt.messages = batch.size();
+    evt.failed = batch.size();
+    try {
+      template().executeInTransaction(ops -> {
+        for (OutboxStore.Message m : batch) {
+          ops.send(m.toRecord());
+          evt.bytes += m.value().length;
+        }
+        ops.send(KafkaTopics.OUTBOX_RELAY_STATE, STATE_KEY, marker.getBytes(StandardCharsets.UTF_8));
+        return null; // commit flushes and waits for every ack
+      });
+      evt.failed = 0;
+    } finally {
+      evt.commit();
+    }
+  }
+
+  /** Mark the last batch committed to Kafka as sent, in case the previous leader died before doing so. */
+  private void recoverLastBatch() {
+    Map<String, Object> props = kafkaProperties.buildConsumerProperties(sslBundles);
+    props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+    props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+    props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+    props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+
+    String last;
+    try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props)) {
+      last = lastMarker(consumer, new TopicPartition(KafkaTopics.OUTBOX_RELAY_STATE, 0));
+    }
+
+    if (last == null || last.isBlank())
+      return;
+    List<Long> ids = Arrays.stream(last.split(",")).map(Long::valueOf).toList();
+    int n = jdbc.update("""
+        update ing.outbox
+        set sent_at = now(), status = 'sent', attempts = attempts + 1, last_error = null
+        where id in (:ids) and sent_at is null
+        """, Map.of("ids", ids));
+    if (n > 0)
+      log.warn("Recovered {} outbox rows already committed to Kafka by a previous relay", n);
+  }
+
+  /**
+   * The newest committed marker, scanning back from the end in growing windows:
+   * the tail may hold any number of aborted batches and control records.
+   * Throws if the scan does not finish in time, so the caller retries instead
+   * of publishing from a wrong position.
+   */
+  private static String lastMarker(KafkaConsumer<String, String> consumer, TopicPartition tp) {
+    consumer.assign(List.of(tp));
+    consumer.seekToEnd(List.of(tp));
+    long end = consumer.position(tp); // last stable offset under read_committed
+    long start = consumer.beginningOffsets(List.of(tp)).get(tp);
+    long deadline = System.currentTimeMillis() + RECOVERY_TIMEOUT_MS;
+    long window = 64;
+    long to = end;
+    while (to > start) {
+      long from = Math.max(start, to - window);
+      consumer.seek(tp, from);
+      String found = null;
+      while (consumer.position(tp) < to) {
+        if (System.currentTimeMillis() > deadline)
+          throw new IllegalStateException("No committed outbox marker found within " + RECOVERY_TIMEOUT_MS + " ms");
+        for (ConsumerRecord<String, String> rec : consumer.poll(Duration.ofMillis(500))) {
+          if (rec.offset() < to && STATE_KEY.equals(rec.key()))
+            found = rec.value();
+        }
+      }
+      if (found != null)
+        return found;
+      to = from;
+      window = Math.min(window * 4, 65_536);
+    }
+    return null;
+  }
+
+  /**
+   * Re-applies sent_at for batches whose database update was rolled back after
+   * the Kafka commit, and forgets them once this drain's transaction commits.
+   */
+  private void confirmOnCommit() {
+    if (!unconfirmed.isEmpty()) {
+      jdbc.update("""
+          update ing.outbox
+          set sent_at = now(), status = 'sent', attempts = attempts + 1, last_error = null
+          where id in (:ids) and sent_at is null
+          """, Map.of("ids", List.copyOf(unconfirmed)));
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        unconfirmed.clear();
+      }
+    });
+  }
+
+  private void markFailed(OutboxStore.Message m, Exception e) {
+    store.markFailed(m, OutboxRelay.truncateError(e.getMessage()));
+    log.warn("Outbox message id={} failed, attempt {}/{}", m.id(), m.attempts() + 1, OutboxRelay.MAX_ATTEMPTS, e);
+  }
+
+  private static List<Long> ids(List<OutboxStore.Message> batch) {
+    return batch.stream().map(OutboxStore.Message::id).toList();
+  }
+
+  private synchronized KafkaTemplate<String, byte[]> template() {
+    if (kafka == null) {
+      Map<String, Object> props = kafkaProperties.buildProducerProperties(sslBundles);
+      props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+      props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+      props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+      props.put(ProducerConfig.ACKS_CONFIG, "all");
+      props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+      props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, config.getCompressionType());
+      props.put(ProducerConfig.LINGER_MS_CONFIG, config.getLingerMs());
+      props.put(ProducerConfig.BATCH_SIZE_CONFIG, config.getProducerBatchBytes());
+
+      producerFactory = new DefaultKafkaProducerFactory<>(props);
+      producerFactory.setTransactionIdPrefix(config.getTransactionalId());
+      kafka = new KafkaTemplate<>(producerFactory);
+    }
+    return kafka;
+  }
+
+  @Override
+  public void destroy() {
+    if (producerFactory != null)
+      producerFactory.destroy();
+  }
+}
@@ -1,11 +1,17 @@
 package dev.propprice.co.app;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import dev.propprice.co.config.DispatcherProperties;
+import dev.propprice.co.config.SchedulingConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -14,9 +20,11 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class Watchdog {
   private final NamedParameterJdbcTemplate jdbc;
+  private final DispatcherProperties config;
+  private final RetryScheduler retryScheduler;
 
   // every minute: release stuck leases (conservative)
-  @Scheduled(fixedDelay = 60_000)
+  @Scheduled(fixedDelay = 60_000, scheduler = SchedulingConfig.HOUSEKEEPING)
   public void releaseExpiredLeases() {
     int n = jdbc.update("""
         update ing.frontier
@@ -25,5 +33,56 @@ public class Watchdog {
         """, Map.of());
     if (n > 0)
       log.info("watchdog released {} leases", n);
+
+    expireOrphanedJobs();
+  }
+
+  /**
+   * Jobs still 'dispatched' whose frontier lease has lapsed and that have not
+   * been touched (result or heartbeat) for a full lease are lost; they would
+   * otherwise count against max_concurrency forever. Move them to 'retry' in
+   * bounded batches and hand them to the retry scheduler.
+   */
+  void expireOrphanedJobs() {
+    var params = new MapSqlParameterSource()
+        .addValue("grace_minutes", config.getLeaseDurationMinutes())
+        .addValue("batch", config.getOrphanBatchSize());
+
+    int total = 0;
+    for (int i = 0; i < config.getOrphanMaxBatches(); i++) {
+      List<Orphan> batch = jdbc.query("""
+          with orphan as (
+            select j.job_id
+            from ing.job j
+            left join ing.frontier f
+              on f.portal = j.portal and f.task_type = j.task_type and f.url_hash = j.url_hash
+            where j.status = 'dispatched'::ing.ing_job_status
+              and j.last_update_at < now() - (interval '1 minute' * :grace_minutes)
+              and (f.lease_until is null or f.lease_until < now())
+            order by j.last_update_at
+            limit :batch
+            for update of j skip locked
+          )
+          update ing.job j
+          set status = 'retry'::ing.ing_job_status,
+              last_update_at = now(),
+              hints = jsonb_set(j.hints, '{orphaned}', 'true'::jsonb, true)
+          from orphan
+          where j.job_id = orphan.job_id
+          returning j.job_id, j.portal, j.attempt
+          """, params, (rs, n) -> new Orphan(rs.getObject(1, UUID.class), rs.getString(2), rs.getInt(3)));
+
+      for (Orphan o : batch) {
+        retryScheduler.schedule(o.jobId(), o.portal(), o.attempt(), Instant.now());
+      }
+      total += batch.size();
+      if (batch.size() < config.getOrphanBatchSize())
+        break;
+    }
+    if (total > 0)
+      log.warn("watchdog moved {} orphaned dispatched jobs to retry", total);
+  }
+
+  private record Orphan(UUID jobId, String portal, int attempt) {
   }
 }
@@ -19,8 +19,9 @@ public class AuthFilter extends OncePerRequestFilter {
 
   @Override
   protected boolean shouldNotFilter(HttpServletRequest request) {
+    // only probes and scraping are open; other actuator endpoints (jfr, metrics) need the token
     String path = request.getRequestURI();
-    if (path.startsWith("/actuator"))
+    if (path.equals("/actuator/health") || path.startsWith("/actuator/health/") || path.equals("/actuator/prometheus"))
       return true;
     if ("OPTIONS".equalsIgnoreCase(request.getMethod()))
       return true;
@@ -0,0 +1,66 @@
+package dev.propprice.co.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Primary plus streaming replica (co.datasource.replica.enabled=true). The
+ * application DataSource hands out lazy connections: a transaction marked
+ * read-only (including {@link ReadReplica} methods) gets its physical
+ * connection from the replica while the replica is within max-lag, from the
+ * primary otherwise; everything else always uses the primary. Flyway and the
+ * CDC relay use the primary directly.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "co.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceConfig {
+
+  @Bean
+  @FlywayDataSource
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    ds.setPoolName("co-primary");
+    return ds;
+  }
+
+  @Bean
+  public HikariDataSource replicaDataSource(ReplicaProperties config, DataSourceProperties properties) {
+    HikariDataSource ds = new HikariDataSource();
+    ds.setPoolName("co-replica");
+    ds.setDriverClassName(properties.determineDriverClassName());
+    ds.setJdbcUrl(config.getUrl());
+    ds.setUsername(config.getUsername() != null ? config.getUsername() : properties.determineUsername());
+    ds.setPassword(config.getPassword() != null ? config.getPassword() : properties.determinePassword());
+    ds.setMaximumPoolSize(config.getMaxPoolSize());
+    ds.setReadOnly(true);
+    return ds;
+  }
+
+  @Bean
+  public ReplicaLagMonitor replicaLagMonitor(HikariDataSource replicaDataSource, ReplicaProperties config,
+      MeterRegistry meters) {
+    return new ReplicaLagMonitor(replicaDataSource, config, meters);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+      ReplicaLagMonitor lag, MeterRegistry meters) {
+    LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+    proxy.setReadOnlyDataSource(new ReplicaFallbackDataSource(replicaDataSource, primaryDataSource, lag, meters));
+    return proxy;
+  }
+}
@@ -18,9 +18,24 @@ public class DispatcherProperties {
   /** Lease duration for claimed URLs in minutes */
   private int leaseDurationMinutes = 2;
 
+  /** Upper bound for a single lease extension requested by a scraper heartbeat, in minutes */
+  private int maxLeaseExtensionMinutes = 30;
+
+  /** Rows moved per statement when the watchdog expires orphaned dispatched jobs */
+  private int orphanBatchSize = 500;
+
+  /** Maximum orphan batches per watchdog run */
+  private int orphanMaxBatches = 20;
+
   /** Maximum batch size per portal per tick */
   private int maxBatchSize = 50;
 
+  /** Weight for (task_type, segment) lanes without a row in ing.portal_lane_policy */
+  private int defaultLaneWeight = 1;
+
+  /** Interval between per-lane backlog refreshes in milliseconds */
+  private long laneBacklogRefresh = 60_000;
+
   /** Enable/disable dispatcher entirely */
   private boolean enabled = true;
 }
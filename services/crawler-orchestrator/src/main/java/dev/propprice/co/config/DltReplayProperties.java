@@ -0,0 +1,29 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.dlt.replay")
+public class DltReplayProperties {
+  /** Records replayed per second when the request does not say */
+  private int defaultRate = 200;
+
+  /** Records fetched and checkpointed together */
+  private int defaultBatchSize = 500;
+
+  /** A run pauses itself after this many failed records */
+  private int defaultMaxFailures = 1_000;
+
+  /** Interval at which an instance heartbeats the replays it executes, in milliseconds */
+  private long heartbeatInterval = 15_000;
+
+  /** A running replay whose owner has not reported for this long may be resumed elsewhere, in milliseconds */
+  private long heartbeatTimeout = 60_000;
+
+  /** Longest single poll of the DLT, in milliseconds */
+  private long pollTimeout = 1_000;
+}
@@ -0,0 +1,19 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.events")
+public class EventEncodingProperties {
+
+  public enum Format {
+    json, avro
+  }
+
+  /** Wire format of events the CO produces; consumers accept both during rollout */
+  private Format format = Format.json;
+}
@@ -0,0 +1,117 @@
+package dev.propprice.co.config;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.Lifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Startup shortcuts for the fast-start profile (see README "Fast Start").
+ * With spring.main.lazy-initialization=true only request-driven beans become
+ * lazy: anything that works on its own (schedules, listeners, lifecycle) is
+ * still created at startup. With co.startup.migrations=if-behind Flyway only
+ * runs when the database is behind the newest migration on the classpath.
+ */
+@Slf4j
+@org.springframework.context.annotation.Configuration
+public class FastStartConfig {
+
+  /** Methods that start work by themselves; @PostConstruct often starts threads or subscriptions. */
+  private static final List<Class<? extends Annotation>> BACKGROUND = List.of(Scheduled.class, KafkaListener.class,
+      EventListener.class, PostConstruct.class);
+
+  @Bean
+  static LazyInitializationExcludeFilter eagerBackgroundWork() {
+    return (name, definition, type) -> type != null && doesBackgroundWork(type);
+  }
+
+  /**
+   * A plain property rather than a condition: AOT fixes conditions at build
+   * time, and the training run must skip Flyway in an AOT-processed jar too.
+   */
+  @Bean
+  FlywayMigrationStrategy migrationStrategy(@Value("${co.startup.migrations:always}") String mode) {
+    return flyway -> {
+      if ("never".equals(mode)) {
+        log.info("Flyway disabled by co.startup.migrations=never");
+        return;
+      }
+      if ("if-behind".equals(mode) && upToDate(flyway)) {
+        log.info("Database schema is at the newest migration; skipping Flyway");
+        return;
+      }
+      flyway.migrate();
+    };
+  }
+
+  static boolean doesBackgroundWork(Class<?> type) {
+    if (Lifecycle.class.isAssignableFrom(type) || SmartInitializingSingleton.class.isAssignableFrom(type)
+        || ApplicationListener.class.isAssignableFrom(type)
+        || MessageListener.class.isAssignableFrom(type)
+        || AnnotatedElementUtils.hasAnnotation(type, KafkaListener.class))
+      return true;
+    boolean[] found = { false };
+    ReflectionUtils.doWithMethods(type, m -> found[0] = true, (Method m) -> BACKGROUND.stream()
+        .anyMatch(a -> AnnotatedElementUtils.hasAnnotation(m, a)));
+    return found[0];
+  }
+
+  /** Newest successful history row versus newest versioned script, without scanning or validating. */
+  private static boolean upToDate(Flyway flyway) {
+    Configuration c = flyway.getConfiguration();
+    try {
+      MigrationVersion latest = MigrationVersion.EMPTY;
+      PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+      for (var location : c.getLocations()) {
+        if (!location.isClassPath())
+          return false;
+        for (Resource r : resolver.getResources("classpath*:" + location.getRootPath() + "/V*__*.sql")) {
+          String file = r.getFilename();
+          MigrationVersion v = MigrationVersion.fromVersion(file.substring(1, file.indexOf("__")).replace('_', '.'));
+          if (v.compareTo(latest) > 0)
+            latest = v;
+        }
+      }
+
+      String schema = c.getDefaultSchema() != null ? c.getDefaultSchema()
+          : c.getSchemas().length > 0 ? c.getSchemas()[0] : null;
+      String table = (schema != null ? "\"" + schema + "\"." : "") + "\"" + c.getTable() + "\"";
+      DataSource ds = c.getDataSource();
+      List<String> applied = new JdbcTemplate(ds).queryForList("""
+          select version from %s
+          where version is not null and success
+            and not exists (select 1 from %s where not success)
+          """.formatted(table, table), String.class);
+      MigrationVersion current = applied.stream().map(MigrationVersion::fromVersion)
+          .max(MigrationVersion::compareTo).orElse(MigrationVersion.EMPTY);
+      return latest != MigrationVersion.EMPTY && current.compareTo(latest) >= 0;
+    } catch (Exception e) {
+      log.debug("Could not compare schema history, running Flyway", e);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.frontier.lifecycle")
+public class FrontierLifecycleProperties {
+  /** Run the quarantine / retire / archive sweep */
+  private boolean enabled = true;
+
+  /** Interval between sweeps, in milliseconds */
+  private long interval = 300_000;
+
+  /** Rows moved per statement */
+  private int batchSize = 1_000;
+
+  /** Maximum statements per transition per sweep */
+  private int maxBatches = 20;
+
+  /** Time until the first retest of a quarantined URL, in hours; doubles with every further quarantine */
+  private int retestHours = 24;
+
+  /** A URL quarantined this many times is retired instead of retested */
+  private int retireAfterQuarantines = 3;
+
+  /** Retired rows move to ing.frontier_archive after this many days */
+  private int archiveAfterDays = 30;
+}
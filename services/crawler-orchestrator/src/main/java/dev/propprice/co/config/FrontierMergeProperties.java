@@ -0,0 +1,26 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.frontier.merge")
+public class FrontierMergeProperties {
+  /** How long the broker may hold a fetch to fill a batch, in milliseconds */
+  private int window = 1000;
+
+  /** Bytes the broker waits for before answering a fetch (whichever of this and window comes first) */
+  private int windowBytes = 256 * 1024;
+
+  /** Maximum discovered-link events (pages) merged per batch */
+  private int maxPages = 500;
+
+  /** Links remembered as recently merged; repeats with the same priority are skipped */
+  private int recentCacheSize = 200_000;
+
+  /** How long a merged link is remembered, in milliseconds */
+  private long recentTtl = 600_000;
+}
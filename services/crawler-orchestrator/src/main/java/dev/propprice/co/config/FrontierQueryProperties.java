@@ -0,0 +1,20 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.frontier.query")
+public class FrontierQueryProperties {
+  /** Largest page the frontier query API returns */
+  private int maxPageSize = 1000;
+
+  /** Rows fetched per round trip when streaming */
+  private int streamFetchSize = 1000;
+
+  /** Longest an export may stream before it is cut off, in milliseconds */
+  private long exportTimeout = 1_800_000;
+}
@@ -0,0 +1,23 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.frontier.stats")
+public class FrontierStatsProperties {
+  /** Interval between folds of trigger deltas into ing.frontier_stats, in milliseconds */
+  private long foldInterval = 5_000;
+
+  /**
+   * Unfolded deltas at which every instance folds, not only the leader; bounds
+   * the delta table while no leader is elected
+   */
+  private long maxPendingDeltas = 100_000;
+
+  /** Interval between full recounts from ing.frontier, in milliseconds */
+  private long reconcileInterval = 21_600_000;
+}
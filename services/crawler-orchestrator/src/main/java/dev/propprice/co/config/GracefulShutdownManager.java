@@ -1,42 +1,69 @@
 package dev.propprice.co.config;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Component;
 
 import dev.propprice.co.app.RedisLeaderElector;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Shutdown order for a fast, safe handoff: step down (leader-only work stops
+ * but the key is kept, so nobody else starts yet), stop the dispatch and relay
+ * schedulers and wait for their running ticks up to the drain deadline, then
+ * release the key, which notifies standbys over Redis pub/sub.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class GracefulShutdownManager implements ApplicationListener<ContextClosedEvent> {
 
+  private static final List<String> DRAINED = List.of(SchedulingConfig.DISPATCH, SchedulingConfig.RELAY);
+
   private final RedisLeaderElector leaderElector;
+  private final Map<String, ThreadPoolTaskScheduler> schedulers;
+  private final ShutdownProperties config;
   private volatile boolean shutdownInProgress = false;
 
   @Override
   public void onApplicationEvent(ContextClosedEvent event) {
+    if (shutdownInProgress)
+      return;
     log.info("Starting graceful shutdown...");
     shutdownInProgress = true;
+    long started = System.currentTimeMillis();
 
     try {
-      // Release leadership to allow other instances to take over quickly
-      leaderElector.releaseLeadership();
-      log.info("Released leadership");
+      leaderElector.stepDown();
 
-      // Give some time for in-flight operations to complete
-      log.info("Waiting for in-flight operations to complete...");
-      Thread.sleep(TimeUnit.SECONDS.toMillis(2));
+      // no new ticks; running ones finish
+      for (String name : DRAINED) {
+        schedulers.get(name).getScheduledThreadPoolExecutor().shutdown();
+      }
+      long deadline = started + config.getDrainTimeout();
+      for (String name : DRAINED) {
+        ScheduledThreadPoolExecutor executor = schedulers.get(name).getScheduledThreadPoolExecutor();
+        long left = Math.max(0, deadline - System.currentTimeMillis());
+        if (!executor.awaitTermination(left, TimeUnit.MILLISECONDS))
+          log.warn("{} still has {} running task(s) after the drain deadline", name, executor.getActiveCount());
+      }
 
-      log.info("Graceful shutdown completed");
+      if (leaderElector.releaseLeadership())
+        log.info("Released leadership");
+
+      log.info("Graceful shutdown completed in {} ms", System.currentTimeMillis() - started);
 
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       log.warn("Graceful shutdown interrupted");
+      leaderElector.releaseLeadership();
     } catch (Exception e) {
       log.error("Error during graceful shutdown", e);
     }
@@ -45,4 +72,4 @@ public class GracefulShutdownManager implements ApplicationListener<ContextClose
   public boolean isShutdownInProgress() {
     return shutdownInProgress;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.jfr")
+public class JfrProperties {
+  /** JDK settings a recording starts with when the request does not name one ("default" or "profile") */
+  private String settings = "profile";
+
+  /** Oldest data kept in a running recording, in milliseconds */
+  private long maxAge = 30 * 60_000;
+
+  /** Largest amount of data kept in a running recording, in bytes */
+  private long maxSize = 256L * 1024 * 1024;
+
+  /** Where recordings are dumped for download; the JVM temp dir when empty */
+  private String dumpDir = "";
+}
@@ -0,0 +1,32 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.jobs.partitions")
+public class JobPartitionProperties {
+  /** Enable/disable partition maintenance (creation, archival, drop) */
+  private boolean enabled = true;
+
+  /** Interval between maintenance runs in milliseconds */
+  private long maintenanceInterval = 3_600_000;
+
+  /** Daily partitions created ahead of today */
+  private int daysAhead = 7;
+
+  /** Days a partition is kept in the database after it closes */
+  private int retentionDays = 30;
+
+  /** Directory for archived partitions (gzipped NDJSON, one file per partition) */
+  private String archiveDir = "archive/ing.job";
+
+  /** JDBC fetch size while streaming a partition to disk */
+  private int exportFetchSize = 5000;
+
+  /** Largest time window the job query API accepts, in days */
+  private int queryWindowDays = 7;
+}
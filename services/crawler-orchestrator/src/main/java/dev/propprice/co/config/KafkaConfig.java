@@ -1,11 +1,15 @@
 package dev.propprice.co.config;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.TopicPartition;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
@@ -15,14 +19,14 @@ import org.springframework.util.backoff.FixedBackOff;
 public class KafkaConfig {
 
   @Bean
-  public ConcurrentKafkaListenerContainerFactory<String, String> coKafkaListenerFactory(
-      ConsumerFactory<String, String> cf,
-      KafkaTemplate<String, String> template,
-      @Value("${co.kafka.listener.concurrency:3}") int concurrency) {
+  public ConcurrentKafkaListenerContainerFactory<String, byte[]> coKafkaListenerFactory(
+      ConsumerFactory<String, byte[]> cf,
+      KafkaTemplate<String, byte[]> template,
+      KafkaListenerProperties config) {
 
-    var factory = new ConcurrentKafkaListenerContainerFactory<String, String>();
+    var factory = new ConcurrentKafkaListenerContainerFactory<String, byte[]>();
     factory.setConsumerFactory(cf);
-    factory.setConcurrency(concurrency);
+    factory.setConcurrency(config.getConcurrency()); // adjusted at runtime by LagAutoscaler
     factory.setBatchListener(false);
 
     DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(template,
@@ -34,4 +38,31 @@ public class KafkaConfig {
     factory.setCommonErrorHandler(new DefaultErrorHandler(recoverer, backoff));
     return factory;
   }
+
+  /**
+   * Batch listeners that coalesce many small events: the broker holds each
+   * fetch until {@code window-bytes} are available or {@code window} elapses.
+   */
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, byte[]> coBatchListenerFactory(
+      ConsumerFactory<String, byte[]> cf,
+      KafkaTemplate<String, byte[]> template,
+      FrontierMergeProperties merge) {
+
+    Map<String, Object> props = new HashMap<>(cf.getConfigurationProperties());
+    props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, merge.getWindow());
+    props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, merge.getWindowBytes());
+    props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, merge.getMaxPages());
+
+    var factory = new ConcurrentKafkaListenerContainerFactory<String, byte[]>();
+    factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+    factory.setConcurrency(1);
+    factory.setBatchListener(true);
+
+    DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(template,
+        (r, e) -> new TopicPartition(r.topic() + ".DLT", r.partition()));
+    // a failed batch is retried whole (the merge is idempotent), then its records go to the DLT
+    factory.setCommonErrorHandler(new DefaultErrorHandler(recoverer, new FixedBackOff(1000L, 3L)));
+    return factory;
+  }
 }
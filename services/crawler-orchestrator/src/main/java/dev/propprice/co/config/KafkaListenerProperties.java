@@ -0,0 +1,41 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.kafka.listener")
+public class KafkaListenerProperties {
+  /** Initial consumer threads for the page result listener */
+  private int concurrency = 3;
+
+  /** Let {@code LagAutoscaler} adjust concurrency from consumer-group lag */
+  private boolean autoscaleEnabled = true;
+
+  /** Lower bound for autoscaled concurrency */
+  private int minConcurrency = 1;
+
+  /** Upper bound for autoscaled concurrency (also capped by the topic's partition count) */
+  private int maxConcurrency = 12;
+
+  /** Lag one consumer thread is expected to absorb; total lag / this = consumers wanted */
+  private long targetLagPerConsumer = 500;
+
+  /** Interval between lag checks in milliseconds */
+  private long autoscaleInterval = 15_000;
+
+  /** Minimum time after any change before scaling up, in milliseconds */
+  private long scaleUpCooldown = 30_000;
+
+  /** Minimum time after any change before scaling down, in milliseconds */
+  private long scaleDownCooldown = 120_000;
+
+  /**
+   * Scale down only to a concurrency that keeps lag per consumer under this
+   * share of target-lag-per-consumer (hysteresis against flapping)
+   */
+  private double scaleDownHeadroom = 0.7;
+}
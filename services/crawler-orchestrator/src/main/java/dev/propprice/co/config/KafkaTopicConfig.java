@@ -5,14 +5,19 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
+import lombok.RequiredArgsConstructor;
+
 @Configuration
+@RequiredArgsConstructor
 public class KafkaTopicConfig {
 
+  private final KafkaTopicProperties config;
+
   @Bean
   public NewTopic jobDispatched() {
     return TopicBuilder.name(KafkaTopics.JOB_DISPATCHED)
-        .partitions(3) // allow parallel scrapers; key by url_hash
-        .replicas(1) // dev; use 3 in prod
+        .partitions(config.getJobDispatchedPartitions()) // allow parallel scrapers; key by url_hash
+        .replicas(config.getReplicas())
         .config("retention.ms", String.valueOf(7L * 24 * 60 * 60 * 1000)) // 7d
         .config("cleanup.policy", "delete")
         .build();
@@ -21,8 +26,8 @@ public class KafkaTopicConfig {
   @Bean
   public NewTopic rawPage() {
     return TopicBuilder.name(KafkaTopics.RAW_PAGE)
-        .partitions(3) // key by url_hash or job_id
-        .replicas(1)
+        .partitions(config.getRawPagePartitions()) // key by url_hash or job_id
+        .replicas(config.getReplicas())
         .config("retention.ms", String.valueOf(7L * 24 * 60 * 60 * 1000))
         .config("cleanup.policy", "delete")
         .build();
@@ -31,9 +36,37 @@ public class KafkaTopicConfig {
   @Bean
   public NewTopic rawPageDlt() {
     return TopicBuilder.name(KafkaTopics.RAW_PAGE_DLT)
-        .partitions(3)
-        .replicas(1)
+        .partitions(config.getRawPagePartitions()) // DLT records keep their source partition
+        .replicas(config.getReplicas())
         .config("retention.ms", String.valueOf(14L * 24 * 60 * 60 * 1000)) // 14d for debugging
         .build();
   }
+
+  @Bean
+  public NewTopic frontierDiscovered() {
+    return TopicBuilder.name(KafkaTopics.FRONTIER_DISCOVERED)
+        .partitions(config.getFrontierDiscoveredPartitions()) // key by portal: overlapping pages land together
+        .replicas(config.getReplicas())
+        .config("retention.ms", String.valueOf(3L * 24 * 60 * 60 * 1000))
+        .config("cleanup.policy", "delete")
+        .build();
+  }
+
+  @Bean
+  public NewTopic frontierDiscoveredDlt() {
+    return TopicBuilder.name(KafkaTopics.FRONTIER_DISCOVERED_DLT)
+        .partitions(config.getFrontierDiscoveredPartitions())
+        .replicas(config.getReplicas())
+        .config("retention.ms", String.valueOf(14L * 24 * 60 * 60 * 1000))
+        .build();
+  }
+
+  @Bean
+  public NewTopic outboxRelayState() {
+    return TopicBuilder.name(KafkaTopics.OUTBOX_RELAY_STATE)
+        .partitions(1) // single writer (leader); read back on takeover
+        .replicas(config.getReplicas())
+        .compact()
+        .build();
+  }
 }
@@ -0,0 +1,26 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.kafka.topics")
+public class KafkaTopicProperties {
+  /**
+   * Partitions of acq.raw.page (and its DLT); bounds listener parallelism.
+   * Raising it on an existing topic adds partitions at startup; it can never shrink.
+   */
+  private int rawPagePartitions = 3;
+
+  /** Partitions of acq.job.dispatched; key by url_hash */
+  private int jobDispatchedPartitions = 3;
+
+  /** Partitions of the internal acq.frontier.discovered topic */
+  private int frontierDiscoveredPartitions = 3;
+
+  /** Replication factor for the topics the CO creates (dev: 1, prod: 3) */
+  private short replicas = 1;
+}
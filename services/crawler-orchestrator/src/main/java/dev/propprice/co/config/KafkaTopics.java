@@ -7,4 +7,9 @@ public final class KafkaTopics {
   public static final String JOB_DISPATCHED = "acq.job.dispatched";
   public static final String RAW_PAGE = "acq.raw.page";
   public static final String RAW_PAGE_DLT = "acq.raw.page.DLT";
+  /** Internal; links discovered per result page, merged into ing.frontier in batches */
+  public static final String FRONTIER_DISCOVERED = "acq.frontier.discovered";
+  public static final String FRONTIER_DISCOVERED_DLT = "acq.frontier.discovered.DLT";
+  /** Compacted; last committed outbox batch per transactional relay (internal) */
+  public static final String OUTBOX_RELAY_STATE = "co.outbox.relay.state";
 }
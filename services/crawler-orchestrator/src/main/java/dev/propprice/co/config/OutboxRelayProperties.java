@@ -0,0 +1,63 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.outbox.relay")
+public class OutboxRelayProperties {
+
+  public enum Mode {
+    /** At-least-once: one synchronous send per row, on every instance */
+    polling,
+    /** Exactly-once: one Kafka transaction per drained batch, leader only */
+    transactional,
+    /** Streams inserts from a logical replication slot, leader only; polling covers stale rows */
+    cdc
+  }
+
+  /** Relay engine */
+  private Mode mode = Mode.polling;
+
+  /** Rows drained per batch */
+  private int batchSize = 100;
+
+  /** transactional.id prefix shared by all instances, so a new leader fences the old one */
+  private String transactionalId = "co-outbox-relay-";
+
+  /** Producer batch compression in transactional mode */
+  private String compressionType = "lz4";
+
+  /** Producer linger in transactional mode, in milliseconds */
+  private int lingerMs = 20;
+
+  /** Producer batch size in transactional mode, in bytes */
+  private int producerBatchBytes = 256 * 1024;
+
+  /** Logical replication slot consumed in cdc mode (created on first start) */
+  private String slotName = "co_outbox_slot";
+
+  /** Publication streamed in cdc mode (created by V6) */
+  private String publication = "co_outbox_pub";
+
+  /** In cdc mode, rows still unsent after this long are left to the polling fallback, in milliseconds */
+  private long fallbackGrace = 60_000;
+
+  /** Polling fallback interval in cdc mode, in milliseconds */
+  private long fallbackInterval = 30_000;
+
+  /** Standby status interval for the replication stream, in milliseconds */
+  private int statusInterval = 10_000;
+
+  /** Delay before reconnecting a failed replication stream, in milliseconds */
+  private long reconnectDelay = 5_000;
+
+  /** Outside cdc mode, drop the replication slot once it is inactive so it cannot pin WAL */
+  private boolean dropUnusedSlot = true;
+
+  /** Interval between checks for an unused replication slot outside cdc mode, in milliseconds */
+  private long slotCheckInterval = 300_000;
+}
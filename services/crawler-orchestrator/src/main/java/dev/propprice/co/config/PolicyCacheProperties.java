@@ -0,0 +1,23 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.policy")
+public class PolicyCacheProperties {
+  /** Safety-net reload interval for the policy cache in milliseconds */
+  private long cacheTtl = 300_000;
+
+  /** Listen for co_portal_policy notifications and reload on change */
+  private boolean notifyEnabled = true;
+
+  /** How long one wait for notifications blocks, in milliseconds */
+  private int notifyPollTimeout = 5_000;
+
+  /** Delay before reconnecting the notification listener after an error, in milliseconds */
+  private long notifyReconnectDelay = 5_000;
+}
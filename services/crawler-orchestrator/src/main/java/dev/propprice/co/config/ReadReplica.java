@@ -0,0 +1,19 @@
+package dev.propprice.co.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run the method in a read-only transaction, which sends its queries to the
+ * replica when one is configured and caught up. Only for reads that tolerate
+ * a few seconds of staleness; never for anything feeding dispatch. Inside an
+ * existing transaction the method joins it and stays on its connection.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ReadReplica {
+}
@@ -0,0 +1,33 @@
+package dev.propprice.co.config;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.transaction.interceptor.MatchAlwaysTransactionAttributeSource;
+import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+/** Applies {@link ReadReplica}: marked methods run in a read-only transaction. */
+@Configuration(proxyBeanMethods = false)
+public class ReadReplicaConfig {
+
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  static Advisor readReplicaAdvisor(BeanFactory beanFactory) {
+    RuleBasedTransactionAttribute readOnly = new RuleBasedTransactionAttribute();
+    readOnly.setReadOnly(true);
+    MatchAlwaysTransactionAttributeSource source = new MatchAlwaysTransactionAttributeSource();
+    source.setTransactionAttribute(readOnly);
+
+    // transaction manager resolved from the bean factory on first use
+    TransactionInterceptor interceptor = new TransactionInterceptor();
+    interceptor.setTransactionAttributeSource(source);
+    interceptor.setBeanFactory(beanFactory);
+    return new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(ReadReplica.class), interceptor);
+  }
+}
@@ -0,0 +1,23 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.recrawl")
+public class RecrawlProperties {
+  /** Derive next_eligible_at from observed content changes; off = min_days_between_runs for every URL */
+  private boolean adaptive = true;
+
+  /** Weight kept by past observations at each new fetch (1 = never forget) */
+  private double decay = 0.9;
+
+  /**
+   * Weight of the prior, in min_days_between_runs periods. The prior alone yields
+   * exactly min_days_between_runs, so new URLs start at the old fixed interval.
+   */
+  private double priorWeight = 1.0;
+}
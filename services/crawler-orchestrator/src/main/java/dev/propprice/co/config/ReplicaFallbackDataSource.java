@@ -0,0 +1,47 @@
+package dev.propprice.co.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Read-only connections: the replica while it is usable, the primary otherwise. */
+class ReplicaFallbackDataSource extends DelegatingDataSource {
+
+  private final DataSource primary;
+  private final ReplicaLagMonitor lag;
+  private final Counter toReplica;
+  private final Counter toPrimary;
+
+  ReplicaFallbackDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor lag, MeterRegistry meters) {
+    super(replica);
+    this.primary = primary;
+    this.lag = lag;
+    this.toReplica = Counter.builder("co.db.readonly.connections")
+        .description("Read-only transactions by the pool that served them")
+        .tag("target", "replica").register(meters);
+    this.toPrimary = Counter.builder("co.db.readonly.connections")
+        .description("Read-only transactions by the pool that served them")
+        .tag("target", "primary").register(meters);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (lag.isUsable()) {
+      toReplica.increment();
+      return super.getConnection();
+    }
+    toPrimary.increment();
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return getConnection();
+  }
+}
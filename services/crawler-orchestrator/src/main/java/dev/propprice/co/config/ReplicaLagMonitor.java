@@ -0,0 +1,75 @@
+package dev.propprice.co.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures how far the replica trails the primary. A replica that has replayed
+ * everything it received counts as current even when the primary is idle, but
+ * only while its WAL receiver is streaming; a disconnected one reports the age
+ * of its last replayed transaction. A failed check counts as unusable, so reads
+ * fall back to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+  private static final String LAG_SQL = """
+      select case
+               when not pg_is_in_recovery() then 0
+               when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()
+                    and exists (select 1 from pg_stat_wal_receiver where status = 'streaming') then 0
+               -- nothing replayed yet: the lag is unknown
+               else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp())::float8 * 1000, 'Infinity')
+             end
+      """;
+
+  private final DataSource replica;
+  private final ReplicaProperties config;
+
+  private volatile double lagMillis = Double.NaN;
+  private volatile long checkedAt;
+
+  public ReplicaLagMonitor(DataSource replica, ReplicaProperties config, MeterRegistry meters) {
+    this.replica = replica;
+    this.config = config;
+    Gauge.builder("co.db.replica.lag.seconds", this, m -> m.lagMillis / 1000.0)
+        .description("Replay lag of the read replica at the last check (NaN when unreachable)")
+        .register(meters);
+    Gauge.builder("co.db.replica.usable", this, m -> m.isUsable() ? 1 : 0)
+        .description("1 while read-only transactions are routed to the replica")
+        .register(meters);
+  }
+
+  @Scheduled(fixedDelayString = "${co.datasource.replica.lag-check-interval:2000}",
+      scheduler = SchedulingConfig.HOUSEKEEPING)
+  public void check() {
+    try (Connection con = replica.getConnection();
+        Statement st = con.createStatement();
+        ResultSet rs = st.executeQuery(LAG_SQL)) {
+      rs.next();
+      lagMillis = rs.getDouble(1);
+      checkedAt = System.currentTimeMillis();
+    } catch (Exception e) {
+      if (!Double.isNaN(lagMillis))
+        log.warn("Replica lag check failed; routing reads to the primary", e);
+      lagMillis = Double.NaN;
+    }
+  }
+
+  /** Recently checked and within max-lag. A stale measurement counts as unusable. */
+  public boolean isUsable() {
+    double lag = lagMillis;
+    return !Double.isNaN(lag)
+        && lag <= config.getMaxLag()
+        && System.currentTimeMillis() - checkedAt <= 3 * config.getLagCheckInterval();
+  }
+}
@@ -0,0 +1,27 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.datasource.replica")
+public class ReplicaProperties {
+  /** Route read-only transactions to a streaming replica */
+  private boolean enabled = false;
+
+  private String url;
+  private String username;
+  private String password;
+
+  /** Connections in the replica pool */
+  private int maxPoolSize = 10;
+
+  /** Replicas further behind than this are skipped in favour of the primary, in milliseconds */
+  private long maxLag = 5_000;
+
+  /** Interval between replica lag checks, in milliseconds */
+  private long lagCheckInterval = 2_000;
+}
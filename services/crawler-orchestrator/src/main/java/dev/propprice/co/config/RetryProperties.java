@@ -0,0 +1,23 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.retry")
+public class RetryProperties {
+  /** Enable/disable re-dispatch of failed jobs */
+  private boolean enabled = true;
+
+  /** Timing wheel resolution (and scheduler tick) in milliseconds */
+  private long tickInterval = 1000;
+
+  /** Buckets per timing wheel level */
+  private int wheelSize = 512;
+
+  /** Delay before re-checking a due retry blocked by concurrency or rate limit, in milliseconds */
+  private long deferDelay = 5000;
+}
@@ -0,0 +1,29 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.schedulers")
+public class SchedulerProperties {
+  /** Threads for dispatch ticks (frontier dispatcher, retry scheduler) */
+  private int dispatchPoolSize = 2;
+
+  /** Threads for outbox relays */
+  private int relayPoolSize = 3;
+
+  /** Threads for housekeeping (cleanup, watchdog, partitions, caches, autoscaler) */
+  private int housekeepingPoolSize = 4;
+
+  /** Run scheduled tasks on virtual threads (they are almost all JDBC/Kafka/Redis I/O) */
+  private boolean virtualThreads = true;
+
+  /** A scheduled run taking longer than this is reported as stalled, in milliseconds */
+  private long stallThreshold = 30_000;
+
+  /** Interval between stall checks, in milliseconds */
+  private long stallCheckInterval = 5_000;
+}
@@ -1,9 +1,72 @@
 package dev.propprice.co.config;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One scheduler per subsystem, so a slow cleanup or a slow portal dispatch
+ * cannot delay outbox publishing. Every {@code @Scheduled} names its pool.
+ */
+@Slf4j
 @Configuration
 @EnableScheduling
 public class SchedulingConfig {
+
+  public static final String DISPATCH = "dispatchScheduler";
+  public static final String RELAY = "relayScheduler";
+  public static final String HOUSEKEEPING = "housekeepingScheduler";
+
+  @Bean(DISPATCH)
+  public ThreadPoolTaskScheduler dispatchScheduler(SchedulerProperties config, StallMonitor stalls,
+      MeterRegistry meters) {
+    return scheduler("dispatch", config.getDispatchPoolSize(), config, stalls, meters);
+  }
+
+  @Bean(RELAY)
+  public ThreadPoolTaskScheduler relayScheduler(SchedulerProperties config, StallMonitor stalls,
+      MeterRegistry meters) {
+    return scheduler("relay", config.getRelayPoolSize(), config, stalls, meters);
+  }
+
+  /** Also the default for anything scheduled without naming a pool. */
+  @Primary
+  @Bean(HOUSEKEEPING)
+  public ThreadPoolTaskScheduler housekeepingScheduler(SchedulerProperties config, StallMonitor stalls,
+      MeterRegistry meters) {
+    return scheduler("housekeeping", config.getHousekeepingPoolSize(), config, stalls, meters);
+  }
+
+  private static ThreadPoolTaskScheduler scheduler(String pool, int size, SchedulerProperties config,
+      StallMonitor stalls, MeterRegistry meters) {
+    ThreadPoolTaskScheduler s = new ThreadPoolTaskScheduler();
+    s.setPoolSize(size);
+    s.setThreadNamePrefix("co-" + pool + "-");
+    s.setVirtualThreads(config.isVirtualThreads());
+    s.setTaskDecorator(stalls.decorator(pool));
+    s.setWaitForTasksToCompleteOnShutdown(true);
+    s.setAwaitTerminationSeconds(30);
+    s.setErrorHandler(t -> log.error("Unhandled error in {} scheduler", pool, t));
+    s.initialize();
+
+    Gauge.builder("co.scheduler.queue", s, x -> x.getScheduledThreadPoolExecutor().getQueue().size())
+        .description("Tasks waiting in the scheduler queue (includes future periodic runs)")
+        .tag("pool", pool)
+        .register(meters);
+    Gauge.builder("co.scheduler.active", s, ThreadPoolTaskScheduler::getActiveCount)
+        .description("Scheduled tasks currently running")
+        .tag("pool", pool)
+        .register(meters);
+    Gauge.builder("co.scheduler.pool.size", s, ThreadPoolTaskScheduler::getPoolSize)
+        .description("Scheduler threads")
+        .tag("pool", pool)
+        .register(meters);
+    return s;
+  }
 }
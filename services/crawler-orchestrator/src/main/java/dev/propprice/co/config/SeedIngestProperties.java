@@ -0,0 +1,23 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.seed")
+public class SeedIngestProperties {
+  /** Seed files are resolved against this directory; paths outside it are rejected */
+  private String directory = "/var/lib/co/seeds";
+
+  /** URLs merged into ing.frontier per statement and checkpoint */
+  private int batchSize = 5_000;
+
+  /** Interval at which an instance heartbeats the runs it executes, in milliseconds */
+  private long heartbeatInterval = 15_000;
+
+  /** A running load whose owner has not reported for this long may be resumed elsewhere, in milliseconds */
+  private long heartbeatTimeout = 60_000;
+}
@@ -0,0 +1,14 @@
+package dev.propprice.co.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "co.shutdown")
+public class ShutdownProperties {
+  /** Longest wait for in-flight dispatch and relay runs before leadership is released, in milliseconds */
+  private long drainTimeout = 10_000;
+}
@@ -0,0 +1,95 @@
+package dev.propprice.co.config;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks scheduled runs in flight and reports any that exceed the stall
+ * threshold, once per run, with the thread's stack. Checks run on a private
+ * platform thread so a wedged scheduler pool cannot hide its own stall.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StallMonitor implements DisposableBean {
+
+  private final SchedulerProperties config;
+  private final MeterRegistry meters;
+
+  private final Map<Running, Boolean> running = new ConcurrentHashMap<>();
+  private ScheduledExecutorService checker;
+
+  @PostConstruct
+  void start() {
+    Gauge.builder("co.scheduler.running.oldest.seconds", this, StallMonitor::oldestSeconds)
+        .description("Age of the longest-running scheduled task")
+        .register(meters);
+    checker = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "co-stall-monitor");
+      t.setDaemon(true);
+      return t;
+    });
+    checker.scheduleWithFixedDelay(this::check, config.getStallCheckInterval(),
+        config.getStallCheckInterval(), TimeUnit.MILLISECONDS);
+  }
+
+  public TaskDecorator decorator(String pool) {
+    return task -> () -> {
+      Running r = new Running(pool, task.toString(), Thread.currentThread(), System.currentTimeMillis());
+      running.put(r, Boolean.FALSE);
+      try {
+        task.run();
+      } finally {
+        if (running.remove(r) == Boolean.TRUE)
+          log.info("Stalled {} task finished after {} ms: {}", pool, System.currentTimeMillis() - r.startedAt(),
+              r.task());
+      }
+    };
+  }
+
+  void check() {
+    long now = System.currentTimeMillis();
+    for (Running r : running.keySet()) {
+      long age = now - r.startedAt();
+      if (age < config.getStallThreshold() || !running.replace(r, Boolean.FALSE, Boolean.TRUE))
+        continue;
+      log.warn("Scheduled {} task running for {} ms on {}: {}\n{}", r.pool(), age, r.thread().getName(), r.task(),
+          Arrays.stream(r.thread().getStackTrace()).map(e -> "\tat " + e).collect(Collectors.joining("\n")));
+      Counter.builder("co.scheduler.stalls")
+          .description("Scheduled runs that exceeded the stall threshold")
+          .tag("pool", r.pool())
+          .register(meters)
+          .increment();
+    }
+  }
+
+  private double oldestSeconds() {
+    long now = System.currentTimeMillis();
+    return running.keySet().stream().mapToLong(r -> now - r.startedAt()).max().orElse(0) / 1000.0;
+  }
+
+  @Override
+  public void destroy() {
+    if (checker != null)
+      checker.shutdownNow();
+  }
+
+  record Running(String pool, String task, Thread thread, long startedAt) {
+  }
+}
@@ -0,0 +1,25 @@
+package dev.propprice.co.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The frontier export is the only asynchronous endpoint: its
+ * StreamingResponseBody runs under the MVC async request timeout, which
+ * otherwise defaults to the servlet container's (30 s on Tomcat) and cuts
+ * large exports off mid-stream.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+  private final FrontierQueryProperties query;
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setDefaultTimeout(query.getExportTimeout());
+  }
+}
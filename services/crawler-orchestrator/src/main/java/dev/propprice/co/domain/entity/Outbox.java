@@ -7,8 +7,12 @@ import org.hibernate.type.SqlTypes;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import dev.propprice.co.domain.enums.OutboxStatus;
+import dev.propprice.co.schema.HeaderCodec;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.PrePersist;
@@ -40,15 +44,22 @@ public class Outbox {
   private byte[] key;
 
   @JdbcTypeCode(SqlTypes.JSON)
-  @Column(name = "v", columnDefinition = "jsonb", nullable = false)
-  @Builder.Default
-  private JsonNode value = com.fasterxml.jackson.databind.node.JsonNodeFactory.instance.objectNode();
+  @Column(name = "v", columnDefinition = "jsonb")
+  private JsonNode value;
+
+  /** Pre-encoded binary body (e.g. Avro); set instead of {@link #value} */
+  @Column(name = "payload")
+  private byte[] payload;
 
   @JdbcTypeCode(SqlTypes.JSON)
   @Column(name = "headers", columnDefinition = "jsonb", nullable = false)
   @Builder.Default
   private JsonNode headers = com.fasterxml.jackson.databind.node.JsonNodeFactory.instance.objectNode();
 
+  /** {@link #headers} in {@link HeaderCodec} form, as the relays send them */
+  @Column(name = "kafka_headers", nullable = false)
+  private byte[] kafkaHeaders;
+
   @Column(name = "created_at", columnDefinition = "timestamptz")
   private OffsetDateTime createdAt;
 
@@ -62,13 +73,26 @@ public class Outbox {
   @Column(name = "last_error")
   private String lastError;
 
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false)
+  @Builder.Default
+  private OutboxStatus status = OutboxStatus.pending;
+
+  /** Earliest time the relay picks the row up again; only meaningful while pending */
+  @Column(name = "next_attempt_at", columnDefinition = "timestamptz", nullable = false)
+  private OffsetDateTime nextAttemptAt;
+
   @PrePersist
   void prePersist() {
-    if (value == null)
+    if (value == null && payload == null)
       value = com.fasterxml.jackson.databind.node.JsonNodeFactory.instance.objectNode();
     if (headers == null)
       headers = com.fasterxml.jackson.databind.node.JsonNodeFactory.instance.objectNode();
+    if (kafkaHeaders == null)
+      kafkaHeaders = HeaderCodec.encode(headers);
     if (createdAt == null)
       createdAt = OffsetDateTime.now();
+    if (nextAttemptAt == null)
+      nextAttemptAt = createdAt;
   }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package dev.propprice.co.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "portal_lane_policy", schema = "ing")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PortalLanePolicy {
+
+  @EmbeddedId
+  private PortalLaneId id;
+
+  @Column(name = "weight", nullable = false)
+  @Builder.Default
+  private int weight = 1;
+}
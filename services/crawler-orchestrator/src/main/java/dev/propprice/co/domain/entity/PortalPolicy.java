@@ -51,4 +51,19 @@ public class PortalPolicy {
   @Column(name = "min_days_between_runs", nullable = false)
   @Builder.Default
   private int minDaysBetweenRuns = 7;
+
+  /** Shortest adaptive recrawl interval */
+  @Column(name = "recrawl_min_hours", nullable = false)
+  @Builder.Default
+  private int recrawlMinHours = 12;
+
+  /** Longest adaptive recrawl interval */
+  @Column(name = "recrawl_max_days", nullable = false)
+  @Builder.Default
+  private int recrawlMaxDays = 60;
+
+  /** Recrawl once a change since the last fetch is this likely */
+  @Column(name = "recrawl_change_prob", nullable = false, precision = 3, scale = 2)
+  @Builder.Default
+  private BigDecimal recrawlChangeProb = new BigDecimal("0.50");
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package dev.propprice.co.domain.enums;
+
+public enum OutboxStatus {
+  pending, sent, dead
+}
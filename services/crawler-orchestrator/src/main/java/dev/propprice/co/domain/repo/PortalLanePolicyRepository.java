@@ -0,0 +1,12 @@
+package dev.propprice.co.domain.repo;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import dev.propprice.co.domain.entity.PortalLaneId;
+import dev.propprice.co.domain.entity.PortalLanePolicy;
+
+public interface PortalLanePolicyRepository extends JpaRepository<PortalLanePolicy, PortalLaneId> {
+  List<PortalLanePolicy> findByIdPortal(String portal);
+}
@@ -0,0 +1,27 @@
+package dev.propprice.co.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One frontier claim statement (skip-locked select plus lease update). */
+@Name("dev.propprice.co.ClaimQuery")
+@Label("Frontier Claim Query")
+@Category({ "PropPrice", "Orchestrator", "Dispatch" })
+@StackTrace(false)
+public class ClaimQueryEvent extends Event {
+
+  @Label("Portal")
+  public String portal;
+
+  @Label("Lane")
+  public String lane;
+
+  @Label("Limit")
+  public int limit;
+
+  @Label("Claimed")
+  public int claimed;
+}
@@ -0,0 +1,33 @@
+package dev.propprice.co.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One portal's share of a dispatcher tick, from capacity check to the last outbox insert. */
+@Name("dev.propprice.co.DispatchTick")
+@Label("Dispatch Tick")
+@Category({ "PropPrice", "Orchestrator", "Dispatch" })
+@StackTrace(false)
+public class DispatchTickEvent extends Event {
+
+  @Label("Portal")
+  public String portal;
+
+  @Label("Capacity")
+  @Description("Free job slots before claiming")
+  public int capacity;
+
+  @Label("Outcome")
+  @Description("disabled, no_capacity, rate_limited, empty or dispatched")
+  public String outcome;
+
+  @Label("Batch Size")
+  public int batchSize;
+
+  @Label("Claimed")
+  public int claimed;
+}
@@ -0,0 +1,192 @@
+package dev.propprice.co.jfr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import dev.propprice.co.config.JfrProperties;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@code /actuator/jfr}: one on-demand flight recording with the JDK settings
+ * plus the orchestrator's own events. {@code POST /start} and {@code /stop}
+ * control it, {@code GET /download} returns the data recorded so far (a
+ * snapshot while it runs) and {@code GET} reports its state. Environment
+ * variables and system properties are left out of recordings; the endpoint
+ * requires the API token like the rest of the API.
+ */
+@Slf4j
+@Component
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrEndpoint implements DisposableBean {
+
+  static final List<Class<? extends Event>> EVENTS = List.of(DispatchTickEvent.class, ClaimQueryEvent.class,
+      TokenBucketEvent.class, OutboxPublishEvent.class, ResultProcessedEvent.class);
+  static final List<String> SECRET_EVENTS = List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+
+  private final JfrProperties config;
+
+  private Recording recording;
+  private Path stopped;
+
+  @ReadOperation
+  public synchronized Map<String, Object> status() {
+    Map<String, Object> s = new LinkedHashMap<>();
+    if (recording == null) {
+      s.put("state", stopped != null ? "stopped" : "none");
+      return s;
+    }
+    s.put("state", recording.getState().name().toLowerCase());
+    s.put("started_at", recording.getStartTime());
+    s.put("stopped_at", recording.getStopTime());
+    s.put("size_bytes", recording.getSize());
+    s.put("max_age_seconds", recording.getMaxAge() != null ? recording.getMaxAge().toSeconds() : null);
+    return s;
+  }
+
+  @WriteOperation
+  public synchronized WebEndpointResponse<Map<String, Object>> control(@Selector String action,
+      @OptionalParameter String settings, @OptionalParameter Long maxAgeSeconds) {
+    switch (action) {
+      case "start":
+        return start(settings, maxAgeSeconds);
+      case "stop":
+        return stop();
+      default:
+        return new WebEndpointResponse<>(Map.of("error", "unknown action " + action),
+            WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+  }
+
+  @ReadOperation(produces = "application/octet-stream")
+  public synchronized WebEndpointResponse<Resource> download(@Selector String file) throws IOException {
+    if (!"download".equals(file))
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    if (recording != null && recording.getState() == RecordingState.RUNNING) {
+      // one file per request, gone once streamed, so repeated downloads cannot fill the disk
+      Path snapshot = Files.createTempFile(dumpDir(), "co-snapshot-", ".jfr");
+      try {
+        recording.dump(snapshot);
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(snapshot);
+        throw e;
+      }
+      return new WebEndpointResponse<>(deletedAfterRead(snapshot));
+    }
+    if (stopped == null)
+      return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    return new WebEndpointResponse<>(new FileSystemResource(stopped));
+  }
+
+  private WebEndpointResponse<Map<String, Object>> start(String settings, Long maxAgeSeconds) {
+    if (recording != null && recording.getState() == RecordingState.RUNNING)
+      return new WebEndpointResponse<>(status(), 409);
+    Configuration c;
+    try {
+      c = Configuration.getConfiguration(settings != null ? settings : config.getSettings());
+    } catch (IOException | ParseException e) {
+      return new WebEndpointResponse<>(Map.of("error", "unknown settings " + settings),
+          WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+    close();
+    Recording r = new Recording(c);
+    r.setName("co-on-demand");
+    r.setToDisk(true);
+    r.setMaxAge(Duration.ofMillis(maxAgeSeconds != null ? maxAgeSeconds * 1000 : config.getMaxAge()));
+    r.setMaxSize(config.getMaxSize());
+    for (Class<? extends Event> e : EVENTS) {
+      r.enable(e);
+    }
+    // would put credentials passed as env vars or -D properties into the file
+    for (String e : SECRET_EVENTS) {
+      r.disable(e);
+    }
+    r.start();
+    recording = r;
+    log.info("Started flight recording ({} settings)", c.getName());
+    return new WebEndpointResponse<>(status());
+  }
+
+  private WebEndpointResponse<Map<String, Object>> stop() {
+    if (recording == null || recording.getState() != RecordingState.RUNNING)
+      return new WebEndpointResponse<>(status(), 409);
+    try {
+      Path out = dumpPath("recording");
+      recording.stop();
+      deleteStopped();
+      recording.dump(out);
+      stopped = out;
+      log.info("Stopped flight recording; {} bytes at {}", Files.size(out), out);
+    } catch (IOException e) {
+      log.warn("Dumping flight recording failed", e);
+      return new WebEndpointResponse<>(Map.of("error", String.valueOf(e)),
+          WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+    } finally {
+      recording.close();
+      recording = null;
+    }
+    return new WebEndpointResponse<>(status());
+  }
+
+  private Path dumpPath(String kind) throws IOException {
+    return dumpDir().resolve("co-" + kind + "-" + ProcessHandle.current().pid() + ".jfr");
+  }
+
+  private Path dumpDir() throws IOException {
+    return config.getDumpDir().isBlank()
+        ? Path.of(System.getProperty("java.io.tmpdir"))
+        : Files.createDirectories(Path.of(config.getDumpDir()));
+  }
+
+  /** The file, deleted when the response has finished reading it. */
+  private static Resource deletedAfterRead(Path file) {
+    return new FileSystemResource(file) {
+      @Override
+      public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+      }
+    };
+  }
+
+  private void deleteStopped() throws IOException {
+    if (stopped != null)
+      Files.deleteIfExists(stopped);
+    stopped = null;
+  }
+
+  private void close() {
+    if (recording != null) {
+      recording.close();
+      recording = null;
+    }
+  }
+
+  @Override
+  public synchronized void destroy() {
+    close();
+  }
+}
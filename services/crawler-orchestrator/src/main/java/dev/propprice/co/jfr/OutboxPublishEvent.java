@@ -0,0 +1,29 @@
+package dev.propprice.co.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Publishing one drained outbox batch, up to the broker acks. */
+@Name("dev.propprice.co.OutboxPublish")
+@Label("Outbox Batch Publish")
+@Category({ "PropPrice", "Orchestrator", "Outbox" })
+@StackTrace(false)
+public class OutboxPublishEvent extends Event {
+
+  @Label("Relay Mode")
+  public String mode;
+
+  @Label("Messages")
+  public int messages;
+
+  @Label("Failed")
+  public int failed;
+
+  @Label("Payload Bytes")
+  @DataAmount
+  public long bytes;
+}
@@ -0,0 +1,34 @@
+package dev.propprice.co.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Handling one acq.raw.page record inside the listener transaction. */
+@Name("dev.propprice.co.ResultProcessed")
+@Label("Page Result Processed")
+@Category({ "PropPrice", "Orchestrator", "Results" })
+@StackTrace(false)
+public class ResultProcessedEvent extends Event {
+
+  @Label("Portal")
+  public String portal;
+
+  @Label("HTTP Status")
+  public int httpStatus;
+
+  @Label("Outcome")
+  @Description("succeeded, retry, failed, duplicate or error")
+  public String outcome;
+
+  @Label("Discovered Links")
+  public int discoveredLinks;
+
+  @Label("Payload Bytes")
+  @DataAmount
+  public int bytes;
+}
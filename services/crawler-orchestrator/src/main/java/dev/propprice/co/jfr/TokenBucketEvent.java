@@ -0,0 +1,27 @@
+package dev.propprice.co.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One Redis token-bucket round trip. */
+@Name("dev.propprice.co.TokenBucket")
+@Label("Token Bucket Call")
+@Category({ "PropPrice", "Orchestrator", "Dispatch" })
+@StackTrace(false)
+public class TokenBucketEvent extends Event {
+
+  @Label("Key")
+  public String key;
+
+  @Label("Tokens per Second")
+  public double rate;
+
+  @Label("Capacity")
+  public int capacity;
+
+  @Label("Allowed")
+  public boolean allowed;
+}
@@ -0,0 +1,216 @@
+package dev.propprice.co.schema;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Encodes/decodes event bodies by the {@code content-type} and {@code schema}
+ * headers. JSON events stay JSON; {@code avro/binary} events are plain Avro
+ * datums written with the {@code .avsc} registered for the schema ref (e.g.
+ * {@code acq.raw.page@v1}). Both sides map to the same JsonNode shape, so
+ * JSON Schema validation and the handlers do not care about the wire format.
+ */
+public final class EventCodec {
+
+  public static final String JSON = "application/json";
+  public static final String AVRO = "avro/binary";
+
+  private static final ObjectMapper OM = new ObjectMapper();
+  private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+  private static final Map<String, Schema> AVRO_SCHEMAS = Map.of(
+      "acq.job.dispatched@v1", load("schemas/acq.job.dispatched.v1.avsc"),
+      "acq.raw.page@v1", load("schemas/acq.raw.page.v1.avsc"));
+
+  private EventCodec() {
+  }
+
+  public static boolean isAvro(String contentType) {
+    return contentType != null && contentType.startsWith(AVRO);
+  }
+
+  public static byte[] encode(String contentType, String schemaRef, JsonNode evt) {
+    if (!isAvro(contentType))
+      return evt.toString().getBytes(StandardCharsets.UTF_8);
+    Schema schema = avroSchema(schemaRef);
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+      BinaryEncoder enc = EncoderFactory.get().binaryEncoder(out, null);
+      new GenericDatumWriter<Object>(schema).write(toAvro(schema, evt), enc);
+      enc.flush();
+      return out.toByteArray();
+    } catch (IOException | RuntimeException e) {
+      throw new IllegalArgumentException("Avro encoding failed for " + schemaRef + ": " + e.getMessage(), e);
+    }
+  }
+
+  /** JSON is assumed when {@code contentType} is missing, for producers that predate the header. */
+  public static JsonNode decode(String contentType, String schemaRef, byte[] value) {
+    try {
+      if (!isAvro(contentType))
+        return OM.readTree(value);
+      Schema schema = avroSchema(schemaRef);
+      Object datum = new GenericDatumReader<Object>(schema)
+          .read(null, DecoderFactory.get().binaryDecoder(value, null));
+      return fromAvro(schema, datum);
+    } catch (IOException | RuntimeException e) {
+      throw new IllegalArgumentException("Undecodable " + contentType + " event " + schemaRef + ": " + e.getMessage(), e);
+    }
+  }
+
+  private static Schema avroSchema(String schemaRef) {
+    Schema schema = schemaRef == null ? null : AVRO_SCHEMAS.get(schemaRef);
+    if (schema == null)
+      throw new IllegalArgumentException("No Avro schema registered for " + schemaRef);
+    return schema;
+  }
+
+  private static Object toAvro(Schema s, JsonNode n) {
+    if (n == null || n.isNull() || n.isMissingNode()) {
+      if (s.getType() == Schema.Type.UNION || s.getType() == Schema.Type.NULL)
+        return null;
+      throw new IllegalArgumentException("Missing value for non-optional " + s.getFullName());
+    }
+    String logical = s.getProp("logicalType");
+    switch (s.getType()) {
+      case RECORD: {
+        GenericData.Record r = new GenericData.Record(s);
+        for (Schema.Field f : s.getFields()) {
+          r.put(f.pos(), toAvro(f.schema(), n.get(f.name())));
+        }
+        return r;
+      }
+      case UNION:
+        for (Schema branch : s.getTypes()) {
+          if (branch.getType() != Schema.Type.NULL)
+            return toAvro(branch, n);
+        }
+        return null;
+      case ENUM:
+        return new GenericData.EnumSymbol(s, n.asText());
+      case ARRAY: {
+        List<Object> items = new ArrayList<>(n.size());
+        for (JsonNode item : n) {
+          items.add(toAvro(s.getElementType(), item));
+        }
+        return items;
+      }
+      case MAP: {
+        Map<String, Object> map = new HashMap<>();
+        n.properties().forEach(e -> map.put(e.getKey(), toAvro(s.getValueType(), e.getValue())));
+        return map;
+      }
+      case FIXED:
+        if ("uuid".equals(logical)) {
+          UUID u = UUID.fromString(n.asText());
+          ByteBuffer b = ByteBuffer.allocate(16).putLong(u.getMostSignificantBits()).putLong(u.getLeastSignificantBits());
+          return new GenericData.Fixed(s, b.array());
+        }
+        throw new IllegalArgumentException("Unsupported fixed type " + s.getFullName());
+      case LONG:
+        if ("timestamp-micros".equals(logical)) {
+          Instant t = Instant.parse(n.asText());
+          return Math.addExact(Math.multiplyExact(t.getEpochSecond(), 1_000_000L), t.getNano() / 1_000);
+        }
+        return n.asLong();
+      case INT:
+        return n.asInt();
+      case BOOLEAN:
+        return n.asBoolean();
+      case DOUBLE:
+        return n.asDouble();
+      case STRING:
+        return n.asText();
+      default:
+        throw new IllegalArgumentException("Unsupported Avro type " + s.getType());
+    }
+  }
+
+  private static JsonNode fromAvro(Schema s, Object v) {
+    if (v == null)
+      return NODES.nullNode();
+    String logical = s.getProp("logicalType");
+    switch (s.getType()) {
+      case RECORD: {
+        GenericRecord r = (GenericRecord) v;
+        ObjectNode o = NODES.objectNode();
+        for (Schema.Field f : s.getFields()) {
+          Object fv = r.get(f.pos());
+          if (fv != null) // optional fields are omitted, as in the JSON form
+            o.set(f.name(), fromAvro(f.schema(), fv));
+        }
+        return o;
+      }
+      case UNION:
+        return fromAvro(s.getTypes().get(GenericData.get().resolveUnion(s, v)), v);
+      case ARRAY: {
+        ArrayNode a = NODES.arrayNode();
+        for (Object item : (List<?>) v) {
+          a.add(fromAvro(s.getElementType(), item));
+        }
+        return a;
+      }
+      case MAP: {
+        ObjectNode o = NODES.objectNode();
+        ((Map<?, ?>) v).forEach((k, mv) -> o.set(k.toString(), fromAvro(s.getValueType(), mv)));
+        return o;
+      }
+      case FIXED: {
+        ByteBuffer b = ByteBuffer.wrap(((GenericFixed) v).bytes());
+        return NODES.textNode(new UUID(b.getLong(), b.getLong()).toString());
+      }
+      case LONG:
+        if ("timestamp-micros".equals(logical)) {
+          long micros = (Long) v;
+          return NODES.textNode(Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+              Math.floorMod(micros, 1_000_000L) * 1_000L).toString());
+        }
+        return NODES.numberNode((Long) v);
+      case INT:
+        return NODES.numberNode((Integer) v);
+      case BOOLEAN:
+        return NODES.booleanNode((Boolean) v);
+      case DOUBLE:
+        return NODES.numberNode((Double) v);
+      case ENUM:
+      case STRING:
+        return NODES.textNode(v.toString());
+      default:
+        throw new IllegalArgumentException("Unsupported Avro type " + s.getType());
+    }
+  }
+
+  private static Schema load(String classpath) {
+    try (InputStream is = EventCodec.class.getClassLoader().getResourceAsStream(classpath)) {
+      if (is == null)
+        throw new IllegalArgumentException("Schema not found on classpath: " + classpath);
+      return new Schema.Parser().parse(is);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package dev.propprice.co.schema;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Binary form of the Kafka headers of an outbox row (ing.outbox.kafka_headers,
+ * see V13): per header a 2-byte key length, the UTF-8 key, a 4-byte value
+ * length and the UTF-8 value, big-endian. Written once at insert time so the
+ * relays build record headers without touching JSON.
+ */
+public final class HeaderCodec {
+
+  private HeaderCodec() {
+  }
+
+  /** Encodes the fields of a flat JSON object, values as text. */
+  public static byte[] encode(JsonNode headers) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+    for (var e : headers.properties()) {
+      byte[] k = e.getKey().getBytes(StandardCharsets.UTF_8);
+      byte[] v = e.getValue().asText().getBytes(StandardCharsets.UTF_8);
+      out.writeBytes(ByteBuffer.allocate(2).putShort((short) k.length).array());
+      out.writeBytes(k);
+      out.writeBytes(ByteBuffer.allocate(4).putInt(v.length).array());
+      out.writeBytes(v);
+    }
+    return out.toByteArray();
+  }
+
+  public static RecordHeaders decode(byte[] encoded) {
+    RecordHeaders headers = new RecordHeaders();
+    if (encoded == null)
+      return headers;
+    ByteBuffer buf = ByteBuffer.wrap(encoded);
+    while (buf.hasRemaining()) {
+      int klen = Short.toUnsignedInt(buf.getShort());
+      String key = new String(encoded, buf.position(), klen, StandardCharsets.UTF_8);
+      buf.position(buf.position() + klen);
+      int vlen = buf.getInt();
+      headers.add(key, Arrays.copyOfRange(encoded, buf.position(), buf.position() + vlen));
+      buf.position(buf.position() + vlen);
+    }
+    return headers;
+  }
+}
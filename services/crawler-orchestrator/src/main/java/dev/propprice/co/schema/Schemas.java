@@ -8,4 +8,6 @@ public final class Schemas {
 
   public static final JsonSchema JOB_DISPATCHED_V1 = SchemaValidator.load("schemas/acq.job.dispatched.v1.schema.json");
   public static final JsonSchema RAW_PAGE_V1 = SchemaValidator.load("schemas/acq.raw.page.v1.schema.json");
+  public static final JsonSchema FRONTIER_DISCOVERED_V1 = SchemaValidator
+      .load("schemas/acq.frontier.discovered.v1.schema.json");
 }
@@ -0,0 +1,46 @@
+package dev.propprice.co.util;
+
+/**
+ * Poisson change-rate estimate for a page that is only observed when fetched.
+ * Each fetch either saw the content change since the previous fetch or not;
+ * changes and observed days are kept as exponentially decayed sums so the
+ * estimate follows pages whose behaviour shifts. A prior of
+ * {@code priorChanges} per {@code priorDays} keeps young URLs near a baseline
+ * instead of swinging on one observation; {@link #priorChanges} gives the prior
+ * that maps to a given baseline interval.
+ *
+ * The interval asked for is the time until a change since the last fetch
+ * reaches probability {@code p}: {@code t = -ln(1 - p) / rate}.
+ */
+public final class ChangeRateEstimator {
+
+  private ChangeRateEstimator() {
+  }
+
+  /** Decayed history after one more fetch. */
+  public static History observe(History prev, boolean changed, double elapsedDays, double decay) {
+    return new History(
+        prev.changes() * decay + (changed ? 1 : 0),
+        prev.exposureDays() * decay + Math.max(0, elapsedDays));
+  }
+
+  /** Estimated changes per day. */
+  public static double rate(History h, double priorChanges, double priorDays) {
+    return (h.changes() + priorChanges) / (h.exposureDays() + priorDays);
+  }
+
+  /** Prior changes per baseline period such that the prior alone yields the baseline interval. */
+  public static double priorChanges(double p) {
+    return -Math.log(1 - p);
+  }
+
+  /** Days until a change is {@code p} likely, clamped to [{@code minDays}, {@code maxDays}]. */
+  public static double intervalDays(double ratePerDay, double p, double minDays, double maxDays) {
+    double t = ratePerDay <= 0 ? maxDays : -Math.log(1 - p) / ratePerDay;
+    return Math.max(minDays, Math.min(maxDays, t));
+  }
+
+  public record History(double changes, double exposureDays) {
+    public static final History EMPTY = new History(0, 0);
+  }
+}
@@ -0,0 +1,123 @@
+package dev.propprice.co.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck). Level 0 has {@code wheelSize}
+ * buckets of {@code tickMs}; each overflow level covers the full span of the
+ * level below per bucket. Insert and expiry are O(1) per item regardless of
+ * how far out the deadline is; entries cascade down a level as their bucket
+ * comes due.
+ *
+ * Time only moves when {@link #advance(long)} is called. Not thread-safe.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+  private final long tickMs;
+  private final int wheelSize;
+  private final long interval;
+  private final List<ArrayDeque<Entry<T>>> buckets;
+  private final List<T> due = new ArrayList<>();
+  private long currentTime;
+  private HierarchicalTimingWheel<T> overflow;
+  private int size;
+
+  public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+    if (tickMs <= 0 || wheelSize <= 1)
+      throw new IllegalArgumentException("tickMs must be > 0 and wheelSize > 1");
+    this.tickMs = tickMs;
+    this.wheelSize = wheelSize;
+    this.interval = tickMs * wheelSize;
+    this.currentTime = startMs - (startMs % tickMs);
+    this.buckets = new ArrayList<>(wheelSize);
+    for (int i = 0; i < wheelSize; i++) {
+      buckets.add(new ArrayDeque<>());
+    }
+  }
+
+  /** Schedule {@code item} to expire at {@code deadlineMs}; past deadlines expire on the next advance. */
+  public void schedule(T item, long deadlineMs) {
+    if (!add(new Entry<>(item, deadlineMs))) {
+      due.add(item);
+    }
+    size++;
+  }
+
+  /** Move the wheel to {@code nowMs} and return every item whose deadline has passed. */
+  public List<T> advance(long nowMs) {
+    while (currentTime + tickMs <= nowMs) {
+      currentTime += tickMs;
+      for (Entry<T> e : drain(bucketFor(currentTime))) {
+        if (!add(e))
+          due.add(e.item);
+      }
+      if (overflow != null) {
+        for (Entry<T> e : overflow.advanceLevel(currentTime)) {
+          if (!add(e))
+            due.add(e.item);
+        }
+      }
+    }
+    List<T> out = new ArrayList<>(due);
+    due.clear();
+    size -= out.size();
+    return out;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** @return false if the entry is already due at this level's resolution */
+  private boolean add(Entry<T> e) {
+    if (e.deadlineMs < currentTime + tickMs)
+      return false;
+    if (e.deadlineMs < currentTime + interval) {
+      bucketFor(e.deadlineMs).add(e);
+      return true;
+    }
+    if (overflow == null) {
+      overflow = new HierarchicalTimingWheel<>(interval, wheelSize, currentTime);
+    }
+    overflow.addOrKeep(e);
+    return true;
+  }
+
+  /** Overflow levels never expire entries themselves; they hand them back down. */
+  private void addOrKeep(Entry<T> e) {
+    if (!add(e)) {
+      bucketFor(currentTime).add(e);
+    }
+  }
+
+  private List<Entry<T>> advanceLevel(long nowMs) {
+    List<Entry<T>> cascade = new ArrayList<>();
+    while (currentTime + tickMs <= nowMs) {
+      currentTime += tickMs;
+      cascade.addAll(drain(bucketFor(currentTime)));
+      if (overflow != null) {
+        for (Entry<T> e : overflow.advanceLevel(currentTime)) {
+          addOrKeep(e);
+        }
+      }
+    }
+    // entries sitting in the bucket of the current slot are due for cascading too
+    cascade.addAll(drain(bucketFor(currentTime)));
+    return cascade;
+  }
+
+  private ArrayDeque<Entry<T>> bucketFor(long timeMs) {
+    return buckets.get((int) ((timeMs / tickMs) % wheelSize));
+  }
+
+  private static <T> List<Entry<T>> drain(ArrayDeque<Entry<T>> bucket) {
+    List<Entry<T>> out = new ArrayList<>(bucket);
+    bucket.clear();
+    return out;
+  }
+
+  private record Entry<T>(T item, long deadlineMs) {
+  }
+}
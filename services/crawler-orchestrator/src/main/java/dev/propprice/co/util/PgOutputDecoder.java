@@ -0,0 +1,110 @@
+package dev.propprice.co.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decoder for the {@code pgoutput} logical replication protocol (proto_version
+ * 1). Only what an insert-only publication needs is decoded: Begin, Commit,
+ * Relation and Insert; every other message decodes to {@code null}.
+ *
+ * Relation messages are remembered so that inserts come back as column name
+ * to text value maps. Not thread-safe.
+ */
+public final class PgOutputDecoder {
+
+  public sealed interface Message permits Begin, Commit, Insert {
+  }
+
+  /** Start of a transaction; {@code finalLsn} is the LSN of its commit record. */
+  public record Begin(long finalLsn, int xid) implements Message {
+  }
+
+  /** End of a transaction; {@code endLsn} is the position to confirm once it is handled. */
+  public record Commit(long commitLsn, long endLsn) implements Message {
+  }
+
+  /** A new row, with values in Postgres text format ({@code null} for SQL NULL). */
+  public record Insert(String schema, String table, Map<String, String> values) implements Message {
+  }
+
+  private record Relation(String schema, String table, List<String> columns) {
+  }
+
+  private final Map<Integer, Relation> relations = new HashMap<>();
+
+  public Message decode(ByteBuffer buf) {
+    byte type = buf.get();
+    return switch (type) {
+      case 'B' -> {
+        long finalLsn = buf.getLong();
+        buf.getLong(); // commit timestamp
+        yield new Begin(finalLsn, buf.getInt());
+      }
+      case 'C' -> {
+        buf.get(); // flags
+        long commitLsn = buf.getLong();
+        yield new Commit(commitLsn, buf.getLong());
+      }
+      case 'R' -> {
+        readRelation(buf);
+        yield null;
+      }
+      case 'I' -> readInsert(buf);
+      default -> null; // origin, type, update, delete, truncate, message
+    };
+  }
+
+  private void readRelation(ByteBuffer buf) {
+    int relId = buf.getInt();
+    String schema = readString(buf);
+    String table = readString(buf);
+    buf.get(); // replica identity
+    int n = buf.getShort();
+    String[] columns = new String[n];
+    for (int i = 0; i < n; i++) {
+      buf.get(); // flags
+      columns[i] = readString(buf);
+      buf.getInt(); // type oid
+      buf.getInt(); // type modifier
+    }
+    relations.put(relId, new Relation(schema, table, List.of(columns)));
+  }
+
+  private Insert readInsert(ByteBuffer buf) {
+    int relId = buf.getInt();
+    Relation rel = relations.get(relId);
+    if (rel == null)
+      throw new IllegalStateException("Insert for unknown relation " + relId);
+    buf.get(); // 'N'
+    int n = buf.getShort();
+    Map<String, String> values = new HashMap<>(n * 2);
+    for (int i = 0; i < n; i++) {
+      byte kind = buf.get();
+      String value = switch (kind) {
+        case 'n', 'u' -> null;
+        case 't' -> {
+          byte[] bytes = new byte[buf.getInt()];
+          buf.get(bytes);
+          yield new String(bytes, StandardCharsets.UTF_8);
+        }
+        default -> throw new IllegalStateException("Unsupported tuple column kind " + (char) kind);
+      };
+      values.put(rel.columns().get(i), value);
+    }
+    return new Insert(rel.schema(), rel.table(), values);
+  }
+
+  private static String readString(ByteBuffer buf) {
+    int start = buf.position();
+    while (buf.get() != 0) {
+      // scan to the terminator
+    }
+    byte[] bytes = new byte[buf.position() - start - 1];
+    buf.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
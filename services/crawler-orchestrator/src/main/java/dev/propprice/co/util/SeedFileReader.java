@@ -0,0 +1,292 @@
+package dev.propprice.co.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streaming reader for seed files: sitemaps (urlset or sitemapindex, via
+ * StAX), NDJSON and CSV, each gzipped or plain (detected from the content).
+ * Memory use does not depend on file size. Every call to {@link #next()}
+ * consumes one record, including unparseable ones (returned with a null url),
+ * so a record count is a stable position to resume from. Not thread-safe.
+ *
+ * NDJSON lines are objects with {@code url} and optional {@code task_type},
+ * {@code segment} and {@code priority}. CSV rows have the same columns, in that
+ * order unless the first line is a header naming them.
+ */
+public final class SeedFileReader implements Closeable {
+
+  public enum Format {
+    sitemap, ndjson, csv;
+
+    /** From the file name, ignoring a trailing .gz. */
+    public static Format of(String fileName) {
+      String name = fileName.toLowerCase(Locale.ROOT);
+      if (name.endsWith(".gz"))
+        name = name.substring(0, name.length() - 3);
+      if (name.endsWith(".xml"))
+        return sitemap;
+      if (name.endsWith(".ndjson") || name.endsWith(".jsonl"))
+        return ndjson;
+      if (name.endsWith(".csv"))
+        return csv;
+      throw new IllegalArgumentException("Unknown seed file type: " + fileName);
+    }
+  }
+
+  /**
+   * One record. {@code sitemap} marks a child sitemap listed by an index; its
+   * url names the file to read next. Null fields mean the run's default.
+   */
+  public record Entry(String url, String taskType, String segment, Integer priority, boolean sitemap) {
+  }
+
+  private interface Source {
+    Entry next() throws IOException;
+  }
+
+  private static final ObjectMapper OM = new ObjectMapper();
+
+  private final CountingInputStream raw;
+  private final InputStream in;
+  private final Source source;
+  private final AutoCloseable parser;
+
+  private SeedFileReader(Path path, Format format) throws IOException {
+    raw = new CountingInputStream(Files.newInputStream(path));
+    BufferedInputStream buffered = new BufferedInputStream(raw, 64 * 1024);
+    buffered.mark(2);
+    boolean gzip = buffered.read() == 0x1f && buffered.read() == 0x8b;
+    buffered.reset();
+    in = gzip ? new BufferedInputStream(new GZIPInputStream(buffered, 64 * 1024), 64 * 1024) : buffered;
+
+    switch (format) {
+      case sitemap -> {
+        XMLStreamReader xml = sitemapParser(in);
+        parser = xml::close;
+        source = () -> nextLoc(xml);
+      }
+      case ndjson -> {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        parser = lines;
+        source = () -> nextJson(lines);
+      }
+      default -> {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        parser = lines;
+        source = new CsvSource(lines);
+      }
+    }
+  }
+
+  public static SeedFileReader open(Path path, Format format) throws IOException {
+    return new SeedFileReader(path, format);
+  }
+
+  /** @return the next record, or null at the end of the file */
+  public Entry next() throws IOException {
+    return source.next();
+  }
+
+  /** Bytes consumed from the file itself (compressed size for gzip). */
+  public long bytesRead() {
+    return raw.count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      parser.close();
+    } catch (Exception e) {
+      // the stream below is closed either way
+    } finally {
+      in.close();
+    }
+  }
+
+  private static XMLStreamReader sitemapParser(InputStream in) throws IOException {
+    XMLInputFactory f = XMLInputFactory.newFactory();
+    f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    try {
+      return f.createXMLStreamReader(in);
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static Entry nextLoc(XMLStreamReader xml) throws IOException {
+    try {
+      boolean index = false;
+      while (xml.hasNext()) {
+        if (xml.next() != XMLStreamConstants.START_ELEMENT)
+          continue;
+        String name = xml.getLocalName();
+        if ("sitemap".equals(name))
+          index = true;
+        else if ("url".equals(name))
+          index = false;
+        else if ("loc".equals(name))
+          return new Entry(xml.getElementText().strip(), null, null, null, index);
+      }
+      return null;
+    } catch (XMLStreamException e) {
+      throw new IOException("Malformed sitemap: " + e.getMessage(), e);
+    }
+  }
+
+  private static Entry nextJson(BufferedReader lines) throws IOException {
+    String line;
+    do {
+      line = lines.readLine();
+      if (line == null)
+        return null;
+    } while (line.isBlank());
+    try {
+      JsonNode n = OM.readTree(line);
+      return new Entry(text(n, "url"), text(n, "task_type"), text(n, "segment"),
+          n.hasNonNull("priority") ? n.get("priority").asInt() : null, false);
+    } catch (IOException e) {
+      return new Entry(null, null, null, null, false);
+    }
+  }
+
+  private static String text(JsonNode n, String field) {
+    JsonNode v = n.get(field);
+    return v == null || v.isNull() ? null : v.asText();
+  }
+
+  private static final class CsvSource implements Source {
+    private static final List<String> COLUMNS = List.of("url", "task_type", "segment", "priority");
+
+    private final BufferedReader lines;
+    private int[] columns; // position of url, task_type, segment, priority; -1 when absent
+
+    CsvSource(BufferedReader lines) {
+      this.lines = lines;
+    }
+
+    @Override
+    public Entry next() throws IOException {
+      String line;
+      do {
+        line = lines.readLine();
+        if (line == null)
+          return null;
+      } while (line.isBlank());
+      List<String> fields = fields(line);
+      if (columns == null) {
+        columns = new int[] { 0, 1, 2, 3 };
+        // a header names the url column somewhere; a data row never has that as a value
+        if (indexOf(fields, "url") >= 0) {
+          for (int i = 0; i < COLUMNS.size(); i++) {
+            columns[i] = indexOf(fields, COLUMNS.get(i));
+          }
+          return next();
+        }
+      }
+      try {
+        String priority = field(fields, columns[3]);
+        return new Entry(field(fields, columns[0]), field(fields, columns[1]), field(fields, columns[2]),
+            priority == null ? null : Integer.valueOf(priority), false);
+      } catch (NumberFormatException e) {
+        return new Entry(null, null, null, null, false);
+      }
+    }
+
+    private static int indexOf(List<String> header, String column) {
+      for (int i = 0; i < header.size(); i++) {
+        if (column.equalsIgnoreCase(header.get(i).strip()))
+          return i;
+      }
+      return -1;
+    }
+
+    private static String field(List<String> fields, int i) {
+      if (i < 0 || i >= fields.size())
+        return null;
+      String v = fields.get(i).strip();
+      return v.isEmpty() ? null : v;
+    }
+
+    /** RFC 4180 fields of one line; quoted fields may contain commas and doubled quotes. */
+    private static List<String> fields(String line) {
+      List<String> out = new ArrayList<>();
+      StringBuilder sb = new StringBuilder();
+      boolean quoted = false;
+      for (int i = 0; i < line.length(); i++) {
+        char c = line.charAt(i);
+        if (quoted) {
+          if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+            sb.append('"');
+            i++;
+          } else if (c == '"') {
+            quoted = false;
+          } else {
+            sb.append(c);
+          }
+        } else if (c == '"') {
+          quoted = true;
+        } else if (c == ',') {
+          out.add(sb.toString());
+          sb.setLength(0);
+        } else {
+          sb.append(c);
+        }
+      }
+      out.add(sb.toString());
+      return out;
+    }
+  }
+
+  private static final class CountingInputStream extends FilterInputStream {
+    long count;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0)
+        count++;
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0)
+        count += n;
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
+}
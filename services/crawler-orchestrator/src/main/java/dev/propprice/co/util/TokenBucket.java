@@ -0,0 +1,45 @@
+package dev.propprice.co.util;
+
+/**
+ * In-process token bucket with the arithmetic of the Redis script in
+ * {@code RedisTokenBucket}: a missing bucket starts full, every call refills
+ * {@code elapsed * rate} (capped at capacity) and moves the timestamp, also
+ * when it is denied. Keep the two in step. Time is passed in, so callers can
+ * drive it with a virtual clock. Not thread-safe.
+ */
+public final class TokenBucket {
+
+  private final double tokensPerSec;
+  private final int capacity;
+  private double tokens = Double.NaN;
+  private long ts;
+
+  public TokenBucket(double tokensPerSec, int capacity) {
+    this.tokensPerSec = tokensPerSec;
+    this.capacity = capacity;
+  }
+
+  /** @return true if one token was consumed at {@code nowMs} */
+  public boolean allow(long nowMs) {
+    if (Double.isNaN(tokens)) {
+      tokens = capacity;
+      ts = nowMs;
+    }
+    long delta = Math.max(0, nowMs - ts);
+    tokens = Math.min(capacity, tokens + delta * (tokensPerSec / 1000.0));
+    ts = nowMs;
+    if (tokens < 1.0)
+      return false;
+    tokens -= 1.0;
+    return true;
+  }
+
+  /** Earliest time at which {@link #allow} can succeed; Long.MAX_VALUE if it never can. */
+  public long nextTokenAt() {
+    if (Double.isNaN(tokens) || tokens >= 1.0)
+      return ts;
+    if (tokensPerSec <= 0 || capacity < 1)
+      return Long.MAX_VALUE;
+    return ts + (long) Math.ceil((1.0 - tokens) * 1000.0 / tokensPerSec);
+  }
+}
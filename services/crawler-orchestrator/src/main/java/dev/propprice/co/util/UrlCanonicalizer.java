@@ -0,0 +1,61 @@
+package dev.propprice.co.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+
+/**
+ * Canonical form of a frontier URL, so the same page listed in different ways
+ * hashes to the same frontier row: lower-case scheme and host, no default
+ * port, no fragment, dot segments resolved, an empty path as "/", and
+ * tracking parameters (utm_*, gclid, fbclid) removed with the remaining query
+ * kept in its original order. Percent-encoding is left as is.
+ */
+public final class UrlCanonicalizer {
+
+  private UrlCanonicalizer() {
+  }
+
+  /** @return the canonical URL, or null when {@code raw} is not an absolute http(s) URL */
+  public static String canonicalize(String raw) {
+    if (raw == null || raw.isBlank())
+      return null;
+    URI uri;
+    try {
+      uri = new URI(raw.strip()).normalize();
+    } catch (URISyntaxException e) {
+      return null;
+    }
+    String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase(Locale.ROOT);
+    if (!"http".equals(scheme) && !"https".equals(scheme) || uri.getRawAuthority() == null || uri.getHost() == null)
+      return null;
+
+    StringBuilder sb = new StringBuilder(raw.length()).append(scheme).append("://");
+    if (uri.getRawUserInfo() != null)
+      sb.append(uri.getRawUserInfo()).append('@');
+    sb.append(uri.getHost().toLowerCase(Locale.ROOT));
+    int port = uri.getPort();
+    if (port != -1 && !(port == 80 && "http".equals(scheme)) && !(port == 443 && "https".equals(scheme)))
+      sb.append(':').append(port);
+    String path = uri.getRawPath();
+    sb.append(path == null || path.isEmpty() ? "/" : path);
+
+    String query = uri.getRawQuery();
+    if (query != null) {
+      String sep = "?";
+      for (String param : query.split("&")) {
+        if (param.isEmpty() || isTracking(param))
+          continue;
+        sb.append(sep).append(param);
+        sep = "&";
+      }
+    }
+    return sb.toString();
+  }
+
+  private static boolean isTracking(String param) {
+    int eq = param.indexOf('=');
+    String name = (eq < 0 ? param : param.substring(0, eq)).toLowerCase(Locale.ROOT);
+    return name.startsWith("utm_") || name.equals("gclid") || name.equals("fbclid");
+  }
+}
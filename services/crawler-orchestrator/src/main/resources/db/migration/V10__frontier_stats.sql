@@ -0,0 +1,92 @@
+-- ===== Frontier backlog statistics =====
+-- Row counts per portal x task_type x segment x status, bucketed by the hour
+-- from which the URL is due (non-active rows use the '-infinity' bucket).
+-- A row trigger appends +1/-1 deltas whenever a row enters, leaves or changes
+-- bucket; FrontierStatsService folds them into ing.frontier_stats every few
+-- seconds and periodically recounts from ing.frontier to repair drift (e.g.
+-- after a policy's min_days_between_runs changes).
+
+-- Due-since hour: eligible by schedule, not before first seen, not while leased.
+create or replace function ing.frontier_due_bucket(
+  p_portal text, p_status ing.ing_frontier_status, p_next_eligible_at timestamptz,
+  p_last_run_at timestamptz, p_first_seen_at timestamptz, p_lease_until timestamptz)
+returns timestamptz
+language sql stable as $$
+  select case when p_status <> 'active' then '-infinity'::timestamptz
+         else date_trunc('hour', greatest(
+                coalesce(p_next_eligible_at,
+                         p_last_run_at + interval '1 day' * coalesce(
+                           (select min_days_between_runs from ing.portal_policy where portal = p_portal), 7)),
+                p_first_seen_at,
+                p_lease_until))
+         end
+$$;
+
+create table if not exists ing.frontier_stats (
+  portal     text not null,
+  task_type  ing.ing_task_type not null,
+  segment    ing.ing_segment not null,
+  status     ing.ing_frontier_status not null,
+  bucket     timestamptz not null,
+  n          bigint not null,
+  constraint pk_frontier_stats primary key (portal, task_type, segment, status, bucket)
+);
+
+-- Append-only so concurrent frontier writers never contend on a counter row
+create table if not exists ing.frontier_stats_delta (
+  id         bigserial primary key,
+  portal     text not null,
+  task_type  ing.ing_task_type not null,
+  segment    ing.ing_segment not null,
+  status     ing.ing_frontier_status not null,
+  bucket     timestamptz not null,
+  d          int not null
+);
+
+create or replace function ing.capture_frontier_stats() returns trigger
+language plpgsql as $$
+declare
+  old_bucket timestamptz;
+  new_bucket timestamptz;
+begin
+  if tg_op <> 'INSERT' then
+    old_bucket := ing.frontier_due_bucket(old.portal, old.status, old.next_eligible_at,
+                                          old.last_run_at, old.first_seen_at, old.lease_until);
+  end if;
+  if tg_op <> 'DELETE' then
+    new_bucket := ing.frontier_due_bucket(new.portal, new.status, new.next_eligible_at,
+                                          new.last_run_at, new.first_seen_at, new.lease_until);
+  end if;
+
+  if tg_op = 'UPDATE'
+     and old.portal = new.portal and old.task_type = new.task_type and old.segment = new.segment
+     and old.status = new.status and old_bucket = new_bucket then
+    return null;
+  end if;
+
+  if tg_op <> 'INSERT' then
+    insert into ing.frontier_stats_delta(portal, task_type, segment, status, bucket, d)
+    values (old.portal, old.task_type, old.segment, old.status, old_bucket, -1);
+  end if;
+  if tg_op <> 'DELETE' then
+    insert into ing.frontier_stats_delta(portal, task_type, segment, status, bucket, d)
+    values (new.portal, new.task_type, new.segment, new.status, new_bucket, 1);
+  end if;
+  return null;
+end $$;
+
+-- Initial counts
+insert into ing.frontier_stats(portal, task_type, segment, status, bucket, n)
+select portal, task_type, segment, status,
+       ing.frontier_due_bucket(portal, status, next_eligible_at, last_run_at, first_seen_at, lease_until),
+       count(*)
+from ing.frontier
+group by 1, 2, 3, 4, 5
+on conflict do nothing;
+
+drop trigger if exists trg_frontier_stats on ing.frontier;
+create trigger trg_frontier_stats
+  after insert or delete
+     or update of portal, task_type, segment, status, next_eligible_at, last_run_at, first_seen_at, lease_until
+  on ing.frontier
+  for each row execute function ing.capture_frontier_stats();
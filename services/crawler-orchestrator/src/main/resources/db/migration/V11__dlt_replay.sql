@@ -0,0 +1,31 @@
+-- ===== DLT replay runs =====
+-- One row per replay of acq.raw.page.DLT. end_offsets is fixed when the run
+-- starts (exclusive, per partition); checkpoint is the next offset to replay
+-- per partition and is written after every batch, so a paused, failed or
+-- orphaned run resumes where it stopped.
+create table if not exists ing.dlt_replay (
+  replay_id     uuid primary key,
+  topic         text not null,
+  status        text not null check (status in ('running','paused','completed','failed')),
+  rate_per_sec  int not null,
+  batch_size    int not null,
+  max_failures  int not null,
+  end_offsets   jsonb not null,
+  checkpoint    jsonb not null,
+  processed     bigint not null default 0,
+  failed        bigint not null default 0,
+  owner         text,
+  heartbeat_at  timestamptz,
+  last_error    text,
+  created_at    timestamptz not null default now(),
+  updated_at    timestamptz not null default now()
+);
+
+create table if not exists ing.dlt_replay_failure (
+  replay_id     uuid not null references ing.dlt_replay(replay_id) on delete cascade,
+  kafka_partition int not null,
+  kafka_offset  bigint not null,
+  error         text not null,
+  failed_at     timestamptz not null default now(),
+  constraint pk_dlt_replay_failure primary key (replay_id, kafka_partition, kafka_offset)
+);
@@ -0,0 +1,31 @@
+-- Explicit outbox state: status plus the time of the next attempt, written by
+-- the relays on every attempt. Replaces matching last_error 'DEAD:%' and the
+-- per-attempt backoff ORs over created_at, which no index could serve.
+alter table ing.outbox add column if not exists status text not null default 'pending';
+alter table ing.outbox add column if not exists next_attempt_at timestamptz not null default now();
+alter table ing.outbox add constraint outbox_status_chk check (status in ('pending','sent','dead'));
+
+-- Existing rows: the last attempt time is unknown, so keep the old schedule
+-- (backoff measured from created_at) for pending retries.
+update ing.outbox set
+  status = case
+    when sent_at is not null then 'sent'
+    when last_error like 'DEAD:%' or attempts >= 10 then 'dead'
+    else 'pending'
+  end,
+  next_attempt_at = coalesce(created_at, now()) + case
+    when attempts = 0 then interval '0'
+    when attempts = 1 then interval '1 minute'
+    when attempts = 2 then interval '5 minutes'
+    when attempts = 3 then interval '15 minutes'
+    when attempts = 4 then interval '1 hour'
+    when attempts = 5 then interval '4 hours'
+    else interval '8 hours'
+  end;
+
+-- Relay fetch: range scan over due rows only.
+create index if not exists ix_outbox_pending_due on ing.outbox(next_attempt_at, id) where status = 'pending';
+-- Dead-letter count and inspection.
+create index if not exists ix_outbox_dead on ing.outbox(id) where status = 'dead';
+-- Retention cleanup of sent rows.
+create index if not exists ix_outbox_sent_at on ing.outbox(sent_at) where status = 'sent';
@@ -0,0 +1,12 @@
+-- Kafka headers pre-encoded at insert time (format in HeaderCodec), so the
+-- relays pass them to the producer without parsing the headers jsonb, which
+-- stays for inspection.
+alter table ing.outbox add column if not exists kafka_headers bytea not null default ''::bytea;
+
+-- Rows that may still be relayed.
+update ing.outbox o set kafka_headers = coalesce((
+  select string_agg(int2send(octet_length(convert_to(e.key, 'UTF8'))::int2) || convert_to(e.key, 'UTF8')
+                    || int4send(octet_length(convert_to(e.value, 'UTF8'))) || convert_to(e.value, 'UTF8'),
+                    ''::bytea)
+  from jsonb_each_text(o.headers) e), ''::bytea)
+where status in ('pending', 'dead');
@@ -0,0 +1,36 @@
+-- ===== Frontier lifecycle: active -> quarantined -> retired -> archived =====
+-- FrontierLifecycleManager quarantines URLs that reached
+-- co.dispatcher.max-consecutive-failures, reactivates them for one more try
+-- at retest_at (backing off per quarantine), retires them after
+-- co.frontier.lifecycle.retire-after-quarantines and moves long-retired rows
+-- to ing.frontier_archive. POST /v1/frontier/reactivate reverses any step.
+alter table ing.frontier
+  add column if not exists quarantined_at timestamptz,
+  add column if not exists retest_at timestamptz,
+  add column if not exists quarantine_count int not null default 0,
+  add column if not exists retired_at timestamptz;
+
+-- quarantine candidates (failing active rows only)
+create index if not exists idx_frontier_failing
+  on ing.frontier (consecutive_failures)
+  where status = 'active' and consecutive_failures > 0;
+
+create index if not exists idx_frontier_retest
+  on ing.frontier (retest_at)
+  where status = 'quarantined';
+
+create index if not exists idx_frontier_retired
+  on ing.frontier (retired_at)
+  where status = 'retired';
+
+-- Cold storage: the full frontier row as jsonb, compressed even when small
+create table if not exists ing.frontier_archive (
+  portal       text not null,
+  task_type    ing.ing_task_type not null,
+  url_hash     char(32) not null,
+  archived_at  timestamptz not null default now(),
+  row_data     jsonb not null,
+  constraint pk_frontier_archive primary key (portal, task_type, url_hash)
+);
+alter table ing.frontier_archive alter column row_data set compression lz4;
+alter table ing.frontier_archive set (toast_tuple_target = 128);
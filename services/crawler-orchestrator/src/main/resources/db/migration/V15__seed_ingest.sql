@@ -0,0 +1,39 @@
+-- ===== Seed ingestion runs =====
+-- One run loads a list of local seed files (sitemap index/urlset XML, NDJSON,
+-- CSV; gzipped or plain) into ing.frontier. Files are processed in ordinal
+-- order; children of a sitemap index are appended as further files of the same
+-- run. records_done is the number of records of the file already merged and is
+-- written with every batch, so a paused, failed or orphaned run resumes by
+-- skipping that many records.
+create table if not exists ing.seed_run (
+  run_id        uuid primary key,
+  portal        text not null,
+  task_type     ing.ing_task_type not null,
+  segment       ing.ing_segment not null,
+  priority      int not null,
+  status        text not null check (status in ('running','paused','completed','failed')),
+  owner         text,
+  heartbeat_at  timestamptz,
+  last_error    text,
+  created_at    timestamptz not null default now(),
+  updated_at    timestamptz not null default now()
+);
+
+create table if not exists ing.seed_file (
+  run_id        uuid not null references ing.seed_run(run_id) on delete cascade,
+  ordinal       int not null,
+  path          text not null,
+  format        text not null check (format in ('sitemap','ndjson','csv')),
+  status        text not null default 'pending'
+                check (status in ('pending','running','done','failed','missing')),
+  records_done  bigint not null default 0,
+  merged        bigint not null default 0,
+  invalid       bigint not null default 0,
+  bytes_read    bigint not null default 0,
+  bytes_total   bigint,
+  error         text,
+  started_at    timestamptz,
+  finished_at   timestamptz,
+  constraint pk_seed_file primary key (run_id, ordinal),
+  constraint uq_seed_file_path unique (run_id, path)
+);
@@ -0,0 +1,84 @@
+-- ===== Frontier stats: one delta per group per statement =====
+-- The V10 row trigger looked up the portal's policy and appended two delta rows
+-- for every frontier row a claim, result or upsert touched. Statement triggers
+-- with transition tables instead join the policy once per statement and append
+-- one net delta per (portal, task_type, segment, status, bucket); rows whose
+-- group and bucket did not change cancel out and write nothing.
+
+drop trigger if exists trg_frontier_stats on ing.frontier;
+
+-- Due-since hour with the portal's min_days_between_runs passed in; no table access
+create or replace function ing.frontier_due_bucket(
+  p_status ing.ing_frontier_status, p_next_eligible_at timestamptz, p_last_run_at timestamptz,
+  p_first_seen_at timestamptz, p_lease_until timestamptz, p_min_days_between_runs int)
+returns timestamptz
+language sql immutable as $$
+  select case when p_status <> 'active' then '-infinity'::timestamptz
+         else date_trunc('hour', greatest(
+                coalesce(p_next_eligible_at, p_last_run_at + interval '1 day' * p_min_days_between_runs),
+                p_first_seen_at,
+                p_lease_until))
+         end
+$$;
+
+drop function if exists ing.frontier_due_bucket(
+  text, ing.ing_frontier_status, timestamptz, timestamptz, timestamptz, timestamptz);
+
+create or replace function ing.capture_frontier_stats() returns trigger
+language plpgsql as $$
+begin
+  -- transition tables exist only for the events they were declared on
+  if tg_op = 'INSERT' then
+    insert into ing.frontier_stats_delta(portal, task_type, segment, status, bucket, d)
+    select r.portal, r.task_type, r.segment, r.status,
+           ing.frontier_due_bucket(r.status, r.next_eligible_at, r.last_run_at, r.first_seen_at, r.lease_until,
+                                   coalesce(p.min_days_between_runs, 7)),
+           count(*)
+    from new_rows r
+    left join ing.portal_policy p on p.portal = r.portal
+    group by 1, 2, 3, 4, 5;
+  elsif tg_op = 'DELETE' then
+    insert into ing.frontier_stats_delta(portal, task_type, segment, status, bucket, d)
+    select r.portal, r.task_type, r.segment, r.status,
+           ing.frontier_due_bucket(r.status, r.next_eligible_at, r.last_run_at, r.first_seen_at, r.lease_until,
+                                   coalesce(p.min_days_between_runs, 7)),
+           -count(*)
+    from old_rows r
+    left join ing.portal_policy p on p.portal = r.portal
+    group by 1, 2, 3, 4, 5;
+  else
+    insert into ing.frontier_stats_delta(portal, task_type, segment, status, bucket, d)
+    select r.portal, r.task_type, r.segment, r.status,
+           ing.frontier_due_bucket(r.status, r.next_eligible_at, r.last_run_at, r.first_seen_at, r.lease_until,
+                                   coalesce(p.min_days_between_runs, 7)),
+           sum(r.d)
+    from (select portal, task_type, segment, status, next_eligible_at, last_run_at, first_seen_at, lease_until, -1 as d
+          from old_rows
+          union all
+          select portal, task_type, segment, status, next_eligible_at, last_run_at, first_seen_at, lease_until, 1
+          from new_rows) r
+    left join ing.portal_policy p on p.portal = r.portal
+    group by 1, 2, 3, 4, 5
+    having sum(r.d) <> 0;
+  end if;
+  return null;
+end $$;
+
+-- transition tables rule out column lists and multi-event triggers: one trigger per event
+drop trigger if exists trg_frontier_stats_ins on ing.frontier;
+create trigger trg_frontier_stats_ins
+  after insert on ing.frontier
+  referencing new table as new_rows
+  for each statement execute function ing.capture_frontier_stats();
+
+drop trigger if exists trg_frontier_stats_upd on ing.frontier;
+create trigger trg_frontier_stats_upd
+  after update on ing.frontier
+  referencing old table as old_rows new table as new_rows
+  for each statement execute function ing.capture_frontier_stats();
+
+drop trigger if exists trg_frontier_stats_del on ing.frontier;
+create trigger trg_frontier_stats_del
+  after delete on ing.frontier
+  referencing old table as old_rows
+  for each statement execute function ing.capture_frontier_stats();
@@ -0,0 +1,17 @@
+-- ===== Frontier stats: due bucket is stable, not immutable =====
+-- date_trunc('hour', timestamptz) truncates in the session TimeZone, so the
+-- V16 function's result depends on a setting and must not be declared
+-- immutable (the planner could fold it or use it in an index).
+
+create or replace function ing.frontier_due_bucket(
+  p_status ing.ing_frontier_status, p_next_eligible_at timestamptz, p_last_run_at timestamptz,
+  p_first_seen_at timestamptz, p_lease_until timestamptz, p_min_days_between_runs int)
+returns timestamptz
+language sql stable as $$
+  select case when p_status <> 'active' then '-infinity'::timestamptz
+         else date_trunc('hour', greatest(
+                coalesce(p_next_eligible_at, p_last_run_at + interval '1 day' * p_min_days_between_runs),
+                p_first_seen_at,
+                p_lease_until))
+         end
+$$;
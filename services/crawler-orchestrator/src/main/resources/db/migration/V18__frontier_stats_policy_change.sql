@@ -0,0 +1,38 @@
+-- ===== Frontier stats: rebucket a portal when its min_days_between_runs changes =====
+-- Active rows with a last run but no planned next_eligible_at are bucketed by
+-- last_run_at + min_days_between_runs, so a policy change moves them to other
+-- due hours without touching ing.frontier. This trigger appends the matching
+-- deltas (old bucket -1, new bucket +1) for the affected portal in the policy
+-- change's own transaction, instead of leaving the drift to the next recount.
+-- A missing policy row counts as 7 days, as in capture_frontier_stats.
+
+create or replace function ing.capture_portal_policy_stats() returns trigger
+language plpgsql as $$
+declare
+  v_portal   text := case when tg_op = 'DELETE' then old.portal else new.portal end;
+  v_old_days int  := case when tg_op = 'INSERT' then 7 else old.min_days_between_runs end;
+  v_new_days int  := case when tg_op = 'DELETE' then 7 else new.min_days_between_runs end;
+begin
+  if v_old_days is not distinct from v_new_days then
+    return null;
+  end if;
+  insert into ing.frontier_stats_delta(portal, task_type, segment, status, bucket, d)
+  select f.portal, f.task_type, f.segment, f.status,
+         ing.frontier_due_bucket(f.status, f.next_eligible_at, f.last_run_at, f.first_seen_at, f.lease_until,
+                                 m.days),
+         sum(m.d)
+  from ing.frontier f
+  cross join (values (v_old_days, -1), (v_new_days, 1)) as m(days, d)
+  where f.portal = v_portal
+    and f.status = 'active'
+    and f.next_eligible_at is null
+    and f.last_run_at is not null
+  group by 1, 2, 3, 4, 5
+  having sum(m.d) <> 0;
+  return null;
+end $$;
+
+drop trigger if exists trg_portal_policy_stats on ing.portal_policy;
+create trigger trg_portal_policy_stats
+  after insert or update of min_days_between_runs or delete on ing.portal_policy
+  for each row execute function ing.capture_portal_policy_stats();
@@ -0,0 +1,28 @@
+-- ===== Dispatch lanes: per-portal weights by (task_type, segment) =====
+-- Lanes without a row use co.dispatcher.default-lane-weight.
+-- weight = 0 means the lane only fills capacity left over by weighted lanes.
+create table if not exists ing.portal_lane_policy(
+  portal     text not null references ing.portal_policy(portal) on delete cascade,
+  task_type  ing.ing_task_type not null,
+  segment    ing.ing_segment not null,
+  weight     int not null default 1,
+  constraint pk_portal_lane_policy primary key (portal, task_type, segment),
+  constraint chk_portal_lane_weight check (weight >= 0)
+);
+
+-- per-lane claim order (mirrors claimDueRows ordering within a lane)
+create index if not exists idx_frontier_lane
+  on ing.frontier (portal, task_type, segment, priority, last_run_at)
+  where status = 'active';
+
+-- ===== Idealista: keep search page refreshes flowing next to detail floods =====
+insert into ing.portal_lane_policy (portal, task_type, segment, weight)
+values
+  ('idealista', 'search_page', 'rent', 4),
+  ('idealista', 'search_page', 'sale', 4),
+  ('idealista', 'search_page', 'room', 4),
+  ('idealista', 'detail',      'rent', 2),
+  ('idealista', 'detail',      'sale', 2),
+  ('idealista', 'detail',      'room', 2)
+on conflict (portal, task_type, segment) do update set
+  weight = excluded.weight;
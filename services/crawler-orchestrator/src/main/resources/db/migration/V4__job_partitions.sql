@@ -0,0 +1,54 @@
+-- ===== ing.job: daily range partitions on scheduled_at =====
+-- Closed partitions are archived to local files and dropped by JobPartitionManager,
+-- so the hot table only holds the active window.
+alter table ing.job rename to job_unpartitioned;
+alter index if exists ing.idx_job_inflight_portal rename to idx_job_unpartitioned_inflight;
+alter index if exists ing.idx_job_status_time rename to idx_job_unpartitioned_status_time;
+
+create table ing.job(
+  job_id         uuid not null,
+  portal         text not null,
+  task_type      ing.ing_task_type not null,
+  segment        ing.ing_segment not null default 'unknown',
+  url_hash       char(32) not null,
+  url            text not null,
+  attempt        int  not null default 1,
+  status         ing.ing_job_status not null default 'dispatched',
+  scheduled_at   timestamptz not null,
+  last_update_at timestamptz not null default now(),
+  hints          jsonb not null default '{}'::jsonb,
+  -- partition key must be part of the PK; job_id leads so lookups by id stay indexed
+  constraint pk_job primary key (job_id, scheduled_at)
+) partition by range (scheduled_at);
+
+-- fast inflight count
+create index if not exists idx_job_inflight_portal
+  on ing.job (portal)
+  where status = 'dispatched';
+
+create index if not exists idx_job_status_time
+  on ing.job (status, last_update_at);
+
+-- everything dispatched before today goes to one legacy partition; daily partitions from today on
+do $$
+declare
+  today timestamptz := date_trunc('day', now() at time zone 'utc') at time zone 'utc';
+  d     timestamptz;
+begin
+  execute format('create table ing.job_p_legacy partition of ing.job for values from (minvalue) to (%L)', today);
+  for i in 0..7 loop
+    d := today + make_interval(days => i);
+    execute format('create table ing.job_p%s partition of ing.job for values from (%L) to (%L)',
+                   to_char(d at time zone 'utc', 'YYYYMMDD'), d, d + interval '1 day');
+  end loop;
+end $$;
+
+-- safety net for rows outside the pre-created range; the partition manager moves them into
+-- their day's partition when it creates it (a day with rows here cannot be created otherwise)
+create table ing.job_p_default partition of ing.job default;
+
+insert into ing.job
+select job_id, portal, task_type, segment, url_hash, url, attempt, status, scheduled_at, last_update_at, hints
+from ing.job_unpartitioned;
+
+drop table ing.job_unpartitioned;
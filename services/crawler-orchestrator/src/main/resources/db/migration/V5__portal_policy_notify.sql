@@ -0,0 +1,23 @@
+-- ===== Push invalidation for the in-process policy cache =====
+-- Any change to portal or lane policies is announced on channel co_portal_policy
+-- (payload = portal); PolicyService reloads its snapshot on receipt.
+create or replace function ing.notify_portal_policy_change() returns trigger
+language plpgsql as $$
+begin
+  if tg_op = 'DELETE' then
+    perform pg_notify('co_portal_policy', old.portal);
+  else
+    perform pg_notify('co_portal_policy', new.portal);
+  end if;
+  return null;
+end $$;
+
+drop trigger if exists trg_portal_policy_notify on ing.portal_policy;
+create trigger trg_portal_policy_notify
+  after insert or update or delete on ing.portal_policy
+  for each row execute function ing.notify_portal_policy_change();
+
+drop trigger if exists trg_portal_lane_policy_notify on ing.portal_lane_policy;
+create trigger trg_portal_lane_policy_notify
+  after insert or update or delete on ing.portal_lane_policy
+  for each row execute function ing.notify_portal_policy_change();
@@ -0,0 +1,8 @@
+-- Insert-only publication on ing.outbox for the CDC relay (co.outbox.relay.mode=cdc).
+-- Requires wal_level=logical; the replication slot is created by the relay on first start.
+do $$
+begin
+  if not exists (select 1 from pg_publication where pubname = 'co_outbox_pub') then
+    create publication co_outbox_pub for table ing.outbox with (publish = 'insert');
+  end if;
+end $$;
@@ -0,0 +1,6 @@
+-- Binary event bodies: Avro-encoded events are stored pre-encoded in payload,
+-- JSON events keep using v. Exactly one of the two is set.
+alter table ing.outbox add column if not exists payload bytea;
+alter table ing.outbox alter column v drop not null;
+alter table ing.outbox add constraint outbox_body_chk
+  check ((v is null) <> (payload is null));
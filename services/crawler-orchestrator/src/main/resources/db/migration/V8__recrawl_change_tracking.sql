@@ -0,0 +1,19 @@
+-- ===== Per-URL change tracking for adaptive recrawl =====
+-- change_events / change_exposure_days are exponentially decayed counts of
+-- observed content changes and of days observed; their ratio is the change rate.
+alter table ing.frontier
+  add column if not exists content_hash char(32),
+  add column if not exists change_events double precision not null default 0,
+  add column if not exists change_exposure_days double precision not null default 0,
+  add column if not exists next_eligible_at timestamptz;
+
+-- ===== Portal bounds for the adaptive interval =====
+alter table ing.portal_policy
+  add column if not exists recrawl_min_hours int not null default 12,
+  add column if not exists recrawl_max_days int not null default 60,
+  add column if not exists recrawl_change_prob numeric(3,2) not null default 0.50,
+  add constraint chk_portal_policy_recrawl_prob check (recrawl_change_prob > 0 and recrawl_change_prob < 1);
+
+create index if not exists idx_frontier_next_eligible
+  on ing.frontier (portal, next_eligible_at)
+  where status = 'active';
@@ -0,0 +1,13 @@
+-- ===== Fencing token for the leader =====
+-- Each leadership term gets a token from INCR co:leader:fence; the new leader
+-- advances this row before doing any work. Leader writes (frontier claim, job
+-- insert) lock the row FOR SHARE and require their own token, so a stale leader
+-- waking up after its Redis key expired is rejected by the database.
+create table if not exists ing.leader_fence (
+  name        text primary key,
+  token       bigint not null default 0,
+  holder      text,
+  acquired_at timestamptz
+);
+
+insert into ing.leader_fence(name) values ('co:leader') on conflict do nothing;
@@ -0,0 +1,453 @@
+package dev.propprice.co.sim;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import dev.propprice.co.app.Lane;
+import dev.propprice.co.app.RecrawlPlanner;
+import dev.propprice.co.app.RetryScheduler;
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
+import dev.propprice.co.sim.SimPortal.Row;
+import dev.propprice.co.util.ChangeRateEstimator;
+
+/**
+ * Offline dispatch simulation on a virtual clock. Portals dispatch through
+ * {@link SimPortal} (the dispatcher's admission, batch sizing, lanes and claim
+ * order) on the dispatcher tick grid; scraper results come back after a
+ * sampled latency and update rows the way PageResultListener does, including
+ * retries with the portal backoff and adaptive recrawl intervals from
+ * {@link RecrawlPlanner#intervalDays}. Ticks in which nothing can change are
+ * skipped, so idle stretches cost nothing.
+ *
+ * Not modelled: lease expiry (scrapers are assumed to heartbeat), discovered
+ * links, frontier lifecycle sweeps, leader failover.
+ *
+ * Usage: {@code DispatchSimulator <scenario.json> [timeseries.csv]}
+ */
+public final class DispatchSimulator {
+
+  private static final ObjectMapper OM = JsonMapper.builder()
+      .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+      .findAndAddModules()
+      .build();
+
+  private enum Type {
+    complete, retry_due, tick, refresh, sample, end
+  }
+
+  private record Event(long at, long seq, Type type, Job job) {
+  }
+
+  private static final class Job {
+    final SimPortal portal;
+    final Row row;
+    int attempt = 1;
+    int status;
+
+    Job(SimPortal portal, Row row) {
+      this.portal = portal;
+      this.row = row;
+    }
+  }
+
+  private final Scenario scenario;
+  private final List<SimPortal> portals;
+  private final SplittableRandom random;
+  private final PriorityQueue<Event> events = new PriorityQueue<>((a, b) -> a.at() != b.at()
+      ? Long.compare(a.at(), b.at()) : Long.compare(a.seq(), b.seq()));
+  /** Times of pending completions and retries: the events that can end an idle stretch */
+  private final PriorityQueue<Long> work = new PriorityQueue<>();
+  private final Map<SimPortal, List<Job>> dueRetries = new HashMap<>();
+  private final PrintWriter series;
+  private final long start;
+  private final long tick;
+  private long seq;
+  private long nextTick;
+  private long lastTick = Long.MIN_VALUE;
+  private long ticks;
+
+  private DispatchSimulator(Scenario scenario, List<SimPortal> portals, long start, PrintWriter series) {
+    this.scenario = scenario;
+    this.portals = portals;
+    this.start = start;
+    this.series = series;
+    this.random = new SplittableRandom(scenario.getSeed());
+    this.tick = Math.max(1, scenario.getDispatcher().getTickInterval());
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println("Usage: DispatchSimulator <scenario.json> [timeseries.csv]");
+      System.exit(2);
+    }
+    Path file = Path.of(args[0]);
+    Scenario scenario = OM.readValue(file.toFile(), Scenario.class);
+    Path out = Path.of(args.length > 1 ? args[1] : "build/sim/timeseries.csv");
+    if (out.getParent() != null)
+      Files.createDirectories(out.getParent());
+
+    SplittableRandom setup = new SplittableRandom(scenario.getSeed() ^ 0x5DEECE66DL);
+    Map<String, List<JsonNode>> snapshot = scenario.getSnapshot() == null ? Map.of()
+        : readSnapshot(file.toAbsolutePath().getParent().resolve(scenario.getSnapshot()));
+    long start = scenario.getStart() != null ? scenario.getStart().toEpochMilli() : newest(snapshot);
+
+    List<SimPortal> portals = new ArrayList<>();
+    for (Scenario.Portal p : scenario.getPortals()) {
+      p.getPolicy().setPortal(p.getPortal());
+      Map<Lane, Integer> weights = new HashMap<>();
+      p.getLaneWeights().forEach((lane, w) -> weights.put(lane(lane), w));
+      SimPortal portal = new SimPortal(p.getPortal(), p.getPolicy(), weights, p.getScraper(),
+          scenario.getDispatcher());
+      for (JsonNode r : snapshot.getOrDefault(p.getPortal(), List.of()))
+        portal.add(fromSnapshot(portal, r, p, setup), start);
+      if (p.getSynthetic() != null)
+        synthesize(portal, p, start, setup);
+      portals.add(portal);
+    }
+
+    try (PrintWriter series = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8))) {
+      series.println("day,portal,due_backlog,in_flight,dispatched,succeeded,failed_results,stuck");
+      DispatchSimulator sim = new DispatchSimulator(scenario, portals, start, series);
+      long began = System.nanoTime();
+      sim.run();
+      sim.report((System.nanoTime() - began) / 1e9);
+    }
+    System.out.println("time series: " + out.toAbsolutePath());
+  }
+
+  private void run() {
+    long end = start + (long) (scenario.getDays() * SimPortal.DAY);
+    for (SimPortal p : portals)
+      p.stats.cycleStart = start;
+    schedule(start, Type.refresh, null);
+    schedule(start, Type.sample, null);
+    schedule(end, Type.end, null);
+    nextTick = start;
+    schedule(start, Type.tick, null);
+
+    Event e;
+    while ((e = events.poll()) != null) {
+      long now = e.at();
+      switch (e.type()) {
+        case tick -> {
+          if (now == nextTick && now != lastTick)
+            onTick(now);
+        }
+        case complete -> {
+          work.poll();
+          onResult(e.job(), now);
+          armTick(now);
+        }
+        case retry_due -> {
+          work.poll();
+          dueRetries.computeIfAbsent(e.job().portal, p -> new ArrayList<>()).add(e.job());
+          armTick(now);
+        }
+        case refresh -> {
+          portals.forEach(p -> p.refreshBacklog(now));
+          schedule(now + scenario.getDispatcher().getLaneBacklogRefresh(), Type.refresh, null);
+        }
+        case sample -> {
+          sample(now);
+          schedule(now + (long) (scenario.getSampleHours() * 3_600_000L), Type.sample, null);
+        }
+        case end -> {
+          sample(now);
+          return;
+        }
+      }
+    }
+  }
+
+  /** The dispatcher tick for every portal, then the retry tick (both on the same interval). */
+  private void onTick(long now) {
+    ticks++;
+    lastTick = now;
+    long wakeAt = Long.MAX_VALUE;
+    for (SimPortal p : portals) {
+      SimPortal.Tick t = p.dispatch(now);
+      for (Row row : t.claimed())
+        dispatch(new Job(p, row), now, true);
+      wakeAt = Math.min(wakeAt, t.wakeAt());
+    }
+    for (SimPortal p : portals) {
+      List<Job> due = dueRetries.remove(p);
+      if (due != null)
+        redispatch(p, due, now);
+    }
+    if (!work.isEmpty())
+      wakeAt = Math.min(wakeAt, work.peek());
+    if (wakeAt != Long.MAX_VALUE)
+      armTick(wakeAt);
+    else
+      nextTick = Long.MAX_VALUE;
+  }
+
+  /** RetryScheduler.redispatchForPortal: capacity, token, then lease the URL unless it is in flight. */
+  private void redispatch(SimPortal p, List<Job> due, long now) {
+    int capacity = Math.max(0, p.policy.getMaxConcurrency() - p.inFlight);
+    for (Job job : due) {
+      if (capacity <= 0 || !p.allowRetry(now)) {
+        schedule(now + scenario.getRetry().getDeferDelay(), Type.retry_due, job);
+        continue;
+      }
+      if (job.row.where == SimPortal.Where.leased) {
+        p.stats.jobsFailed++; // the URL went out with a fresh dispatch meanwhile
+        continue;
+      }
+      p.lease(job.row);
+      job.attempt++;
+      p.stats.retried++;
+      dispatch(job, now, false);
+      capacity--;
+    }
+  }
+
+  private void dispatch(Job job, long now, boolean fresh) {
+    SimPortal p = job.portal;
+    Row row = job.row;
+    if (fresh) {
+      p.stats.dispatched++;
+      if (row.lastDispatch != SimPortal.NONE)
+        p.stats.revisit(now - row.lastDispatch);
+      row.lastDispatch = now;
+    }
+    p.stats.dispatchedAt(now);
+    p.inFlight++;
+    p.stats.peakInFlight = Math.max(p.stats.peakInFlight, p.inFlight);
+
+    Scenario.Scraper s = p.scraper;
+    long latency = Math.max(1, Math.round(s.getLatencyMedianMs() * Math.exp(s.getLatencySigma() * gaussian())));
+    if (random.nextDouble() < s.getErrorRate())
+      job.status = random.nextDouble() < s.getRetryableShare() ? 503 : 404;
+    else
+      job.status = 200;
+    schedule(now + latency, Type.complete, job);
+  }
+
+  /** PageResultListener: job status and retry, then the frontier row. */
+  private void onResult(Job job, long now) {
+    SimPortal p = job.portal;
+    Row row = job.row;
+    p.inFlight--;
+    boolean ok = job.status >= 200 && job.status < 300;
+    boolean retryable = job.status >= 500 || job.status == 408 || job.status == 429;
+
+    if (ok) {
+      p.stats.succeeded++;
+    } else {
+      p.stats.failedResults++;
+      if (retryable && job.attempt < p.policy.getMaxAttempts())
+        schedule(now + RetryScheduler.backoffMillis(p.policy, job.attempt), Type.retry_due, job);
+      else
+        p.stats.jobsFailed++;
+    }
+
+    if (ok) {
+      row.nextEligible = SimPortal.NONE;
+      if (scenario.getRecrawl().isAdaptive()) {
+        if (row.hasContent && row.lastSuccess != SimPortal.NONE) {
+          double elapsed = (now - row.lastSuccess) / (double) SimPortal.DAY;
+          boolean changed = random.nextDouble() < 1 - Math.exp(-row.changeRate * elapsed);
+          row.history = ChangeRateEstimator.observe(row.history, changed, elapsed, scenario.getRecrawl().getDecay());
+        }
+        row.hasContent = true;
+        double days = RecrawlPlanner.intervalDays(row.history, p.policy, scenario.getRecrawl());
+        row.nextEligible = now + Math.round(days * SimPortal.DAY);
+      }
+      row.lastSuccess = now;
+      row.failures = 0;
+    } else {
+      row.failures++;
+    }
+    row.lastRun = now;
+    p.release(row, now);
+    cycle(p, row, now);
+  }
+
+  /** A full cycle ends when every row that can still be crawled has a result since the cycle began. */
+  private static void cycle(SimPortal p, Row row, long now) {
+    SimPortal.Stats s = p.stats;
+    if (row.cycle != s.cycle) {
+      row.cycle = s.cycle;
+      s.cycleSeen++;
+    }
+    if (s.cycleSeen >= p.rows.size() - p.stuck) {
+      s.cycleDays.add((now - s.cycleStart) / (double) SimPortal.DAY);
+      s.cycle++;
+      s.cycleSeen = 0;
+      s.cycleStart = now;
+    }
+  }
+
+  private void sample(long now) {
+    double day = (now - start) / (double) SimPortal.DAY;
+    for (SimPortal p : portals) {
+      long due = p.due(now);
+      SimPortal.Stats s = p.stats;
+      s.dueSamples.add(due);
+      s.dueMax = Math.max(s.dueMax, due);
+      series.printf(Locale.ROOT, "%.3f,%s,%d,%d,%d,%d,%d,%d%n", day, p.name, due, p.inFlight,
+          s.dispatched + s.retried, s.succeeded, s.failedResults, p.stuck);
+    }
+  }
+
+  /** Tick at the first grid time at or after {@code at} (and after the last tick). */
+  private void armTick(long at) {
+    long from = Math.max(at, lastTick + 1);
+    long t = start + Math.floorDiv(from - start + tick - 1, tick) * tick;
+    if (t < nextTick || nextTick <= lastTick) {
+      nextTick = t;
+      schedule(t, Type.tick, null);
+    }
+  }
+
+  private void schedule(long at, Type type, Job job) {
+    events.add(new Event(at, seq++, type, job));
+    if (type == Type.complete || type == Type.retry_due)
+      work.add(at);
+  }
+
+  private double gaussian() {
+    double u = 1 - random.nextDouble();
+    double v = random.nextDouble();
+    return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+  }
+
+  private void report(double seconds) {
+    System.out.printf(Locale.ROOT, "simulated %.0f days in %.1f s (%,d dispatcher ticks)%n",
+        scenario.getDays(), seconds, ticks);
+    for (SimPortal p : portals) {
+      SimPortal.Stats s = p.stats;
+      double days = scenario.getDays();
+      List<Long> due = new ArrayList<>(s.dueSamples);
+      due.sort(null);
+      long results = s.succeeded + s.failedResults;
+      System.out.printf(Locale.ROOT, "%n%s: %,d urls (%,d stuck at max consecutive failures)%n",
+          p.name, p.rows.size(), p.stuck);
+      System.out.printf(Locale.ROOT, "  dispatched %,d + %,d retries (%,.0f/day, peak %,d/h, peak in-flight %d)%n",
+          s.dispatched, s.retried, (s.dispatched + s.retried) / days, s.peakPerHour, s.peakInFlight);
+      System.out.printf(Locale.ROOT, "  results %.1f%% ok, %,d jobs failed for good%n",
+          results == 0 ? 0 : 100.0 * s.succeeded / results, s.jobsFailed);
+      System.out.printf(Locale.ROOT, "  due backlog p50 %,d, max %,d (every %.0f h)%n",
+          due.isEmpty() ? 0 : due.get(due.size() / 2), s.dueMax, scenario.getSampleHours());
+      if (s.cycleDays.isEmpty()) {
+        System.out.println("  full recrawl cycle: not completed");
+      } else {
+        double mean = s.cycleDays.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        System.out.printf(Locale.ROOT, "  full recrawl cycle %.2f d first, %.2f d mean over %d cycles%n",
+            s.cycleDays.get(0), mean, s.cycleDays.size());
+      }
+      if (s.revisits > 0)
+        System.out.printf(Locale.ROOT, "  revisit interval p50 %.2f d, p95 %.2f d%n",
+            s.revisitDays(0.5), s.revisitDays(0.95));
+    }
+  }
+
+  private static void synthesize(SimPortal portal, Scenario.Portal p, long start, SplittableRandom random) {
+    Scenario.Synthetic syn = p.getSynthetic();
+    Map<Lane, Double> shares = new LinkedHashMap<>();
+    syn.getLanes().forEach((lane, share) -> shares.put(lane(lane), share));
+    double total = shares.values().stream().mapToDouble(Double::doubleValue).sum();
+    for (int i = 0; i < syn.getUrls(); i++) {
+      double pick = random.nextDouble() * total;
+      Lane lane = null;
+      for (Map.Entry<Lane, Double> e : shares.entrySet()) {
+        lane = e.getKey();
+        if ((pick -= e.getValue()) < 0)
+          break;
+      }
+      Row row = new Row(portal.rows.size(), lane, syn.getPriority(),
+          start - (long) (random.nextDouble() * 30 * SimPortal.DAY), changeRate(p, random));
+      if (syn.getCrawledWithinDays() > 0) {
+        row.lastRun = start - (long) (random.nextDouble() * syn.getCrawledWithinDays() * SimPortal.DAY);
+        row.lastSuccess = row.lastRun;
+        row.lastDispatch = row.lastRun;
+      }
+      portal.add(row, start);
+    }
+  }
+
+  private static Row fromSnapshot(SimPortal portal, JsonNode r, Scenario.Portal p, SplittableRandom random) {
+    Lane lane = new Lane(TaskType.valueOf(r.path("task_type").asText("detail")),
+        Segment.valueOf(r.path("segment").asText("unknown")));
+    Row row = new Row(portal.rows.size(), lane, r.path("priority").asInt(5), millis(r.get("first_seen_at"), 0),
+        changeRate(p, random));
+    row.lastRun = millis(r.get("last_run_at"), SimPortal.NONE);
+    row.nextEligible = millis(r.get("next_eligible_at"), SimPortal.NONE);
+    row.failures = r.path("consecutive_failures").asInt(0);
+    row.lastDispatch = row.lastRun;
+    if (row.lastRun != SimPortal.NONE && r.path("last_result_status").asInt(0) / 100 == 2) {
+      row.lastSuccess = row.lastRun;
+      row.hasContent = true;
+    }
+    return row;
+  }
+
+  /** Active rows per portal; other statuses are never claimed. */
+  private static Map<String, List<JsonNode>> readSnapshot(Path file) throws IOException {
+    Map<String, List<JsonNode>> rows = new HashMap<>();
+    try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (line.isBlank())
+          continue;
+        JsonNode r = OM.readTree(line);
+        if ("active".equals(r.path("status").asText()))
+          rows.computeIfAbsent(r.path("portal").asText(), k -> new ArrayList<>()).add(r);
+      }
+    }
+    return rows;
+  }
+
+  private static long newest(Map<String, List<JsonNode>> snapshot) {
+    long newest = SimPortal.NONE;
+    for (List<JsonNode> rows : snapshot.values()) {
+      for (JsonNode r : rows) {
+        newest = Math.max(newest, millis(r.get("first_seen_at"), SimPortal.NONE));
+        newest = Math.max(newest, millis(r.get("last_run_at"), SimPortal.NONE));
+      }
+    }
+    return newest != SimPortal.NONE ? newest : Instant.now().toEpochMilli();
+  }
+
+  private static double changeRate(Scenario.Portal p, SplittableRandom random) {
+    double interval = -Math.log(1 - random.nextDouble()) * p.getChangeIntervalDays();
+    return 1 / Math.max(interval, 1e-3);
+  }
+
+  private static Lane lane(String name) {
+    String[] parts = name.split("/", 2);
+    return new Lane(TaskType.valueOf(parts[0]), Segment.valueOf(parts.length > 1 ? parts[1] : "unknown"));
+  }
+
+  private static long millis(JsonNode n, long otherwise) {
+    if (n == null || n.isNull())
+      return otherwise;
+    if (n.isNumber()) // epoch seconds when the exporting mapper writes dates as timestamps
+      return Math.round(n.asDouble() * 1000);
+    return OffsetDateTime.parse(n.asText()).toInstant().toEpochMilli();
+  }
+}
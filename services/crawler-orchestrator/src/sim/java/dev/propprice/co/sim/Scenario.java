@@ -0,0 +1,70 @@
+package dev.propprice.co.sim;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dev.propprice.co.config.DispatcherProperties;
+import dev.propprice.co.config.RecrawlProperties;
+import dev.propprice.co.config.RetryProperties;
+import dev.propprice.co.domain.entity.PortalPolicy;
+import lombok.Data;
+
+/**
+ * Simulator input, read from JSON with snake_case names. {@code dispatcher},
+ * {@code retry}, {@code recrawl} and each portal's {@code policy} bind to the
+ * same classes the orchestrator uses (co.dispatcher.*, co.retry.*,
+ * co.recrawl.*, ing.portal_policy), with the same defaults.
+ */
+@Data
+public class Scenario {
+  /** Virtual start time; defaults to the newest timestamp in the snapshot, or now */
+  private Instant start;
+  private double days = 365;
+  private long seed = 1;
+  /** Interval between backlog samples in the time series */
+  private double sampleHours = 24;
+  /** NDJSON from GET /v1/frontier/export?fields=full, relative to the scenario file */
+  private String snapshot;
+
+  private DispatcherProperties dispatcher = new DispatcherProperties();
+  private RetryProperties retry = new RetryProperties();
+  private RecrawlProperties recrawl = new RecrawlProperties();
+  private List<Portal> portals = new ArrayList<>();
+
+  @Data
+  public static class Portal {
+    private String portal;
+    private PortalPolicy policy = new PortalPolicy();
+    /** Lane ("task_type/segment") to weight, as in ing.portal_lane_policy */
+    private Map<String, Integer> laneWeights = new LinkedHashMap<>();
+    /** Generated URLs, added to any snapshot rows of the portal */
+    private Synthetic synthetic;
+    private Scraper scraper = new Scraper();
+    /** Mean days between content changes of a page; each URL draws its own from an exponential */
+    private double changeIntervalDays = 7;
+  }
+
+  @Data
+  public static class Synthetic {
+    private int urls;
+    /** Lane ("task_type/segment") to share of the URLs */
+    private Map<String, Double> lanes = new LinkedHashMap<>(Map.of("detail/unknown", 1.0));
+    private int priority = 5;
+    /** 0: never crawled, all due at start; otherwise last runs spread uniformly over this many days */
+    private double crawledWithinDays;
+  }
+
+  /** Scraper behaviour per job: log-normal latency and a failure mix. */
+  @Data
+  public static class Scraper {
+    private double latencyMedianMs = 3_000;
+    private double latencySigma = 0.5;
+    /** Share of jobs that fail */
+    private double errorRate = 0.02;
+    /** Share of failures that are retryable (5xx, 408, 429); the rest are 404 */
+    private double retryableShare = 0.7;
+  }
+}
@@ -0,0 +1,313 @@
+package dev.propprice.co.sim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import dev.propprice.co.app.DeficitRoundRobin;
+import dev.propprice.co.app.DispatchLanes;
+import dev.propprice.co.app.FrontierDispatcher;
+import dev.propprice.co.app.Lane;
+import dev.propprice.co.config.DispatcherProperties;
+import dev.propprice.co.domain.entity.PortalPolicy;
+import dev.propprice.co.util.ChangeRateEstimator.History;
+import dev.propprice.co.util.TokenBucket;
+
+/**
+ * One portal's frontier in memory plus the dispatcher state that goes with it:
+ * token bucket, lane scheduler and the lane backlog snapshot. {@link #dispatch}
+ * follows FrontierDispatcher.dispatchForPortal step by step; {@link #claim}
+ * is the claim query (active, not leased, due by next_eligible_at or
+ * last_run_at + min_days_between_runs, under max consecutive failures, ordered
+ * by priority, last_run_at, first_seen_at). Each lane keeps its rows in two
+ * heaps, not yet due and due, so a claim costs O(log n).
+ */
+final class SimPortal {
+
+  static final long NONE = Long.MIN_VALUE;
+  static final long DAY = 86_400_000L;
+
+  enum Where {
+    waiting, ready, leased, stuck
+  }
+
+  static final class Row {
+    final int id;
+    final Lane lane;
+    final int priority;
+    final long firstSeen;
+    /** Changes per day of the page itself */
+    final double changeRate;
+    long lastRun = NONE;
+    long nextEligible = NONE;
+    long lastSuccess = NONE;
+    long lastDispatch = NONE;
+    int failures;
+    boolean hasContent;
+    History history = History.EMPTY;
+    Where where;
+    int gen;
+    int cycle = -1;
+
+    Row(int id, Lane lane, int priority, long firstSeen, double changeRate) {
+      this.id = id;
+      this.lane = lane;
+      this.priority = priority;
+      this.firstSeen = firstSeen;
+      this.changeRate = changeRate;
+    }
+  }
+
+  /** Heap entry; keys are copied so later row updates cannot reorder a heap. Stale when gen moved on. */
+  private record Entry(Row row, int gen, int priority, long lastRun, long firstSeen, long eligibleAt) {
+  }
+
+  private static final Comparator<Entry> CLAIM_ORDER = Comparator.comparingInt(Entry::priority)
+      .thenComparingLong(Entry::lastRun)
+      .thenComparingLong(Entry::firstSeen)
+      .thenComparingInt(e -> e.row().id);
+
+  private static final class LaneRows {
+    final PriorityQueue<Entry> waiting = new PriorityQueue<>(Comparator.comparingLong(Entry::eligibleAt));
+    final PriorityQueue<Entry> ready = new PriorityQueue<>(CLAIM_ORDER);
+    long readyCount;
+  }
+
+  final String name;
+  final PortalPolicy policy;
+  final Scenario.Scraper scraper;
+  final List<Row> rows = new ArrayList<>();
+  final Stats stats = new Stats();
+  int inFlight;
+  int stuck;
+
+  private final DispatcherProperties config;
+  private final TokenBucket bucket;
+  private final Map<Lane, Integer> weights;
+  private final DeficitRoundRobin<Lane> drr = new DeficitRoundRobin<>();
+  private final Map<Lane, LaneRows> lanes = new HashMap<>();
+  private Map<Lane, Long> backlog = new HashMap<>();
+
+  SimPortal(String name, PortalPolicy policy, Map<Lane, Integer> laneWeights, Scenario.Scraper scraper,
+      DispatcherProperties config) {
+    this.name = name;
+    this.policy = policy;
+    this.scraper = scraper;
+    this.config = config;
+    this.bucket = new TokenBucket(policy.getTargetQps().doubleValue(), policy.getBucketSize());
+    this.weights = DispatchLanes.weights(laneWeights, config.getDefaultLaneWeight());
+  }
+
+  /** Outcome of one dispatcher tick and the earliest time another tick could do something. */
+  record Tick(String outcome, List<Row> claimed, long wakeAt) {
+  }
+
+  Tick dispatch(long now) {
+    if (policy.getMaxConcurrency() <= 0)
+      return new Tick("disabled", List.of(), Long.MAX_VALUE);
+    int capacity = Math.max(0, policy.getMaxConcurrency() - inFlight);
+    if (capacity <= 0)
+      return new Tick("no_capacity", List.of(), Long.MAX_VALUE); // a completion frees a slot
+    if (!bucket.allow(now))
+      return new Tick("rate_limited", List.of(), bucket.nextTokenAt());
+
+    int batchSize = FrontierDispatcher.batchSize(capacity, policy, config.getMaxBatchSize());
+    promote(now);
+    List<Row> claimed = new ArrayList<>(batchSize);
+    for (Map.Entry<Lane, Integer> slot : drr.allocate(weights, backlog, batchSize).entrySet()) {
+      List<Row> got = claim(slot.getKey(), slot.getValue());
+      if (got.size() < slot.getValue()) {
+        backlog.put(slot.getKey(), 0L);
+        drr.forfeit(slot.getKey());
+      }
+      claimed.addAll(got);
+    }
+    int left = batchSize - claimed.size();
+    if (left > 0)
+      claimed.addAll(claim(null, left));
+    if (claimed.isEmpty())
+      return new Tick("empty", claimed, nextDue());
+    return new Tick("dispatched", claimed, now);
+  }
+
+  /** Token for a retry re-dispatch (same bucket as fresh dispatches). */
+  boolean allowRetry(long now) {
+    return bucket.allow(now);
+  }
+
+  /** The periodic lane backlog refresh: due rows per lane, lanes without any left out. */
+  void refreshBacklog(long now) {
+    promote(now);
+    Map<Lane, Long> fresh = new HashMap<>();
+    lanes.forEach((lane, r) -> {
+      if (r.readyCount > 0)
+        fresh.put(lane, r.readyCount);
+    });
+    backlog = fresh;
+  }
+
+  long due(long now) {
+    promote(now);
+    long n = 0;
+    for (LaneRows r : lanes.values())
+      n += r.readyCount;
+    return n;
+  }
+
+  void add(Row row, long now) {
+    rows.add(row);
+    release(row, now);
+  }
+
+  /** Take a row out of the frontier heaps (claim or retry lease). */
+  void lease(Row row) {
+    if (row.where == Where.ready)
+      lanes.get(row.lane).readyCount--;
+    else if (row.where == Where.stuck)
+      stuck--; // retries lease regardless of consecutive_failures, like RetryScheduler
+    row.where = Where.leased;
+    row.gen++;
+  }
+
+  /** Put a row back after its result (or initially), by its new eligibility. */
+  void release(Row row, long now) {
+    if (row.failures >= config.getMaxConsecutiveFailures()) {
+      row.where = Where.stuck;
+      stuck++;
+      return;
+    }
+    LaneRows r = lanes.computeIfAbsent(row.lane, l -> new LaneRows());
+    Entry e = new Entry(row, row.gen, row.priority, row.lastRun == NONE ? 0 : row.lastRun, row.firstSeen,
+        eligibleAt(row));
+    if (e.eligibleAt() <= now) {
+      row.where = Where.ready;
+      r.ready.add(e);
+      r.readyCount++;
+    } else {
+      row.where = Where.waiting;
+      r.waiting.add(e);
+    }
+  }
+
+  private long eligibleAt(Row row) {
+    if (row.nextEligible != NONE)
+      return row.nextEligible;
+    if (row.lastRun != NONE)
+      return row.lastRun + policy.getMinDaysBetweenRuns() * DAY;
+    return Long.MIN_VALUE;
+  }
+
+  private void promote(long now) {
+    for (LaneRows r : lanes.values()) {
+      Entry e;
+      while ((e = r.waiting.peek()) != null && (stale(e) || e.eligibleAt() <= now)) {
+        r.waiting.poll();
+        if (!stale(e)) {
+          e.row().where = Where.ready;
+          r.ready.add(e);
+          r.readyCount++;
+        }
+      }
+    }
+  }
+
+  /** Up to {@code limit} due rows of one lane, or of all lanes in claim order when lane is null. */
+  private List<Row> claim(Lane lane, int limit) {
+    List<Row> out = new ArrayList<>(limit);
+    while (out.size() < limit) {
+      LaneRows from = null;
+      if (lane != null) {
+        from = lanes.get(lane);
+        if (from == null || head(from) == null)
+          break;
+      } else {
+        for (LaneRows r : lanes.values()) {
+          Entry h = head(r);
+          if (h != null && (from == null || CLAIM_ORDER.compare(h, head(from)) < 0))
+            from = r;
+        }
+        if (from == null)
+          break;
+      }
+      Row row = from.ready.poll().row();
+      lease(row);
+      out.add(row);
+    }
+    return out;
+  }
+
+  private static Entry head(LaneRows r) {
+    Entry e;
+    while ((e = r.ready.peek()) != null && stale(e))
+      r.ready.poll();
+    return e;
+  }
+
+  private long nextDue() {
+    long next = Long.MAX_VALUE;
+    for (LaneRows r : lanes.values()) {
+      Entry e;
+      while ((e = r.waiting.peek()) != null && stale(e))
+        r.waiting.poll();
+      if (e != null)
+        next = Math.min(next, e.eligibleAt());
+    }
+    return next;
+  }
+
+  private static boolean stale(Entry e) {
+    return e.gen() != e.row().gen || e.row().where == Where.leased;
+  }
+
+  /** Counters and distributions reported per portal. */
+  static final class Stats {
+    long dispatched;
+    long retried;
+    long succeeded;
+    long failedResults;
+    long jobsFailed;
+    int peakInFlight;
+    long peakPerHour;
+    long hourIndex = NONE;
+    long hourCount;
+    long dueMax;
+    final List<Long> dueSamples = new ArrayList<>();
+    /** Hours between consecutive fresh dispatches of a URL, one bucket per hour */
+    final long[] revisitHours = new long[24 * 400 + 1];
+    long revisits;
+    final List<Double> cycleDays = new ArrayList<>();
+    int cycle;
+    long cycleStart;
+    int cycleSeen;
+
+    void dispatchedAt(long now) {
+      long hour = Math.floorDiv(now, 3_600_000L);
+      if (hour != hourIndex) {
+        hourIndex = hour;
+        hourCount = 0;
+      }
+      peakPerHour = Math.max(peakPerHour, ++hourCount);
+    }
+
+    void revisit(long intervalMs) {
+      int h = (int) Math.min(revisitHours.length - 1, Math.max(0, intervalMs / 3_600_000L));
+      revisitHours[h]++;
+      revisits++;
+    }
+
+    /** Revisit interval percentile, in days. */
+    double revisitDays(double q) {
+      long target = (long) Math.ceil(q * revisits);
+      long seen = 0;
+      for (int h = 0; h < revisitHours.length; h++) {
+        seen += revisitHours[h];
+        if (seen >= target && seen > 0)
+          return (h + 0.5) / 24.0;
+      }
+      return Double.NaN;
+    }
+  }
+}
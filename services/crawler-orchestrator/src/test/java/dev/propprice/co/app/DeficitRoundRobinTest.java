@@ -0,0 +1,73 @@
+package dev.propprice.co.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class DeficitRoundRobinTest {
+
+  private final DeficitRoundRobin<String> drr = new DeficitRoundRobin<>();
+
+  @Test
+  void slotsFollowWeightsOverManyRounds() {
+    Map<String, Integer> weights = Map.of("a", 3, "b", 1, "c", 0);
+    Map<String, Integer> total = new HashMap<>();
+    for (int round = 0; round < 400; round++) {
+      drr.allocate(weights, Map.of(), 1).forEach((lane, n) -> total.merge(lane, n, Integer::sum));
+    }
+    assertEquals(300, total.get("a"));
+    assertEquals(100, total.get("b"));
+    assertTrue(!total.containsKey("c"), "weight 0 lanes get nothing");
+  }
+
+  @Test
+  void largeBatchesSplitByWeight() {
+    Map<String, Integer> got = drr.allocate(Map.of("a", 4, "b", 1), Map.of(), 10);
+    assertEquals(8, got.get("a"));
+    assertEquals(2, got.get("b"));
+  }
+
+  @Test
+  void partlyUsedDeficitCarriesOverToTheNextCall() {
+    Map<String, Integer> weights = Map.of("a", 5, "b", 1);
+    assertEquals(Map.of("a", 1), drr.allocate(weights, Map.of(), 1));
+    // a resumes with its remaining 4 before b is visited
+    assertEquals(Map.of("a", 4, "b", 1), drr.allocate(weights, Map.of(), 5));
+  }
+
+  @Test
+  void emptyLaneLosesItsDeficit() {
+    Map<String, Integer> weights = Map.of("a", 5, "b", 1);
+    assertEquals(Map.of("a", 1), drr.allocate(weights, Map.of(), 1)); // a keeps 4
+    assertEquals(Map.of("b", 1), drr.allocate(weights, Map.of("a", 0L), 1));
+    // a starts again from one quantum (5), not 4 + 5
+    assertEquals(Map.of("b", 2, "a", 5), drr.allocate(weights, Map.of(), 7));
+  }
+
+  @Test
+  void forfeitDropsAccumulatedCredit() {
+    Map<String, Integer> weights = Map.of("a", 5, "b", 1);
+    assertEquals(Map.of("a", 1), drr.allocate(weights, Map.of(), 1));
+    drr.forfeit("a");
+    // a is credited afresh instead of resuming with 4 + the new quantum
+    assertEquals(Map.of("a", 5, "b", 1), drr.allocate(weights, Map.of(), 6));
+  }
+
+  @Test
+  void slotsOfADrainedLaneGoToTheOthers() {
+    Map<String, Integer> got = drr.allocate(Map.of("a", 1, "b", 1), Map.of("a", 2L), 10);
+    assertEquals(2, got.get("a"));
+    assertEquals(8, got.get("b"));
+  }
+
+  @Test
+  void nothingToAllocate() {
+    assertTrue(drr.allocate(Map.of("a", 1), Map.of(), 0).isEmpty());
+    assertTrue(drr.allocate(Map.of("a", 1), Map.of("a", 0L), 5).isEmpty());
+    assertTrue(drr.allocate(Map.of("a", 0), Map.of(), 5).isEmpty());
+  }
+}
@@ -0,0 +1,38 @@
+package dev.propprice.co.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import dev.propprice.co.domain.enums.Segment;
+import dev.propprice.co.domain.enums.TaskType;
+
+class DispatchLanesTest {
+
+  @Test
+  void everyLaneGetsItsConfiguredOrTheDefaultWeight() {
+    Lane sale = new Lane(TaskType.detail, Segment.sale);
+    Lane rentSearch = new Lane(TaskType.search_page, Segment.rent);
+    Map<Lane, Integer> w = DispatchLanes.weights(Map.of(sale, 5, rentSearch, 0), 2);
+
+    assertEquals(TaskType.values().length * Segment.values().length, w.size());
+    assertEquals(5, w.get(sale));
+    assertEquals(0, w.get(rentSearch)); // an explicit 0 stays 0: the lane gets nothing
+    for (TaskType t : TaskType.values()) {
+      for (Segment s : Segment.values()) {
+        Lane lane = new Lane(t, s);
+        if (!lane.equals(sale) && !lane.equals(rentSearch))
+          assertEquals(2, w.get(lane), lane.toString());
+      }
+    }
+  }
+
+  @Test
+  void noConfigurationMeansEqualWeights() {
+    Map<Lane, Integer> w = DispatchLanes.weights(Map.of(), 1);
+    assertEquals(TaskType.values().length * Segment.values().length, w.size());
+    w.values().forEach(v -> assertEquals(1, v));
+  }
+}
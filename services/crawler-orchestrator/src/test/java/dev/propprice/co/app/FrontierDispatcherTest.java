@@ -0,0 +1,26 @@
+package dev.propprice.co.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import dev.propprice.co.domain.entity.PortalPolicy;
+
+class FrontierDispatcherTest {
+
+  @ParameterizedTest
+  @CsvSource({
+      // capacity, bucket size, max batch size, expected
+      "10, 6, 50, 6", // bucket size caps
+      "3, 6, 50, 3", // free slots cap
+      "10, 6, 4, 4", // max-batch-size caps
+      "0, 6, 50, 0", // no free slot, no claim
+      "10, 6, 0, 1", // a non-positive max-batch-size still claims one
+      "10, 6, -5, 1",
+  })
+  void batchSize(int capacity, int bucketSize, int maxBatchSize, int expected) {
+    PortalPolicy policy = PortalPolicy.builder().portal("p").bucketSize(bucketSize).build();
+    assertEquals(expected, FrontierDispatcher.batchSize(capacity, policy, maxBatchSize));
+  }
+}
@@ -0,0 +1,54 @@
+package dev.propprice.co.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import dev.propprice.co.config.RecrawlProperties;
+import dev.propprice.co.domain.entity.PortalPolicy;
+import dev.propprice.co.util.ChangeRateEstimator.History;
+
+class RecrawlPlannerTest {
+
+  private static final double EPS = 1e-9;
+
+  private static PortalPolicy policy(int minDays, String changeProb) {
+    return PortalPolicy.builder().portal("p").minDaysBetweenRuns(minDays).recrawlMinHours(12).recrawlMaxDays(60)
+        .recrawlChangeProb(new BigDecimal(changeProb)).build();
+  }
+
+  @ParameterizedTest
+  @CsvSource({ "7, 0.50", "7, 0.90", "3, 0.25", "30, 0.50" })
+  void newUrlStartsAtTheFixedInterval(int minDays, String changeProb) {
+    assertEquals(minDays, RecrawlPlanner.intervalDays(History.EMPTY, policy(minDays, changeProb),
+        new RecrawlProperties()), 1e-6);
+  }
+
+  @Test
+  void frequentChangesClampToTheMinimumHours() {
+    History changing = new History(50, 5);
+    assertEquals(0.5, RecrawlPlanner.intervalDays(changing, policy(7, "0.50"), new RecrawlProperties()), EPS);
+  }
+
+  @Test
+  void staticPagesClampToTheMaximumDays() {
+    History unchanged = new History(0, 2_000);
+    assertEquals(60, RecrawlPlanner.intervalDays(unchanged, policy(7, "0.50"), new RecrawlProperties()), EPS);
+  }
+
+  @Test
+  void heavierPriorStaysCloserToTheFixedInterval() {
+    History oneChangeInADay = new History(1, 1);
+    RecrawlProperties light = new RecrawlProperties();
+    RecrawlProperties heavy = new RecrawlProperties();
+    heavy.setPriorWeight(10);
+    double l = RecrawlPlanner.intervalDays(oneChangeInADay, policy(7, "0.50"), light);
+    double h = RecrawlPlanner.intervalDays(oneChangeInADay, policy(7, "0.50"), heavy);
+    assertTrue(l < h && h < 7, l + " < " + h + " < 7");
+  }
+}
@@ -0,0 +1,76 @@
+package dev.propprice.co.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import dev.propprice.co.util.TokenBucket;
+
+/**
+ * Runs the Lua script against a real Redis and the Java {@link TokenBucket}
+ * with the same calls; they must agree on every one. Rates refill a
+ * power-of-two fraction of a token per millisecond, so the script's 14-digit
+ * number formatting cannot make them diverge by rounding.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisTokenBucketTest {
+
+  @Container
+  static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+  private static LettuceConnectionFactory factory;
+  private static RedisTokenBucket lua;
+
+  @BeforeAll
+  static void connect() {
+    factory = new LettuceConnectionFactory(
+        new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+    factory.afterPropertiesSet();
+    factory.start();
+    lua = new RedisTokenBucket(new StringRedisTemplate(factory));
+  }
+
+  @AfterAll
+  static void close() {
+    factory.destroy();
+  }
+
+  @Test
+  void goldenSequenceMatches() {
+    long[] times = { 0, 0, 0, 0, 4, 7, 8, 1_000, 900, 908, 908, 909 };
+    TokenBucket java = new TokenBucket(125, 3);
+    for (long t : times) {
+      assertEquals(java.allow(t), lua.allow("golden", 125, 3, t), "allow at " + t);
+    }
+  }
+
+  @Test
+  void randomSequencesMatch() {
+    double[] rates = { 31.25, 62.5, 125, 250, 0 };
+    Random rnd = new Random(42);
+    for (int run = 0; run < 20; run++) {
+      double rate = rates[rnd.nextInt(rates.length)];
+      int capacity = rnd.nextInt(8);
+      String key = "random-" + run;
+      TokenBucket java = new TokenBucket(rate, capacity);
+      long now = 1_700_000_000_000L;
+      for (int i = 0; i < 300; i++) {
+        // mostly bursts and short gaps, sometimes a long idle period or the clock stepping back
+        int r = rnd.nextInt(100);
+        now += r < 50 ? 0 : r < 90 ? rnd.nextInt(20) : r < 97 ? rnd.nextInt(5_000) : -rnd.nextInt(50);
+        assertEquals(java.allow(now), lua.allow(key, rate, capacity, now),
+            "run " + run + " (rate " + rate + ", capacity " + capacity + ") call " + i);
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package dev.propprice.co.schema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+class EventCodecTest {
+
+  private static final ObjectMapper OM = new ObjectMapper();
+  private static final String RAW_PAGE = "acq.raw.page@v1";
+  private static final String DISPATCHED = "acq.job.dispatched@v1";
+
+  private static final String PAGE = """
+      {
+        "schema_version": 1,
+        "event_id": "0f8e2d7a-4b1c-4c8e-9a55-3d2f1e0b9c71",
+        "occurred_at": "2025-01-06T10:15:30.123456Z",
+        "job": {
+          "job_id": "01943a6e-2f00-7abc-8def-0123456789ab",
+          "portal": "idealista",
+          "task_type": "search_page",
+          "segment": "rent"
+        },
+        "request": {
+          "url": "https://www.idealista.com/alquiler-viviendas/malaga/",
+          "url_hash": "0123456789abcdef0123456789abcdef"
+        },
+        "http": {
+          "status": 200,
+          "headers": { "content-type": "text/html; charset=utf-8" },
+          "html_path": "s3://raw/idealista/2025/01/06/page.html.gz",
+          "content_hash": "fedcba9876543210fedcba9876543210",
+          "fetched_at": "2025-01-06T10:15:29Z"
+        },
+        "parser": { "attempted": true, "extracted_items": 30 },
+        "discovered": [
+          { "url": "https://www.idealista.com/inmueble/1001/", "task_type": "detail", "segment": "rent", "priority": 3 },
+          { "url": "https://www.idealista.com/inmueble/1002/", "task_type": "detail" }
+        ]
+      }
+      """;
+
+  private static final String JOB = """
+      {
+        "schema_version": 1,
+        "event_id": "9b2f6a1e-0c3d-4e5f-8a7b-6c5d4e3f2a10",
+        "occurred_at": "2025-01-06T10:00:00Z",
+        "job": {
+          "job_id": "01943a6e-2f00-7abc-8def-0123456789ab",
+          "portal": "fotocasa",
+          "task_type": "detail",
+          "segment": "short_term",
+          "priority": 5
+        },
+        "request": {
+          "url": "https://www.fotocasa.es/es/alquiler/vivienda/malaga/123",
+          "url_hash": "00112233445566778899aabbccddeeff",
+          "attempt": 2
+        }
+      }
+      """;
+
+  @Test
+  void avroRoundTripsARawPage() throws Exception {
+    JsonNode evt = OM.readTree(PAGE);
+    byte[] avro = EventCodec.encode(EventCodec.AVRO, RAW_PAGE, evt);
+    assertEquals(evt, EventCodec.decode(EventCodec.AVRO, RAW_PAGE, avro));
+    assertTrue(avro.length < evt.toString().getBytes(StandardCharsets.UTF_8).length);
+  }
+
+  @Test
+  void avroOmitsMissingOptionalFields() throws Exception {
+    JsonNode evt = OM.readTree("""
+        {
+          "schema_version": 1,
+          "event_id": "0f8e2d7a-4b1c-4c8e-9a55-3d2f1e0b9c71",
+          "occurred_at": "2025-01-06T10:15:30Z",
+          "job": { "job_id": "0f8e2d7a-4b1c-4c8e-9a55-3d2f1e0b9c72", "portal": "idealista",
+                   "task_type": "detail", "segment": "unknown" },
+          "request": { "url": "https://www.idealista.com/inmueble/1001/",
+                       "url_hash": "0123456789abcdef0123456789abcdef" },
+          "http": { "status": 503, "error": "upstream timeout" }
+        }
+        """);
+    JsonNode back = EventCodec.decode(EventCodec.AVRO, RAW_PAGE, EventCodec.encode(EventCodec.AVRO, RAW_PAGE, evt));
+    assertEquals(evt, back);
+    assertFalse(back.has("parser"));
+    assertFalse(back.path("http").has("content_hash"));
+  }
+
+  @Test
+  void avroRoundTripsADispatchedJob() throws Exception {
+    JsonNode evt = OM.readTree(JOB);
+    byte[] avro = EventCodec.encode("avro/binary; version=1", DISPATCHED, evt);
+    assertEquals(evt, EventCodec.decode(EventCodec.AVRO, DISPATCHED, avro));
+  }
+
+  @Test
+  void jsonRoundTripsAndIsTheDefault() throws Exception {
+    JsonNode evt = OM.readTree(PAGE);
+    byte[] json = EventCodec.encode(EventCodec.JSON, RAW_PAGE, evt);
+    assertEquals(evt, EventCodec.decode(EventCodec.JSON, RAW_PAGE, json));
+    // producers that predate the headers send plain JSON
+    assertEquals(evt, EventCodec.decode(null, null, json));
+  }
+
+  @Test
+  void unknownSchemaVersionIsRejectedForAvro() throws Exception {
+    JsonNode evt = OM.readTree(PAGE);
+    byte[] avro = EventCodec.encode(EventCodec.AVRO, RAW_PAGE, evt);
+    assertThrows(IllegalArgumentException.class, () -> EventCodec.encode(EventCodec.AVRO, "acq.raw.page@v2", evt));
+    assertThrows(IllegalArgumentException.class, () -> EventCodec.decode(EventCodec.AVRO, "acq.raw.page@v2", avro));
+    assertThrows(IllegalArgumentException.class, () -> EventCodec.decode(EventCodec.AVRO, null, avro));
+  }
+
+  @Test
+  void corruptPayloadsAreRejected() throws Exception {
+    byte[] avro = EventCodec.encode(EventCodec.AVRO, RAW_PAGE, OM.readTree(PAGE));
+    byte[] truncated = Arrays.copyOf(avro, avro.length / 2);
+    assertThrows(IllegalArgumentException.class, () -> EventCodec.decode(EventCodec.AVRO, RAW_PAGE, truncated));
+
+    byte[] garbage = new byte[64];
+    Arrays.fill(garbage, (byte) 0xFF);
+    assertThrows(IllegalArgumentException.class, () -> EventCodec.decode(EventCodec.AVRO, RAW_PAGE, garbage));
+
+    byte[] json = "{\"schema_version\": 1, \"job\": ".getBytes(StandardCharsets.UTF_8);
+    assertThrows(IllegalArgumentException.class, () -> EventCodec.decode(EventCodec.JSON, RAW_PAGE, json));
+  }
+
+  @Test
+  void missingRequiredFieldFailsAvroEncoding() throws Exception {
+    JsonNode evt = OM.readTree(JOB);
+    ((ObjectNode) evt.get("job")).remove("portal");
+    assertThrows(IllegalArgumentException.class, () -> EventCodec.encode(EventCodec.AVRO, DISPATCHED, evt));
+  }
+}
@@ -0,0 +1,78 @@
+package dev.propprice.co.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import dev.propprice.co.util.ChangeRateEstimator.History;
+
+class ChangeRateEstimatorTest {
+
+  private static final double EPS = 1e-9;
+
+  @Test
+  void observeDecaysHistoryAndAddsTheFetch() {
+    History h = ChangeRateEstimator.observe(new History(4, 20), true, 3, 0.5);
+    assertEquals(3, h.changes(), EPS);
+    assertEquals(13, h.exposureDays(), EPS);
+
+    h = ChangeRateEstimator.observe(h, false, 2, 1.0);
+    assertEquals(3, h.changes(), EPS);
+    assertEquals(15, h.exposureDays(), EPS);
+  }
+
+  @Test
+  void observeIgnoresNegativeElapsedTime() {
+    History h = ChangeRateEstimator.observe(new History(1, 10), false, -5, 1.0);
+    assertEquals(10, h.exposureDays(), EPS);
+  }
+
+  @Test
+  void rateCombinesHistoryWithThePrior() {
+    assertEquals(0.25, ChangeRateEstimator.rate(new History(1, 4), 0, 0), EPS);
+    assertEquals(3.0 / 14, ChangeRateEstimator.rate(new History(2, 7), 1, 7), EPS);
+  }
+
+  @Test
+  void priorAloneYieldsTheBaselineInterval() {
+    double p = 0.5;
+    double baselineDays = 7;
+    double rate = ChangeRateEstimator.rate(History.EMPTY, ChangeRateEstimator.priorChanges(p), baselineDays);
+    assertEquals(baselineDays, ChangeRateEstimator.intervalDays(rate, p, 0, 365), 1e-6);
+  }
+
+  @Test
+  void intervalIsTimeUntilAChangeReachesTheProbability() {
+    // one change a day: a change is 50% likely after ln 2 days
+    assertEquals(Math.log(2), ChangeRateEstimator.intervalDays(1, 0.5, 0, 60), EPS);
+    // higher confidence waits less
+    assertTrue(ChangeRateEstimator.intervalDays(1, 0.2, 0, 60) < ChangeRateEstimator.intervalDays(1, 0.5, 0, 60));
+  }
+
+  @Test
+  void intervalIsClampedToBounds() {
+    assertEquals(0.5, ChangeRateEstimator.intervalDays(100, 0.5, 0.5, 60), EPS);
+    assertEquals(60, ChangeRateEstimator.intervalDays(0.001, 0.5, 0.5, 60), EPS);
+  }
+
+  @Test
+  void zeroOrNegativeRateWaitsTheMaximum() {
+    assertEquals(60, ChangeRateEstimator.intervalDays(0, 0.5, 0.5, 60), EPS);
+    assertEquals(60, ChangeRateEstimator.intervalDays(-1, 0.5, 0.5, 60), EPS);
+  }
+
+  @Test
+  void staticPagesDriftToTheMaximumAndVolatileOnesToTheMinimum() {
+    double p = 0.5;
+    double prior = ChangeRateEstimator.priorChanges(p);
+    History unchanged = History.EMPTY;
+    History changing = History.EMPTY;
+    for (int i = 0; i < 50; i++) {
+      unchanged = ChangeRateEstimator.observe(unchanged, false, 7, 0.95);
+      changing = ChangeRateEstimator.observe(changing, true, 0.25, 0.95);
+    }
+    assertEquals(60, ChangeRateEstimator.intervalDays(ChangeRateEstimator.rate(unchanged, prior, 7), p, 0.5, 60), EPS);
+    assertEquals(0.5, ChangeRateEstimator.intervalDays(ChangeRateEstimator.rate(changing, prior, 7), p, 0.5, 60), EPS);
+  }
+}
@@ -0,0 +1,114 @@
+package dev.propprice.co.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimingWheelTest {
+
+  // 8 buckets of 10 ms: level 0 spans 80 ms, level 1 640 ms, level 2 5120 ms
+  private final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+
+  @Test
+  void expiresWhenTheDeadlineTickIsReached() {
+    wheel.schedule("a", 30);
+    assertTrue(wheel.advance(29).isEmpty());
+    assertEquals(List.of("a"), wheel.advance(30));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void pastDeadlineExpiresOnTheNextAdvance() {
+    wheel.advance(100);
+    wheel.schedule("late", 50);
+    assertEquals(1, wheel.size());
+    assertEquals(List.of("late"), wheel.advance(100));
+  }
+
+  @Test
+  void bucketIndexWrapsAround() {
+    wheel.advance(70);
+    wheel.schedule("a", 100); // bucket 10 % 8 = 2, behind the current index 7
+    assertTrue(wheel.advance(90).isEmpty());
+    assertEquals(List.of("a"), wheel.advance(100));
+  }
+
+  @Test
+  void unalignedStartWrapsAround() {
+    HierarchicalTimingWheel<String> w = new HierarchicalTimingWheel<>(10, 8, 1_000_005);
+    w.schedule("a", 1_000_070);
+    w.schedule("b", 1_000_090);
+    assertEquals(List.of("a"), w.advance(1_000_075));
+    assertEquals(List.of("b"), w.advance(1_000_090));
+  }
+
+  @Test
+  void deadlinesBeyondOneRotationCascadeDown() {
+    wheel.schedule("level1", 500);
+    wheel.schedule("level2", 3_000);
+    assertEquals(2, wheel.size());
+    assertTrue(wheel.advance(490).isEmpty());
+    assertEquals(List.of("level1"), wheel.advance(500));
+    assertTrue(wheel.advance(2_990).isEmpty());
+    assertEquals(List.of("level2"), wheel.advance(3_000));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void oneLargeAdvanceReturnsEverythingDue() {
+    wheel.schedule("a", 20);
+    wheel.schedule("b", 700);
+    wheel.schedule("c", 6_000);
+    wheel.schedule("d", 9_000);
+    List<String> due = wheel.advance(6_000);
+    assertEquals(3, due.size());
+    assertTrue(due.containsAll(List.of("a", "b", "c")));
+    assertEquals(List.of("d"), wheel.advance(9_000));
+  }
+
+  @Test
+  void everyEntryExpiresExactlyOnceAtItsTick() {
+    SplittableRandom random = new SplittableRandom(7);
+    Map<String, Long> deadlines = new HashMap<>();
+    for (int i = 0; i < 2_000; i++) {
+      long deadline = random.nextLong(1, 1_500) * 10;
+      deadlines.put("e" + i, deadline);
+      wheel.schedule("e" + i, deadline);
+    }
+    List<String> seen = new ArrayList<>();
+    for (long now = 0; now <= 15_000; now += 10) {
+      for (String e : wheel.advance(now)) {
+        assertEquals((long) deadlines.get(e), now, e);
+        seen.add(e);
+      }
+    }
+    assertEquals(deadlines.size(), seen.size());
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void expiredEntryCanBeRescheduled() {
+    // RetryScheduler defers a retry by scheduling it again after it came due
+    wheel.schedule("r", 40);
+    assertEquals(List.of("r"), wheel.advance(40));
+    wheel.schedule("r", 900);
+    assertEquals(1, wheel.size());
+    assertTrue(wheel.advance(890).isEmpty());
+    assertEquals(List.of("r"), wheel.advance(900));
+    assertTrue(wheel.advance(2_000).isEmpty());
+  }
+
+  @Test
+  void rejectsInvalidGeometry() {
+    assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<String>(0, 8, 0));
+    assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<String>(10, 1, 0));
+  }
+}
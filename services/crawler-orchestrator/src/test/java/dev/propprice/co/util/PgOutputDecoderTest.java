@@ -0,0 +1,100 @@
+package dev.propprice.co.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class PgOutputDecoderTest {
+
+  private final PgOutputDecoder decoder = new PgOutputDecoder();
+
+  @Test
+  void decodesAnOutboxTransaction() throws IOException {
+    List<PgOutputDecoder.Message> out = new ArrayList<>();
+    for (ByteBuffer msg : fixture("outbox-transaction.hex")) {
+      out.add(decoder.decode(msg));
+    }
+    assertEquals(7, out.size());
+
+    PgOutputDecoder.Begin begin = assertInstanceOf(PgOutputDecoder.Begin.class, out.get(0));
+    assertEquals(0x16B3748L, begin.finalLsn());
+    assertEquals(741, begin.xid());
+    assertNull(out.get(1), "relation");
+    assertNull(out.get(2), "type");
+
+    PgOutputDecoder.Insert first = assertInstanceOf(PgOutputDecoder.Insert.class, out.get(3));
+    assertEquals("ing", first.schema());
+    assertEquals("outbox", first.table());
+    assertEquals("1042", first.values().get("id"));
+    assertEquals("acq.job.dispatched.v1", first.values().get("topic"));
+    assertEquals("\\x69646561", first.values().get("k"));
+    assertEquals("{\"portal\":\"idealista\",\"città\":\"Málaga\"}", first.values().get("v"));
+    assertNull(first.values().get("kafka_headers"));
+    assertEquals(6, first.values().size());
+
+    PgOutputDecoder.Insert second = assertInstanceOf(PgOutputDecoder.Insert.class, out.get(4));
+    assertEquals("1043", second.values().get("id"));
+    assertNull(second.values().get("k"), "'n' is SQL NULL");
+    assertNull(second.values().get("payload"), "'u' (unchanged TOAST) carries no value");
+    assertEquals(6, second.values().size());
+
+    assertNull(out.get(5), "update");
+    PgOutputDecoder.Commit commit = assertInstanceOf(PgOutputDecoder.Commit.class, out.get(6));
+    assertEquals(0x16B3748L, commit.commitLsn());
+    assertEquals(0x16B3778L, commit.endLsn());
+  }
+
+  @Test
+  void insertBeforeItsRelationIsRejected() throws IOException {
+    ByteBuffer insert = fixture("outbox-transaction.hex").get(3);
+    assertThrows(IllegalStateException.class, () -> decoder.decode(insert));
+  }
+
+  @Test
+  void unsupportedColumnKindIsRejected() throws IOException {
+    List<ByteBuffer> messages = fixture("outbox-transaction.hex");
+    decoder.decode(messages.get(1));
+    // one 'b' (binary, protocol v2) column
+    ByteBuffer binary = ByteBuffer.wrap(HexFormat.of().parseHex("49000040254e000162000000020102"));
+    assertThrows(IllegalStateException.class, () -> decoder.decode(binary));
+  }
+
+  @Test
+  void relationIsReplacedWhenItChanges() throws IOException {
+    List<ByteBuffer> messages = fixture("outbox-transaction.hex");
+    decoder.decode(messages.get(1));
+    // same relation id, now with a single column "id" (after an ALTER TABLE)
+    decoder.decode(ByteBuffer.wrap(HexFormat.of().parseHex(
+        "5200004025696e67006f7574626f78006400010169640000000014ffffffff")));
+    PgOutputDecoder.Insert ins = assertInstanceOf(PgOutputDecoder.Insert.class,
+        decoder.decode(ByteBuffer.wrap(HexFormat.of().parseHex("49000040254e0001740000000137"))));
+    assertEquals(Map.of("id", "7"), ins.values());
+  }
+
+  /** One message per line, hex encoded; lines starting with # are comments. */
+  private static List<ByteBuffer> fixture(String name) throws IOException {
+    List<ByteBuffer> out = new ArrayList<>();
+    try (BufferedReader in = new BufferedReader(new InputStreamReader(
+        PgOutputDecoderTest.class.getResourceAsStream("/pgoutput/" + name), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (!line.isBlank() && !line.startsWith("#"))
+          out.add(ByteBuffer.wrap(HexFormat.of().parseHex(line.strip())));
+      }
+    }
+    return out;
+  }
+}
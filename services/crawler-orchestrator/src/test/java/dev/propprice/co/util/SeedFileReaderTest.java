@@ -0,0 +1,225 @@
+package dev.propprice.co.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import dev.propprice.co.util.SeedFileReader.Entry;
+import dev.propprice.co.util.SeedFileReader.Format;
+
+class SeedFileReaderTest {
+
+  @TempDir
+  Path dir;
+
+  @ParameterizedTest
+  @CsvSource({
+      "sitemap.xml, sitemap",
+      "sitemap_index.XML.gz, sitemap",
+      "urls.ndjson, ndjson",
+      "urls.jsonl.gz, ndjson",
+      "urls.csv, csv",
+      "URLS.CSV.GZ, csv",
+  })
+  void formatFromFileName(String name, Format expected) {
+    assertEquals(expected, Format.of(name));
+  }
+
+  @Test
+  void unknownFileTypeIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> Format.of("urls.txt"));
+    assertThrows(IllegalArgumentException.class, () -> Format.of("urls.gz"));
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', nullValues = "null", textBlock = """
+      # row                                       | url                    | task_type   | segment | priority
+      https://a.es/1,detail,sale,4                | https://a.es/1         | detail      | sale    | 4
+      https://a.es/1                              | https://a.es/1         | null        | null    | null
+      https://a.es/1,,rent,                       | https://a.es/1         | null        | rent    | null
+      "https://a.es/s?q=1,2",search_page,,7       | https://a.es/s?q=1,2   | search_page | null    | 7
+      "https://a.es/\"\"quoted\"\"",detail        | https://a.es/"quoted"  | detail      | null    | null
+      " https://a.es/1 ", detail ,  sale , 2      | https://a.es/1         | detail      | sale    | 2
+      """)
+  void csvRowsWithoutHeaderUseColumnOrder(String row, String url, String taskType, String segment,
+      Integer priority) throws IOException {
+    List<Entry> entries = read(csv(row + "\n"), Format.csv);
+    assertEquals(List.of(new Entry(url, taskType, segment, priority, false)), entries);
+  }
+
+  @Test
+  void csvHeaderSelectsColumnsInAnyOrderAndCase() throws IOException {
+    Path f = csv("""
+        Priority,URL,extra,Segment
+        3,https://a.es/1,x,rent
+
+        ,https://a.es/2,y,
+        """);
+    assertEquals(List.of(
+        new Entry("https://a.es/1", null, "rent", 3, false),
+        new Entry("https://a.es/2", null, null, null, false)), read(f, Format.csv));
+  }
+
+  @Test
+  void csvWithoutHeaderKeepsTheFirstRow() throws IOException {
+    Path f = csv("https://a.es/1\nhttps://a.es/2\n");
+    assertEquals(2, read(f, Format.csv).size());
+  }
+
+  @Test
+  void unparseableRecordsStillCountAsOne() throws IOException {
+    Path c = csv("https://a.es/1,detail,sale,high\nhttps://a.es/2\n");
+    assertEquals(List.of(
+        new Entry(null, null, null, null, false),
+        new Entry("https://a.es/2", null, null, null, false)), read(c, Format.csv));
+
+    Path j = write("urls.ndjson", """
+        {"url": "https://a.es/1", "task_type": "detail", "segment": "sale", "priority": 2}
+        not json
+
+        {"url": "https://a.es/2", "priority": null}
+        """.getBytes(StandardCharsets.UTF_8));
+    assertEquals(List.of(
+        new Entry("https://a.es/1", "detail", "sale", 2, false),
+        new Entry(null, null, null, null, false),
+        new Entry("https://a.es/2", null, null, null, false)), read(j, Format.ndjson));
+  }
+
+  @Test
+  void gzipIsDetectedFromContentNotName() throws IOException {
+    byte[] body = "https://a.es/1\nhttps://a.es/2\n".getBytes(StandardCharsets.UTF_8);
+    List<Entry> expected = List.of(
+        new Entry("https://a.es/1", null, null, null, false),
+        new Entry("https://a.es/2", null, null, null, false));
+
+    assertEquals(expected, read(write("gzipped.csv", gzip(body)), Format.csv));
+    assertEquals(expected, read(write("plain.csv.gz", body), Format.csv));
+    assertEquals(expected, read(write("gzipped.csv.gz", gzip(body)), Format.csv));
+  }
+
+  @Test
+  void bytesReadCountsTheFileNotTheDecompressedStream() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5_000; i++) {
+      sb.append("https://a.es/listing/").append(i).append('\n');
+    }
+    Path f = write("big.csv.gz", gzip(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    try (SeedFileReader r = SeedFileReader.open(f, Format.csv)) {
+      while (r.next() != null) {
+        // drain
+      }
+      assertEquals(Files.size(f), r.bytesRead());
+    }
+  }
+
+  @Test
+  void sitemapUrlsetYieldsPages() throws IOException {
+    Path f = write("sitemap.xml", """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+          <url><loc>https://a.es/1</loc><lastmod>2024-01-01</lastmod></url>
+          <url>
+            <loc>
+              https://a.es/2?x=1&amp;y=2
+            </loc>
+          </url>
+        </urlset>
+        """.getBytes(StandardCharsets.UTF_8));
+    assertEquals(List.of(
+        new Entry("https://a.es/1", null, null, null, false),
+        new Entry("https://a.es/2?x=1&y=2", null, null, null, false)), read(f, Format.sitemap));
+  }
+
+  @Test
+  void sitemapIndexYieldsChildSitemaps() throws IOException {
+    Path f = write("sitemap_index.xml.gz", gzip("""
+        <?xml version="1.0" encoding="UTF-8"?>
+        <sitemapindex xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+          <sitemap><loc>https://a.es/sitemaps/sale-1.xml.gz</loc></sitemap>
+          <sitemap><loc>https://a.es/sitemaps/rent-1.xml.gz</loc><lastmod>2024-01-01</lastmod></sitemap>
+        </sitemapindex>
+        """.getBytes(StandardCharsets.UTF_8)));
+    assertEquals(List.of(
+        new Entry("https://a.es/sitemaps/sale-1.xml.gz", null, null, null, true),
+        new Entry("https://a.es/sitemaps/rent-1.xml.gz", null, null, null, true)), read(f, Format.sitemap));
+  }
+
+  @Test
+  void malformedSitemapFails() throws IOException {
+    Path f = write("broken.xml", "<urlset><url><loc>https://a.es/1</loc></url>".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IOException.class, () -> read(f, Format.sitemap));
+  }
+
+  @Test
+  void externalEntitiesAreNotResolved() throws IOException {
+    Path secret = write("secret.txt", "https://a.es/secret".getBytes(StandardCharsets.UTF_8));
+    Path f = write("xxe.xml", ("""
+        <?xml version="1.0"?>
+        <!DOCTYPE urlset [<!ENTITY x SYSTEM "%s">]>
+        <urlset><url><loc>&x;</loc></url></urlset>
+        """.formatted(secret.toUri())).getBytes(StandardCharsets.UTF_8));
+    List<Entry> entries;
+    try {
+      entries = read(f, Format.sitemap);
+    } catch (IOException e) {
+      return; // rejecting the DTD outright is fine too
+    }
+    for (Entry e : entries) {
+      assertFalse(e.url() != null && e.url().contains("secret"), e.url());
+    }
+  }
+
+  @Test
+  void emptyFileHasNoRecords() throws IOException {
+    assertNull(firstOf(write("empty.csv", new byte[0]), Format.csv));
+    assertNull(firstOf(write("empty.ndjson", new byte[0]), Format.ndjson));
+  }
+
+  private Path csv(String content) throws IOException {
+    return write("seeds.csv", content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Path write(String name, byte[] content) throws IOException {
+    return Files.write(dir.resolve(name), content);
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    try (OutputStream out = new GZIPOutputStream(buf)) {
+      out.write(data);
+    }
+    return buf.toByteArray();
+  }
+
+  private static List<Entry> read(Path f, Format format) throws IOException {
+    List<Entry> out = new ArrayList<>();
+    try (SeedFileReader r = SeedFileReader.open(f, format)) {
+      for (Entry e; (e = r.next()) != null;) {
+        out.add(e);
+      }
+    }
+    return out;
+  }
+
+  private static Entry firstOf(Path f, Format format) throws IOException {
+    try (SeedFileReader r = SeedFileReader.open(f, format)) {
+      return r.next();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package dev.propprice.co.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Golden sequences for the Java bucket; RedisTokenBucketTest checks the Lua
+ * script against this class. Rates refill a power-of-two fraction of a token
+ * per millisecond so the expected values are exact.
+ */
+class TokenBucketTest {
+
+  @Test
+  void goldenSequence() {
+    TokenBucket b = new TokenBucket(125, 3); // 0.125 tokens/ms
+    long[][] steps = {
+        // now, allowed (1/0), nextTokenAt after the call
+        { 0, 1, 0 }, // starts full: 3 -> 2
+        { 0, 1, 0 }, // 1
+        { 0, 1, 8 }, // 0
+        { 0, 0, 8 }, // empty
+        { 4, 0, 8 }, // 0.5
+        { 7, 0, 8 }, // 0.875
+        { 8, 1, 16 }, // 1.0 -> 0
+        { 1_000, 1, 1_000 }, // refill capped at 3 -> 2
+        { 900, 1, 900 }, // clock went back: no refill, ts moves: 1
+        { 908, 1, 908 }, // 1 + 1 -> 1
+        { 908, 1, 916 }, // 0
+        { 909, 0, 916 }, // 0.125
+    };
+    for (long[] s : steps) {
+      assertEquals(s[1] == 1, b.allow(s[0]), "allow at " + s[0]);
+      assertEquals(s[2], b.nextTokenAt(), "next token after " + s[0]);
+    }
+  }
+
+  @Test
+  void sustainedRateIsTheRefillRate() {
+    TokenBucket b = new TokenBucket(10, 5);
+    int allowed = 0;
+    for (long t = 0; t < 60_000; t += 10) {
+      if (b.allow(t))
+        allowed++;
+    }
+    // initial burst plus 10/s over 60 s, less the last refill still pending
+    assertTrue(allowed >= 5 + 599 && allowed <= 5 + 600, String.valueOf(allowed));
+  }
+
+  @Test
+  void deniedCallsStillMoveTheTimestamp() {
+    TokenBucket b = new TokenBucket(125, 1);
+    assertTrue(b.allow(0));
+    assertFalse(b.allow(4)); // 0.5
+    assertFalse(b.allow(4)); // no double refill for the same instant
+    assertTrue(b.allow(8));
+  }
+
+  @Test
+  void zeroRateOrCapacityNeverRefills() {
+    TokenBucket noRate = new TokenBucket(0, 2);
+    assertTrue(noRate.allow(0));
+    assertTrue(noRate.allow(0));
+    assertFalse(noRate.allow(1_000_000));
+    assertEquals(Long.MAX_VALUE, noRate.nextTokenAt());
+
+    TokenBucket noCapacity = new TokenBucket(100, 0);
+    assertFalse(noCapacity.allow(0));
+    assertFalse(noCapacity.allow(10_000));
+    assertEquals(Long.MAX_VALUE, noCapacity.nextTokenAt());
+  }
+
+  @Test
+  void freshBucketIsAvailableImmediately() {
+    TokenBucket b = new TokenBucket(1, 1);
+    assertEquals(0, b.nextTokenAt());
+  }
+}